@@ -0,0 +1,63 @@
+package eu.hradio.radiowebview;
+
+import java.util.Random;
+
+/**
+ * Synthetic, reproducible input data for the serialization benchmarks
+ */
+class BenchmarkData {
+
+	//labels with umlauts, quotes and line separators exercise the escaping of the JsWriter
+	private static final String[] LABEL_PARTS = {"Bayern", "Deutschlandfunk", "Radio \"Eins\"", "\u00d61", "SWR3", "Klassik\\Pop", "Nachrichten\u2028", "H\u00f6rertelefon"};
+
+	private BenchmarkData() {
+	}
+
+	static Random newRandom() {
+		return new Random(0x52574256L);
+	}
+
+	static String label(Random random, int minLength) {
+		StringBuilder labelBuilder = new StringBuilder(minLength + 16);
+		while(labelBuilder.length() < minLength) {
+			if(labelBuilder.length() > 0) {
+				labelBuilder.append(' ');
+			}
+			labelBuilder.append(LABEL_PARTS[random.nextInt(LABEL_PARTS.length)]);
+		}
+
+		return labelBuilder.toString();
+	}
+
+	static byte[] imageData(Random random, int sizeBytes) {
+		byte[] data = new byte[sizeBytes];
+		random.nextBytes(data);
+		return data;
+	}
+
+	static String writeDabService(int handle, String serviceLabel, int serviceId, String ensembleLabel) {
+		JsWriter writer = JsWriter.obtain();
+		BridgeJson.writeDabServiceData(writer, handle, "RADIOSERVICE_TYPE_DAB", serviceLabel, serviceId, 0x10BC + handle / 16,
+				0xE0, ensembleLabel, 178352 + (handle / 16) * 1712, true);
+		return writer.release();
+	}
+
+	static String writeIpService(int handle, String serviceLabel) {
+		JsWriter writer = JsWriter.obtain();
+		BridgeJson.beginIpServiceData(writer, handle, "RADIOSERVICE_TYPE_IP", serviceLabel);
+		BridgeJson.writeIpStream(writer, "https://streams.example.org/" + handle + "/high.mp3", 128, "audio/mpeg", 0, 0);
+		BridgeJson.writeIpStream(writer, "https://streams.example.org/" + handle + "/low.aac", 48, "audio/aac", 0, 0);
+		BridgeJson.endIpServiceData(writer);
+		return writer.release();
+	}
+
+	static String writeDls(String text, int dlPlusItemCount) {
+		JsWriter writer = JsWriter.obtain();
+		BridgeJson.beginTextual(writer, "METADATA_TEXTUAL_TYPE_DAB_DLS", text, true, false);
+		for(int i = 0; i < dlPlusItemCount; i++) {
+			BridgeJson.writeDlPlusItem(writer, i % 2 == 0 ? "ITEM_TITLE" : "ITEM_ARTIST", "ITEM", "Title", text);
+		}
+		BridgeJson.endTextual(writer);
+		return writer.release();
+	}
+}
@@ -0,0 +1,59 @@
+package eu.hradio.radiowebview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+
+/**
+ * Delivery of a storm of DLS events of many services within one frame through the {@link JsDispatcher}
+ * to a {@link RecordingBridgeHost}, evaluated as script or posted as messages
+ */
+@State(Scope.Thread)
+public class EventStormBenchmark {
+
+	@Param({"10", "100", "1000"})
+	public int mEventsPerFrame;
+
+	@Param({"false", "true"})
+	public boolean mMessageChannel;
+
+	private RecordingBridgeHost mHost;
+	private JsDispatcher mDispatcher;
+	private String[] mDlsJson;
+
+	@Setup
+	public void setup() {
+		mHost = new RecordingBridgeHost(mMessageChannel, false);
+		mDispatcher = mHost.getDispatcher();
+
+		Random random = BenchmarkData.newRandom();
+		mDlsJson = new String[64];
+		for(int i = 0; i < mDlsJson.length; i++) {
+			mDlsJson[i] = BenchmarkData.writeDls(BenchmarkData.label(random, 80), 2);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		mHost.release();
+	}
+
+	@Benchmark
+	public long deliverFrame() {
+		long receivedNanos = System.nanoTime();
+		for(int i = 0; i < mEventsPerFrame; i++) {
+			JsWriter writer = JsWriter.obtain();
+			JsDispatcher.beginCall(writer, i, false, "notifyListeners").value("dls").jsonValue(mDlsJson[i % mDlsJson.length]);
+			JsDispatcher.endCall(writer);
+			mDispatcher.postMessage(writer.release(), BridgeMetrics.EVENT_DLS, receivedNanos);
+		}
+		mHost.runFrame();
+
+		return mHost.getDeliveredChars();
+	}
+}
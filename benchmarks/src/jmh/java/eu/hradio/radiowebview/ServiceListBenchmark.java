@@ -0,0 +1,88 @@
+package eu.hradio.radiowebview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Serialization of the service list: the service data, the radioWeb.services literal injected with the bootstrap
+ * and the delta of an updated list against the published {@link ServiceSnapshot}
+ */
+@State(Scope.Thread)
+public class ServiceListBenchmark {
+
+	@Param({"10", "100", "1000", "5000"})
+	public int mServiceCount;
+
+	private String[] mServiceLabels;
+	private String[] mEnsembleLabels;
+	private LinkedHashMap<Integer, String> mServiceData;
+	//every tenth service with a changed label, every twentieth removed
+	private LinkedHashMap<Integer, String> mUpdatedServiceData;
+
+	private final ServiceSnapshot mSnapshot = new ServiceSnapshot();
+	private boolean mUpdated = false;
+
+	@Setup
+	public void setup() {
+		Random random = BenchmarkData.newRandom();
+		mServiceLabels = new String[mServiceCount];
+		mEnsembleLabels = new String[mServiceCount];
+		for(int i = 0; i < mServiceCount; i++) {
+			mServiceLabels[i] = BenchmarkData.label(random, 8);
+			mEnsembleLabels[i] = BenchmarkData.label(random, 12);
+		}
+
+		mServiceData = serializeServices();
+		mUpdatedServiceData = new LinkedHashMap<>();
+		for(Map.Entry<Integer, String> srvEntry : mServiceData.entrySet()) {
+			int handle = srvEntry.getKey();
+			if(handle % 20 == 19) {
+				continue;
+			}
+			mUpdatedServiceData.put(handle, handle % 10 == 0 ? BenchmarkData.writeDabService(handle, mServiceLabels[handle] + " HD", handle, mEnsembleLabels[handle]) : srvEntry.getValue());
+		}
+
+		mSnapshot.publish(new LinkedHashMap<>(mServiceData));
+	}
+
+	@Benchmark
+	public LinkedHashMap<Integer, String> serializeServices() {
+		LinkedHashMap<Integer, String> serviceData = new LinkedHashMap<>();
+		for(int i = 0; i < mServiceCount; i++) {
+			//every fourth service an IP service with two streams
+			String srvData = i % 4 == 3 ? BenchmarkData.writeIpService(i, mServiceLabels[i]) : BenchmarkData.writeDabService(i, mServiceLabels[i], 0xD210 + i, mEnsembleLabels[i]);
+			serviceData.put(i, srvData);
+		}
+
+		return serviceData;
+	}
+
+	@Benchmark
+	public String writeServicesLiteral() {
+		JsWriter writer = JsWriter.obtain();
+		writer.beginArray();
+		for(String srvData : mServiceData.values()) {
+			writer.extendObject(srvData);
+			writer.name("timeshifted").value(false);
+			writer.endObject();
+		}
+		writer.endArray();
+
+		return writer.release();
+	}
+
+	@Benchmark
+	public Object updateSnapshot() {
+		//the generated benchmark code is in another package and can not name the Delta type
+		//the snapshot takes ownership of the list, alternating between the two lists gives the same delta size every time
+		mUpdated = !mUpdated;
+		return mSnapshot.update(new LinkedHashMap<>(mUpdated ? mUpdatedServiceData : mServiceData));
+	}
+}
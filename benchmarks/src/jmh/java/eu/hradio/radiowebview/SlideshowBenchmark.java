@@ -0,0 +1,44 @@
+package eu.hradio.radiowebview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Serialization of a slideshow visual, by default only with the URL the image is served with,
+ * optionally with the image inlined Base64 encoded
+ */
+@State(Scope.Thread)
+public class SlideshowBenchmark {
+
+	@Param({"5", "20", "50", "200"})
+	public int mSlideKb;
+
+	@Param({"false", "true"})
+	public boolean mInlineVisualData;
+
+	private byte[] mImageData;
+	private String mContentName;
+
+	@Setup
+	public void setup() {
+		Random random = BenchmarkData.newRandom();
+		mImageData = BenchmarkData.imageData(random, mSlideKb * 1024);
+		mContentName = BenchmarkData.label(random, 24) + ".jpg";
+	}
+
+	@Benchmark
+	public String writeSlideshow() {
+		JsWriter writer = JsWriter.obtain();
+		BridgeJson.beginVisual(writer, "METADATA_VISUAL_TYPE_DAB_SLS");
+		BridgeJson.writeSlsMembers(writer, mContentName, 42, "image/jpeg", true, 3, "Programm", "https://www.example.org/programm", null,
+				"https://radioweb.local/sls/42", mInlineVisualData ? mImageData : null);
+		writer.endObject();
+
+		return writer.release();
+	}
+}
@@ -0,0 +1,70 @@
+package eu.hradio.radiowebview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Serialization of the timeshift state of a service with its skip items and of a DLS with DL+ items.
+ * The skip items are serialized once each and only their cached JSON is written with the timeshift state.
+ */
+@State(Scope.Thread)
+public class TimeshiftBenchmark {
+
+	@Param({"10", "100", "500"})
+	public int mSkipItemCount;
+
+	private String[] mSkipTexts;
+	private String[] mSkipItemJson;
+	private String mDlsText;
+
+	@Setup
+	public void setup() {
+		Random random = BenchmarkData.newRandom();
+		mSkipTexts = new String[mSkipItemCount];
+		for(int i = 0; i < mSkipItemCount; i++) {
+			mSkipTexts[i] = BenchmarkData.label(random, 60);
+		}
+		mSkipItemJson = serializeSkipItems();
+		mDlsText = BenchmarkData.label(random, 120);
+	}
+
+	@Benchmark
+	public String[] serializeSkipItems() {
+		String[] skipItemJson = new String[mSkipItemCount];
+		for(int i = 0; i < mSkipItemCount; i++) {
+			JsWriter writer = JsWriter.obtain();
+			BridgeJson.beginSkipItem(writer, i * 15000L);
+			BridgeJson.writeSkipItemSbt(writer, 1580000000000L + i * 15000L, String.valueOf(i & 0xFF));
+			writer.name("skipTextual");
+			BridgeJson.beginTextual(writer, "METADATA_TEXTUAL_TYPE_DAB_DLS", mSkipTexts[i], true, i % 2 == 0);
+			BridgeJson.writeDlPlusItem(writer, "ITEM_TITLE", "ITEM", "Title", mSkipTexts[i]);
+			BridgeJson.endTextual(writer);
+			writer.endObject();
+			skipItemJson[i] = writer.release();
+		}
+
+		return skipItemJson;
+	}
+
+	@Benchmark
+	public String writeTimeshift() {
+		JsWriter writer = JsWriter.obtain();
+		BridgeJson.beginTimeshift(writer, false, 120000, mSkipItemCount * 15000L, "sbt-token", mSkipItemCount * 15000L);
+		for(String skipJson : mSkipItemJson) {
+			writer.jsonValue(skipJson);
+		}
+		BridgeJson.endTimeshift(writer);
+
+		return writer.release();
+	}
+
+	@Benchmark
+	public String writeDls() {
+		return BenchmarkData.writeDls(mDlsText, 2);
+	}
+}
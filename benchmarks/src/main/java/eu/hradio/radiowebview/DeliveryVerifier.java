@@ -0,0 +1,240 @@
+package eu.hradio.radiowebview;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Checks the messages delivered to a {@link RecordingBridgeHost} against the events of a {@link SimulatedRadio}.
+ * Per stream it counts the delivered events, events delivered out of order, gaps in the sequence numbers which
+ * are dropped events or, for latest-wins streams, coalesced values, and records the latency from emission to delivery.
+ * A retransmitted label delivered again counts as out of order.
+ * <p>
+ * It also mirrors the state the page builds from the messages and counts as failures: a slide referenced but not
+ * defined in radioWeb.slides, a deleted slide or removed skip item which the page does not have, a DLS or SLS of a
+ * stopped service, a service found with another handle and, when complete, a service still active.
+ * Scripts are not verified, the verification requires the message channel.
+ */
+class DeliveryVerifier implements RecordingBridgeHost.DeliveryListener {
+
+	private final SimulatedRadio mRadio;
+
+	//only used on the frame thread
+	private final long[] mLastSeq = new long[SimulatedRadio.STREAM_COUNT];
+	private final long[] mDelivered = new long[SimulatedRadio.STREAM_COUNT];
+	private final long[] mGaps = new long[SimulatedRadio.STREAM_COUNT];
+	private final long[] mReordered = new long[SimulatedRadio.STREAM_COUNT];
+	private final LatencyHistogram[] mLatencies = new LatencyHistogram[SimulatedRadio.STREAM_COUNT];
+	private long mUnknownLatencies = 0;
+	private long mMalformedDeliveries = 0;
+	private long mUnverifiedScripts = 0;
+
+	//the state of the page, only used on the frame thread
+	private final HashMap<Long, Long> mSlides = new HashMap<>();
+	private final HashSet<Long> mSkipItems = new HashSet<>();
+	private final HashSet<Integer> mActiveServices = new HashSet<>();
+	private final HashMap<Long, Integer> mServiceHandles = new HashMap<>();
+	private long mUndefinedSlides = 0;
+	private long mUnknownRemovals = 0;
+	private long mInactiveServiceEvents = 0;
+	private long mChangedHandles = 0;
+
+	DeliveryVerifier(SimulatedRadio radio) {
+		mRadio = radio;
+		Arrays.fill(mLastSeq, -1);
+		for(int i = 0; i < mLatencies.length; i++) {
+			mLatencies[i] = new LatencyHistogram();
+		}
+	}
+
+	@Override
+	public void onScript(String script) {
+		mUnverifiedScripts++;
+	}
+
+	@Override
+	public void onMessages(String messagesJson) {
+		long deliveryNanos = System.nanoTime();
+		try {
+			JSONArray messages = new JSONArray(messagesJson);
+			for(int i = 0; i < messages.length(); i++) {
+				JSONObject message = messages.getJSONObject(i);
+				JSONArray args = message.optJSONArray("a");
+				if(args == null) {
+					//every message is a call
+					mMalformedDeliveries++;
+					continue;
+				}
+
+				switch (message.optString("m")) {
+					case "notifyListeners":
+						verifyNotification(message.optInt("h", -1), args, deliveryNanos);
+						break;
+					case "notifySlide":
+						verifySlide(message.optInt("h", -1), args, deliveryNanos);
+						break;
+					case "deleteSlide":
+						if(mSlides.remove(args.getLong(0)) == null) {
+							mUnknownRemovals++;
+						}
+						break;
+					case "notifyServiceListeners":
+						if("serviceStarted".equals(args.getString(0))) {
+							mActiveServices.add(args.getInt(1));
+						} else if("serviceStopped".equals(args.getString(0))) {
+							mActiveServices.remove(args.getInt(1));
+						}
+						break;
+					case "addSkipItem":
+						long relativeSkipPoint = args.getJSONObject(0).getLong("relativeSkipPoint");
+						mSkipItems.add(relativeSkipPoint);
+						verify(SimulatedRadio.STREAM_SKIP_ITEM, relativeSkipPoint / SimulatedRadio.PROGRESS_STEP_MS, deliveryNanos);
+						break;
+					case "removeSkipItem":
+						if(!mSkipItems.remove(args.getLong(0))) {
+							mUnknownRemovals++;
+						}
+						break;
+					case "updateProgress":
+						verify(SimulatedRadio.STREAM_PROGRESS, args.getLong(0) / SimulatedRadio.PROGRESS_STEP_MS, deliveryNanos);
+						break;
+					case "updateSbtProgress":
+						verify(SimulatedRadio.STREAM_SBT, args.getLong(2), deliveryNanos);
+						break;
+					default:
+						break;
+				}
+			}
+		} catch(JSONException jsonExc) {
+			mMalformedDeliveries++;
+		}
+	}
+
+	private void verifyNotification(int srvHandle, JSONArray args, long deliveryNanos) throws JSONException {
+		switch (args.getString(0)) {
+			case "dls":
+				verifyActive(srvHandle);
+				verify(SimulatedRadio.STREAM_DLS, SimulatedRadio.getDlsSeq(args.getJSONObject(1).getString("dls")), deliveryNanos);
+				break;
+			case "sls":
+				//a slide evicted again before its message was created
+				verifyActive(srvHandle);
+				verifySlideEvent(SimulatedRadio.getSlideIdx(args.getJSONObject(1).getString("contentName")), deliveryNanos);
+				break;
+			case "scanProgress":
+				JSONObject service = args.getJSONObject(1).getJSONObject("service");
+				Integer handle = mServiceHandles.put(service.getLong("serviceId"), service.getInt("handle"));
+				if(handle != null && handle != service.getInt("handle")) {
+					mChangedHandles++;
+				}
+				verify(SimulatedRadio.STREAM_SCAN, args.getLong(2), deliveryNanos);
+				break;
+			default:
+				break;
+		}
+	}
+
+	//a slide is defined in the radioWeb.slides object by its first message and then only referenced by its number
+	private void verifySlide(int srvHandle, JSONArray args, long deliveryNanos) throws JSONException {
+		verifyActive(srvHandle);
+		long slideNum = args.getLong(1);
+		JSONObject visual = args.optJSONObject(2);
+		if(visual != null) {
+			mSlides.put(slideNum, SimulatedRadio.getSlideIdx(visual.getString("contentName")));
+		}
+
+		Long slideIdx = mSlides.get(slideNum);
+		if(slideIdx == null) {
+			mUndefinedSlides++;
+			return;
+		}
+
+		verifySlideEvent(slideIdx, deliveryNanos);
+	}
+
+	//the second event of a slide if its first one was delivered
+	private void verifySlideEvent(long slideIdx, long deliveryNanos) {
+		long seq = mLastSeq[SimulatedRadio.STREAM_SLS] >= slideIdx * 2 ? slideIdx * 2 + 1 : slideIdx * 2;
+		verify(SimulatedRadio.STREAM_SLS, seq, deliveryNanos);
+	}
+
+	private void verifyActive(int srvHandle) {
+		if(!mActiveServices.contains(srvHandle)) {
+			mInactiveServiceEvents++;
+		}
+	}
+
+	private void verify(int stream, long seq, long deliveryNanos) {
+		mDelivered[stream]++;
+		if(seq <= mLastSeq[stream]) {
+			mReordered[stream]++;
+		} else {
+			mGaps[stream] += seq - mLastSeq[stream] - 1;
+			mLastSeq[stream] = seq;
+		}
+
+		long emitNanos = mRadio.getEmitNanos(stream, seq);
+		if(emitNanos >= 0) {
+			mLatencies[stream].record(deliveryNanos - emitNanos);
+		} else {
+			mUnknownLatencies++;
+		}
+	}
+
+	/**
+	 * @param complete {@code true} if the radio is stopped and all events are delivered
+	 * @return the number of events lost or delivered out of order and of inconsistencies of the page state
+	 */
+	long getFailureCount(boolean complete) {
+		long failures = mMalformedDeliveries + mUndefinedSlides + mUnknownRemovals + mInactiveServiceEvents + mChangedHandles;
+		if(complete) {
+			failures += mActiveServices.size();
+		}
+		for(int stream = 0; stream < SimulatedRadio.STREAM_COUNT; stream++) {
+			failures += mReordered[stream];
+			if(!SimulatedRadio.isLatestWins(stream)) {
+				failures += getDropped(stream, complete);
+			}
+		}
+
+		return failures;
+	}
+
+	//events delivered out of order are delivered again or after a gap already counted
+	private long getDropped(int stream, boolean complete) {
+		return complete ? mRadio.getEmittedCount(stream) - (mDelivered[stream] - mReordered[stream]) : mGaps[stream];
+	}
+
+	void writeReport(PrintStream out, boolean complete) {
+		out.printf("%-12s %10s %10s %10s %10s %10s %10s %10s %10s %10s%n", "stream", "emitted", "delivered", "dropped",
+				"coalesced", "reordered", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+		for(int stream = 0; stream < SimulatedRadio.STREAM_COUNT; stream++) {
+			long emitted = mRadio.getEmittedCount(stream);
+			if(emitted == 0) {
+				continue;
+			}
+
+			boolean latestWins = SimulatedRadio.isLatestWins(stream);
+			long dropped = latestWins ? 0 : getDropped(stream, complete);
+			LatencyHistogram latencies = mLatencies[stream];
+			out.printf("%-12s %10d %10d %10d %10d %10d %10.3f %10.3f %10.3f %10.3f%n", SimulatedRadio.STREAM_NAMES[stream], emitted,
+					mDelivered[stream], dropped, latestWins ? mGaps[stream] : 0, mReordered[stream],
+					latencies.getPercentileMicros(50) / 1000d, latencies.getPercentileMicros(99) / 1000d,
+					latencies.getPercentileMicros(99.9) / 1000d, latencies.getMaxMicros() / 1000d);
+		}
+		if(mUnknownLatencies > 0 || mMalformedDeliveries > 0 || mUnverifiedScripts > 0) {
+			out.printf("unknown latencies: %d, malformed deliveries: %d, unverified scripts: %d%n", mUnknownLatencies,
+					mMalformedDeliveries, mUnverifiedScripts);
+		}
+		if(mUndefinedSlides > 0 || mUnknownRemovals > 0 || mInactiveServiceEvents > 0 || mChangedHandles > 0) {
+			out.printf("undefined slides: %d, unknown removals: %d, events of stopped services: %d, changed handles: %d%n",
+					mUndefinedSlides, mUnknownRemovals, mInactiveServiceEvents, mChangedHandles);
+		}
+		out.printf("page slides: %d, page skip items: %d, active services: %d%n", mSlides.size(), mSkipItems.size(), mActiveServices.size());
+	}
+}
@@ -0,0 +1,69 @@
+package eu.hradio.radiowebview;
+
+/**
+ * Histogram of latencies in microseconds with a relative resolution of 1/8, for percentiles over long runs
+ * without keeping the single measurements
+ */
+class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	//exact buckets for the smallest values
+	private static final int LINEAR_BUCKETS = SUB_BUCKETS * 2;
+
+	private final long[] mBuckets = new long[LINEAR_BUCKETS + (64 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS];
+	private long mCount = 0;
+	private long mMaxMicros = 0;
+
+	void record(long latencyNanos) {
+		long micros = Math.max(latencyNanos / 1000, 0);
+		mBuckets[bucketIndex(micros)]++;
+		mCount++;
+		mMaxMicros = Math.max(mMaxMicros, micros);
+	}
+
+	long getCount() {
+		return mCount;
+	}
+
+	long getMaxMicros() {
+		return mMaxMicros;
+	}
+
+	/**
+	 * @param percentile the percentile from 0 to 100
+	 * @return the upper bound of the latency at the percentile in microseconds, 0 without measurements
+	 */
+	long getPercentileMicros(double percentile) {
+		long rank = (long) Math.ceil(mCount * percentile / 100d);
+		long seen = 0;
+		for(int i = 0; i < mBuckets.length; i++) {
+			seen += mBuckets[i];
+			if(seen >= rank && seen > 0) {
+				return Math.min(bucketUpperBound(i), mMaxMicros);
+			}
+		}
+
+		return 0;
+	}
+
+	private static int bucketIndex(long micros) {
+		if(micros < LINEAR_BUCKETS) {
+			return (int) micros;
+		}
+
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return LINEAR_BUCKETS + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long bucketUpperBound(int index) {
+		if(index < LINEAR_BUCKETS) {
+			return index;
+		}
+
+		int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+		int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+		return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
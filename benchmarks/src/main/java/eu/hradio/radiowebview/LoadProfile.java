@@ -0,0 +1,85 @@
+package eu.hradio.radiowebview;
+
+/**
+ * The event rates and payload sizes of a {@link SimulatedRadio}, parsed from arguments like {@code --dlsRate=5}.
+ * Rates are events per second, 0 disables the event type.
+ */
+class LoadProfile {
+
+	int mServiceCount = 50;
+	double mDlsRate = 5;
+	double mSlsRate = 1;
+	int mSlsKb = 50;
+	boolean mInlineSls = true;
+	double mScanRate = 0;
+	double mProgressRate = 10;
+	double mSbtRate = 10;
+	double mSkipItemRate = 0.2;
+	//SBT catch-up: every interval the skip items and SBT progress of the burst size are emitted at once
+	long mBurstIntervalMs = 60000;
+	int mBurstSize = 200;
+	long mProgressIntervalMs = 0;
+	long mDurationMs = 60000;
+	long mReportIntervalMs = 10000;
+
+	static LoadProfile parse(String[] args) {
+		LoadProfile profile = new LoadProfile();
+		for(String arg : args) {
+			int valueStart = arg.indexOf('=');
+			if(!arg.startsWith("--") || valueStart < 0) {
+				throw new IllegalArgumentException("Expected --name=value: " + arg);
+			}
+
+			String name = arg.substring(2, valueStart);
+			String value = arg.substring(valueStart + 1);
+			switch (name) {
+				case "services":
+					profile.mServiceCount = Integer.parseInt(value);
+					break;
+				case "dlsRate":
+					profile.mDlsRate = Double.parseDouble(value);
+					break;
+				case "slsRate":
+					profile.mSlsRate = Double.parseDouble(value);
+					break;
+				case "slsKb":
+					profile.mSlsKb = Integer.parseInt(value);
+					break;
+				case "inlineSls":
+					profile.mInlineSls = Boolean.parseBoolean(value);
+					break;
+				case "scanRate":
+					profile.mScanRate = Double.parseDouble(value);
+					break;
+				case "progressRate":
+					profile.mProgressRate = Double.parseDouble(value);
+					break;
+				case "sbtRate":
+					profile.mSbtRate = Double.parseDouble(value);
+					break;
+				case "skipItemRate":
+					profile.mSkipItemRate = Double.parseDouble(value);
+					break;
+				case "burstIntervalS":
+					profile.mBurstIntervalMs = Long.parseLong(value) * 1000;
+					break;
+				case "burstSize":
+					profile.mBurstSize = Integer.parseInt(value);
+					break;
+				case "progressIntervalMs":
+					profile.mProgressIntervalMs = Long.parseLong(value);
+					break;
+				case "durationS":
+					profile.mDurationMs = Long.parseLong(value) * 1000;
+					break;
+				case "reportIntervalS":
+					profile.mReportIntervalMs = Long.parseLong(value) * 1000;
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown argument: " + name);
+			}
+		}
+
+		return profile;
+	}
+}
@@ -0,0 +1,478 @@
+package eu.hradio.radiowebview;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Emits the events of tuners and a timeshiftplayer into the bridge at the rates of a {@link LoadProfile}, each event
+ * type from its own thread like the tuner and timeshiftplayer threads. The DLS, SLS and skip items and the service and
+ * timeshift state are passed as simulated {@link TextualData}, {@link VisualData} and {@link SkipItemData} to the
+ * {@link RadioEventTranslator}, which translates them like for the {@link RadioWebView}: repeated labels are dropped,
+ * slides are delivered from the {@link SlideCache} and skip items serialized once. The progress and SBT progress are
+ * delivered through a latest-wins {@link TimeshiftProgressSlot}, the services get their handles from a
+ * {@link ServiceHandleTable}.
+ * <p>
+ * Every event carries a sequence number per stream: the DLS in its text followed by a retransmission of the same label,
+ * the SLS in the contentName of its slide, sent twice so the second one is delivered from the cache, the skip items as
+ * relative timepoint in steps of {@link #PROGRESS_STEP_MS}, the progress as current position, the SBT progress as
+ * current SBT position and the scan results as last argument. The emission time of recent sequence numbers is kept,
+ * so the delivery of an event can be verified and its end-to-end latency measured.
+ */
+class SimulatedRadio {
+
+	static final int STREAM_DLS = 0;
+	static final int STREAM_SLS = 1;
+	static final int STREAM_PROGRESS = 2;
+	static final int STREAM_SBT = 3;
+	static final int STREAM_SKIP_ITEM = 4;
+	static final int STREAM_SCAN = 5;
+	static final int STREAM_COUNT = 6;
+
+	static final String[] STREAM_NAMES = {"dls", "sls", "progress", "sbtProgress", "skipItem", "scan"};
+
+	//latest-wins streams, undelivered values are coalesced instead of dropped
+	static boolean isLatestWins(int stream) {
+		return stream == STREAM_PROGRESS || stream == STREAM_SBT;
+	}
+
+	static final long PROGRESS_STEP_MS = 100;
+	//skip items kept in the timeshift buffer, older items are removed
+	static final int TIMESHIFT_SKIP_ITEMS = 64;
+	//every n-th skip item has a slide
+	private static final int SKIP_SLIDE_INTERVAL = 4;
+	static final String DLS_TYPE = "METADATA_TEXTUAL_TYPE_DAB_DLS";
+	private static final String SERVICE_TYPE = "RADIOSERVICE_TYPE_DAB";
+	static final int SERVICE_ID_BASE = 0xD210;
+
+	private static final int EMIT_RING_SIZE = 1 << 16;
+	private static final long SBT_BASE_POSIX = 1580000000000L;
+
+	private final LoadProfile mProfile;
+	private final JsDispatcher mDispatcher;
+	private final RadioEventTranslator mTranslator;
+	private final TimeshiftProgressSlot mProgressSlot;
+	private final byte[] mSlideData;
+
+	private final ServiceHandleTable<SimulatedService> mServiceHandles = new ServiceHandleTable<>(SimulatedService.KEYS);
+	private final int[] mHandles;
+	//the last label per service, only used by the DLS thread
+	private final TextualChangeFilter[] mTextualFilters;
+	private final int mTimeshiftHandle;
+	//the skip items in the timeshift buffer, guarded by the skip item stream lock
+	private final ArrayDeque<SkipItemData> mSkipItems = new ArrayDeque<>();
+
+	//per stream, guarded by the stream lock. Written before the event is posted, the dispatcher lock makes them
+	//visible to the frame thread delivering the event.
+	private final Object[] mStreamLocks = new Object[STREAM_COUNT];
+	private final long[] mNextSeq = new long[STREAM_COUNT];
+	private final long[][] mEmitSeq = new long[STREAM_COUNT][EMIT_RING_SIZE];
+	private final long[][] mEmitNanos = new long[STREAM_COUNT][EMIT_RING_SIZE];
+
+	private final ArrayList<Thread> mProducers = new ArrayList<>();
+	private volatile boolean mRunning = false;
+
+	SimulatedRadio(LoadProfile profile, JsDispatcher dispatcher, RadioEventTranslator translator, TimeshiftProgressSlot progressSlot) {
+		mProfile = profile;
+		mDispatcher = dispatcher;
+		mTranslator = translator;
+		mProgressSlot = progressSlot;
+		mSlideData = BenchmarkData.imageData(BenchmarkData.newRandom(), profile.mSlsKb * 1024);
+		for(int i = 0; i < STREAM_COUNT; i++) {
+			mStreamLocks[i] = new Object();
+		}
+
+		int serviceCount = Math.max(profile.mServiceCount, 1);
+		mHandles = new int[serviceCount];
+		mTextualFilters = new TextualChangeFilter[serviceCount];
+		for(int i = 0; i < serviceCount; i++) {
+			mHandles[i] = mServiceHandles.putService(new SimulatedService(i));
+			mTextualFilters[i] = new TextualChangeFilter();
+		}
+		mTimeshiftHandle = mHandles[0];
+	}
+
+	/**
+	 * Starts the services, the timeshift of the first service and the producer threads
+	 */
+	void start() {
+		for(int handle : mHandles) {
+			mTranslator.serviceStarted(handle, System.nanoTime());
+		}
+		mTranslator.setTimeshifted(mTimeshiftHandle, true, true);
+		mTranslator.timeshiftStarted(mTimeshiftHandle, "", -1);
+
+		mRunning = true;
+		startProducer(STREAM_DLS, mProfile.mDlsRate);
+		startProducer(STREAM_SLS, mProfile.mSlsRate);
+		startProducer(STREAM_SCAN, mProfile.mScanRate);
+		startProducer(STREAM_PROGRESS, mProfile.mProgressRate);
+		startProducer(STREAM_SBT, mProfile.mSbtRate);
+		startProducer(STREAM_SKIP_ITEM, mProfile.mSkipItemRate);
+		if(mProfile.mBurstIntervalMs > 0 && mProfile.mBurstSize > 0) {
+			startBurstProducer();
+		}
+	}
+
+	/**
+	 * Stops the producer threads, waits for them to finish their current event and stops the timeshift and the services
+	 */
+	void stop() throws InterruptedException {
+		mRunning = false;
+		for(Thread producer : mProducers) {
+			producer.interrupt();
+			producer.join();
+		}
+		mProducers.clear();
+
+		mTranslator.timeshiftStopped(mTimeshiftHandle);
+		for(int handle : mHandles) {
+			mTranslator.serviceStopped(handle, System.nanoTime());
+		}
+	}
+
+	long getEmittedCount(int stream) {
+		synchronized (mStreamLocks[stream]) {
+			return mNextSeq[stream];
+		}
+	}
+
+	/**
+	 * @return the {@link System#nanoTime()} the event was emitted or -1 if it is no longer known
+	 */
+	long getEmitNanos(int stream, long seq) {
+		int slot = (int) (seq & (EMIT_RING_SIZE - 1));
+		synchronized (mStreamLocks[stream]) {
+			return mEmitSeq[stream][slot] == seq ? mEmitNanos[stream][slot] : -1;
+		}
+	}
+
+	private void startProducer(final int stream, final double rate) {
+		if(rate <= 0) {
+			return;
+		}
+
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				Random random = new Random(stream);
+				long periodNanos = (long) (1000000000d / rate);
+				long nextNanos = System.nanoTime();
+				while(mRunning) {
+					emit(stream, random);
+
+					nextNanos += periodNanos;
+					long waitNanos = nextNanos - System.nanoTime();
+					if(waitNanos > 0) {
+						LockSupport.parkNanos(waitNanos);
+					}
+				}
+			}
+		}, "SimulatedRadio-" + STREAM_NAMES[stream]);
+		mProducers.add(producer);
+		producer.start();
+	}
+
+	//the catch-up of a SBT stream: skip items and SBT progress emitted back to back
+	private void startBurstProducer() {
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				Random random = new Random(STREAM_COUNT);
+				while(mRunning) {
+					LockSupport.parkNanos(mProfile.mBurstIntervalMs * 1000000L);
+					for(int i = 0; i < mProfile.mBurstSize && mRunning; i++) {
+						emit(STREAM_SKIP_ITEM, random);
+						emit(STREAM_SBT, random);
+					}
+				}
+			}
+		}, "SimulatedRadio-burst");
+		mProducers.add(producer);
+		producer.start();
+	}
+
+	private void emit(int stream, Random random) {
+		synchronized (mStreamLocks[stream]) {
+			long seq = mNextSeq[stream]++;
+			int slot = (int) (seq & (EMIT_RING_SIZE - 1));
+			long emitNanos = System.nanoTime();
+			mEmitSeq[stream][slot] = seq;
+			mEmitNanos[stream][slot] = emitNanos;
+
+			switch (stream) {
+				case STREAM_DLS:
+					emitDls(seq, random, emitNanos);
+					break;
+				case STREAM_SLS:
+					emitSls(seq, random, emitNanos);
+					break;
+				case STREAM_SCAN:
+					emitScanResult(seq, random);
+					break;
+				case STREAM_PROGRESS:
+					mProgressSlot.updateProgress(mTimeshiftHandle, seq * PROGRESS_STEP_MS, (seq + 1) * PROGRESS_STEP_MS);
+					mDispatcher.requestFrame();
+					break;
+				case STREAM_SBT:
+					long sbtTime = SBT_BASE_POSIX + seq * PROGRESS_STEP_MS;
+					mProgressSlot.updateSbtRealTime(mTimeshiftHandle, sbtTime, sbtTime, seq, seq + 1);
+					mDispatcher.requestFrame();
+					break;
+				case STREAM_SKIP_ITEM:
+					emitSkipItem(seq, random, emitNanos);
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	//the label followed by its retransmission, which the TextualChangeFilter of the service drops
+	private void emitDls(long seq, Random random, long emitNanos) {
+		int serviceIdx = random.nextInt(mHandles.length);
+		TextualData dls = new SimulatedTextual(seq, BenchmarkData.label(random, 64));
+		mTranslator.textual(mHandles[serviceIdx], mTextualFilters[serviceIdx], dls, emitNanos);
+		mTranslator.textual(mHandles[serviceIdx], mTextualFilters[serviceIdx], dls, emitNanos);
+	}
+
+	//every slide is sent twice, the second one is delivered from the SlideCache
+	private void emitSls(long seq, Random random, long emitNanos) {
+		VisualData sls = new SimulatedVisual("slide" + (seq / 2) + ".jpg", seq / 2, mSlideData);
+		mTranslator.visual(mHandles[random.nextInt(mHandles.length)], sls, emitNanos);
+	}
+
+	//scan results of a rescan, the found services keep their handles
+	private void emitScanResult(long seq, Random random) {
+		SimulatedService service = new SimulatedService((int) (seq % mHandles.length));
+		int handle = mServiceHandles.putService(service);
+		JsWriter scanWriter = JsWriter.obtain();
+		JsDispatcher.beginCall(scanWriter, -1, false, "notifyListeners").value("scanProgress");
+		scanWriter.beginObject()
+				.name("tunerType").value("TUNER_TYPE_DAB")
+				.name("progress").value(seq % 101)
+				.name("service");
+		BridgeJson.writeDabServiceData(scanWriter, handle, SERVICE_TYPE, BenchmarkData.label(random, 8), service.mServiceId,
+				SimulatedService.ENSEMBLE_ID, SimulatedService.ENSEMBLE_ECC, BenchmarkData.label(random, 12), 178352, true);
+		scanWriter.endObject();
+		scanWriter.value(seq);
+		JsDispatcher.endCall(scanWriter);
+
+		mDispatcher.postMessage(scanWriter.release());
+	}
+
+	//adds the skip item and removes the oldest one when the timeshift buffer is full
+	private void emitSkipItem(long seq, Random random, long emitNanos) {
+		VisualData skipVisual = seq % SKIP_SLIDE_INTERVAL == 0 ? new SimulatedVisual("skip" + seq + ".jpg", seq, mSlideData) : null;
+		SkipItemData skipItem = new SimulatedSkipItem(seq, new SimulatedTextual(seq, BenchmarkData.label(random, 48)), skipVisual);
+		mTranslator.skipItemAdded(mTimeshiftHandle, skipItem, true, emitNanos);
+
+		mSkipItems.add(skipItem);
+		if(mSkipItems.size() > TIMESHIFT_SKIP_ITEMS) {
+			mTranslator.skipItemRemoved(mTimeshiftHandle, mSkipItems.poll(), emitNanos);
+		}
+	}
+
+	/**
+	 * @return the sequence number of a label emitted by the simulated radio
+	 */
+	static long getDlsSeq(String dlsText) {
+		return Long.parseLong(dlsText.substring(0, dlsText.indexOf(' ')));
+	}
+
+	/**
+	 * @return the number of a slide of the simulated radio, it is sent as the events 2 * slideIdx and 2 * slideIdx + 1
+	 */
+	static long getSlideIdx(String contentName) {
+		return Long.parseLong(contentName.substring("slide".length(), contentName.indexOf('.')));
+	}
+
+	private static class SimulatedService {
+
+		static final int ENSEMBLE_ID = 0x10BC;
+		static final int ENSEMBLE_ECC = 0xE0;
+
+		static final ServiceHandleTable.KeyFunction<SimulatedService> KEYS = new ServiceHandleTable.KeyFunction<SimulatedService>() {
+			@Override
+			public String getKey(SimulatedService service) {
+				return ServiceHandleTable.getDabServiceKey(SERVICE_TYPE, ENSEMBLE_ECC, ENSEMBLE_ID, service.mServiceId);
+			}
+		};
+
+		final int mServiceId;
+
+		SimulatedService(int serviceIdx) {
+			mServiceId = SERVICE_ID_BASE + serviceIdx;
+		}
+	}
+
+	private static class SimulatedTextual implements TextualData {
+
+		private final String mText;
+		private final String mTitle;
+		private final boolean mToggled;
+
+		SimulatedTextual(long seq, String title) {
+			mText = seq + " " + title;
+			mTitle = title;
+			mToggled = (seq & 1) != 0;
+		}
+
+		@Override
+		public String getTextualType() {
+			return DLS_TYPE;
+		}
+
+		@Override
+		public boolean isLabel() {
+			return true;
+		}
+
+		@Override
+		public String getText() {
+			return mText;
+		}
+
+		@Override
+		public boolean isItemRunning() {
+			return true;
+		}
+
+		@Override
+		public boolean isItemToggled() {
+			return mToggled;
+		}
+
+		@Override
+		public int getDlPlusItemCount() {
+			return 1;
+		}
+
+		@Override
+		public String getDlPlusContentType(int itemIdx) {
+			return "ITEM_TITLE";
+		}
+
+		@Override
+		public String getDlPlusContentCategory(int itemIdx) {
+			return "ITEM";
+		}
+
+		@Override
+		public String getDlPlusContentTypeDescription(int itemIdx) {
+			return "Title";
+		}
+
+		@Override
+		public String getDlPlusText(int itemIdx) {
+			return mTitle;
+		}
+	}
+
+	private static class SimulatedVisual implements VisualData {
+
+		private final String mContentName;
+		private final long mSlideId;
+		private final byte[] mData;
+
+		SimulatedVisual(String contentName, long slideId, byte[] data) {
+			mContentName = contentName;
+			mSlideId = slideId & 0xFFFF;
+			mData = data;
+		}
+
+		@Override
+		public String getVisualType() {
+			return "METADATA_VISUAL_TYPE_DAB_SLS";
+		}
+
+		@Override
+		public boolean isSlideshow() {
+			return true;
+		}
+
+		@Override
+		public byte[] getVisualData() {
+			return mData;
+		}
+
+		@Override
+		public String getMimeType() {
+			return "image/jpeg";
+		}
+
+		@Override
+		public String getContentName() {
+			return mContentName;
+		}
+
+		@Override
+		public long getSlideId() {
+			return mSlideId;
+		}
+
+		@Override
+		public boolean isCategorized() {
+			return false;
+		}
+
+		@Override
+		public long getCategoryId() {
+			return 0;
+		}
+
+		@Override
+		public String getCategoryText() {
+			return null;
+		}
+
+		@Override
+		public String getClickThroughUrl() {
+			return null;
+		}
+
+		@Override
+		public String getAlternativeLocationUrl() {
+			return null;
+		}
+	}
+
+	private static class SimulatedSkipItem implements SkipItemData {
+
+		private final long mSeq;
+		private final TextualData mTextual;
+		private final VisualData mVisual;
+
+		SimulatedSkipItem(long seq, TextualData textual, VisualData visual) {
+			mSeq = seq;
+			mTextual = textual;
+			mVisual = visual;
+		}
+
+		@Override
+		public long getRelativeTimepoint() {
+			return mSeq * PROGRESS_STEP_MS;
+		}
+
+		@Override
+		public long getSbtRealTime() {
+			return SBT_BASE_POSIX + mSeq * PROGRESS_STEP_MS;
+		}
+
+		@Override
+		public String getSkipPointJson() {
+			return String.valueOf(mSeq & 0xFF);
+		}
+
+		@Override
+		public TextualData getSkipTextual() {
+			return mTextual;
+		}
+
+		@Override
+		public VisualData getSkipVisual() {
+			return mVisual;
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package eu.hradio.radiowebview;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a {@link SimulatedRadio} against the bridge with a {@link RecordingBridgeHost} for the duration of the
+ * {@link LoadProfile}, with a frame every 16.7 ms like the display. The events pass the same {@link RadioEventTranslator}
+ * and {@link BridgeState} as in the {@link RadioWebView}. Reports the delivered, dropped, coalesced and reordered events
+ * and the latency percentiles per stream periodically and exits with status 1 if any event was lost or delivered out
+ * of order or the page state built from the messages is inconsistent.
+ */
+public class SoakRunner {
+
+	private static final long FRAME_NANOS = 1000000000L / 60;
+	//frames to deliver the events still queued when the radio is stopped
+	private static final int DRAIN_FRAMES = 120;
+
+	public static void main(String[] args) throws InterruptedException {
+		LoadProfile profile = LoadProfile.parse(args);
+
+		RecordingBridgeHost host = new RecordingBridgeHost(true, false);
+		BridgeState bridgeState = new BridgeState(host.getDispatcher());
+		host.getDispatcher().setStateSource(bridgeState);
+		bridgeState.attach("STATUS_RADIO_RUNNING", 100);
+		RadioEventTranslator translator = new RadioEventTranslator(host.getDispatcher(), bridgeState);
+		translator.setInlineVisualData(profile.mInlineSls);
+		TimeshiftProgressSlot progressSlot = new TimeshiftProgressSlot(host.getDispatcher());
+		progressSlot.setInterval(profile.mProgressIntervalMs);
+		host.getDispatcher().addFrameSource(progressSlot);
+
+		SimulatedRadio radio = new SimulatedRadio(profile, host.getDispatcher(), translator, progressSlot);
+		DeliveryVerifier verifier = new DeliveryVerifier(radio);
+		host.setDeliveryListener(verifier);
+
+		long startNanos = System.nanoTime();
+		long endNanos = startNanos + profile.mDurationMs * 1000000L;
+		long nextReportNanos = startNanos + profile.mReportIntervalMs * 1000000L;
+		long nextFrameNanos = startNanos;
+		radio.start();
+		while(System.nanoTime() < endNanos) {
+			host.runFrame();
+
+			long nowNanos = System.nanoTime();
+			if(nowNanos >= nextReportNanos) {
+				nextReportNanos += profile.mReportIntervalMs * 1000000L;
+				System.out.printf("%n%d s, frames: %d, delivered chars: %d%n", (nowNanos - startNanos) / 1000000000L,
+						host.getFrameCount(), host.getDeliveredChars());
+				verifier.writeReport(System.out, false);
+			}
+
+			//frames missed by a long frame are skipped like by the display
+			nextFrameNanos = Math.max(nextFrameNanos + FRAME_NANOS, nowNanos - FRAME_NANOS);
+			LockSupport.parkNanos(nextFrameNanos - System.nanoTime());
+		}
+
+		radio.stop();
+		for(int i = 0; i < DRAIN_FRAMES; i++) {
+			host.runFrame();
+			LockSupport.parkNanos(FRAME_NANOS);
+		}
+		host.release();
+
+		System.out.printf("%nFinished after %d s, frames: %d, delivered chars: %d%n", (System.nanoTime() - startNanos) / 1000000000L,
+				host.getFrameCount(), host.getDeliveredChars());
+		verifier.writeReport(System.out, true);
+
+		long failures = verifier.getFailureCount(true);
+		if(failures > 0) {
+			System.out.println("Lost or reordered events and page state errors: " + failures);
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,257 @@
+package eu.hradio.radiowebview;
+
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches the calls of the radioWeb object to the registered {@link Command}s with a single lookup of the task.
+ * Commands which may take long, e.g. tuning a service, are executed in order on a dedicated worker thread so
+ * they do not block the calling JavaBridge thread and the following calls.
+ * Every call is answered by its command through its {@link Call}, which settles the Promise of the call in the page.
+ */
+class BridgeCommandRouter {
+
+	private final static String WORKER_THREAD_NAME = "RadioWebCommands";
+
+	//the radioWeb method settling the Promise of a call
+	static final String JS_SETTLE_CALL = "settleCall";
+	//the error of the calls rejected because the router quit
+	static final String ERROR_DESTROYED = "Destroyed";
+
+	interface Command {
+
+		/**
+		 * Executes the command
+		 * @param args the JSON arguments of the call as sent by the page, parsed only by the command if needed
+		 * @param call the {@link Call} to resolve or reject, now or later
+		 */
+		void execute(String args, Call call) throws JSONException;
+	}
+
+	/**
+	 * Delivers the result of a call to the page
+	 */
+	interface Responder {
+
+		/**
+		 * @param call the settled {@link Call}
+		 * @param resolved {@code true} if the call is resolved, {@code false} if rejected
+		 * @param result the JSON result of a resolved call or the error message of a rejected call
+		 */
+		void settle(Call call, boolean resolved, String result);
+	}
+
+	/**
+	 * A single call of the page, settled exactly once
+	 */
+	static class Call {
+
+		final String mTask;
+		//-1 if the page does not wait for the result
+		final long mCallId;
+		final int mPageGeneration;
+
+		private final Responder mResponder;
+		//guarded by this
+		private boolean mSettled = false;
+
+		Call(String task, long callId, int pageGeneration, Responder responder) {
+			mTask = task;
+			mCallId = callId;
+			mPageGeneration = pageGeneration;
+			mResponder = responder;
+		}
+
+		/**
+		 * Resolves the call
+		 * @param resultJson the JSON result or {@code null}
+		 */
+		void resolve(String resultJson) {
+			if(markSettled()) {
+				mResponder.settle(this, true, resultJson);
+			}
+		}
+
+		void reject(String error) {
+			if(markSettled()) {
+				mResponder.settle(this, false, error);
+			}
+		}
+
+		synchronized boolean isSettled() {
+			return mSettled;
+		}
+
+		private synchronized boolean markSettled() {
+			if(mSettled) {
+				return false;
+			}
+
+			mSettled = true;
+			return true;
+		}
+	}
+
+	/**
+	 * Creates the message settling the Promise of the call in the page
+	 * @param call the settled {@link Call} with a call id
+	 * @param resolved {@code true} if the call is resolved, {@code false} if rejected
+	 * @param result the JSON result of a resolved call or the error message of a rejected call
+	 * @return the message for the {@link JsDispatcher}
+	 */
+	static String createSettleMessage(Call call, boolean resolved, String result) {
+		JsWriter settleWriter = JsWriter.obtain();
+		JsDispatcher.beginCall(settleWriter, -1, false, JS_SETTLE_CALL).value(call.mCallId).value(resolved);
+		if(resolved) {
+			settleWriter.jsonValue(result);
+		} else {
+			settleWriter.value(result);
+		}
+		JsDispatcher.endCall(settleWriter);
+
+		return settleWriter.release();
+	}
+
+	private static class Registration {
+
+		final Command mCommand;
+		final boolean mOnWorker;
+
+		Registration(Command command, boolean onWorker) {
+			mCommand = command;
+			mOnWorker = onWorker;
+		}
+	}
+
+	/**
+	 * A command queued on the worker thread, rejected if the router quits before it runs
+	 */
+	private class WorkerCommand implements Runnable {
+
+		final Command mCommand;
+		final String mArgs;
+		final Call mCall;
+
+		WorkerCommand(Command command, String args, Call call) {
+			mCommand = command;
+			mArgs = args;
+			mCall = call;
+		}
+
+		@Override
+		public void run() {
+			execute(mCommand, mArgs, mCall);
+		}
+	}
+
+	private final HashMap<String, Registration> mCommands = new HashMap<>();
+	private final Responder mResponder;
+
+	//guarded by this, started with the first worker command
+	private ThreadPoolExecutor mWorker = null;
+	private boolean mQuit = false;
+
+	BridgeCommandRouter(Responder responder) {
+		mResponder = responder;
+	}
+
+	/**
+	 * Registers a command. Must be called before the first call is routed.
+	 * @param task the task name of the command
+	 * @param onWorker {@code true} to execute the command on the worker thread
+	 * @param command the {@link Command}
+	 */
+	void register(String task, boolean onWorker, Command command) {
+		mCommands.put(task, new Registration(command, onWorker));
+	}
+
+	/**
+	 * Executes the command for the task, on the calling thread or queued on the worker thread
+	 * @param task the task name
+	 * @param args the JSON arguments of the call
+	 * @param callId the id of the call in the page or -1
+	 * @param pageGeneration the page generation the call came from
+	 * @return {@code false} if there is no command for the task
+	 */
+	boolean route(String task, String args, long callId, int pageGeneration) {
+		Call call = new Call(task, callId, pageGeneration, mResponder);
+		Registration registration = task != null ? mCommands.get(task) : null;
+		if(registration == null) {
+			call.reject("Unknown task: " + task);
+			return false;
+		}
+
+		if(registration.mOnWorker) {
+			if(!queueOnWorker(new WorkerCommand(registration.mCommand, args, call))) {
+				call.reject(ERROR_DESTROYED);
+			}
+		} else {
+			execute(registration.mCommand, args, call);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Stops the worker thread. The calls of the queued commands and of the worker commands routed afterwards are
+	 * rejected with {@link #ERROR_DESTROYED}.
+	 */
+	void quit() {
+		ArrayList<Runnable> queuedCommands = new ArrayList<>();
+		synchronized (this) {
+			mQuit = true;
+			if(mWorker != null) {
+				//the running command is not interrupted
+				mWorker.getQueue().drainTo(queuedCommands);
+				mWorker.shutdown();
+				mWorker = null;
+			}
+		}
+
+		for(Runnable queuedCommand : queuedCommands) {
+			((WorkerCommand) queuedCommand).mCall.reject(ERROR_DESTROYED);
+		}
+	}
+
+	/**
+	 * @return {@code false} if the router quit
+	 */
+	private synchronized boolean queueOnWorker(WorkerCommand command) {
+		if(mQuit) {
+			return false;
+		}
+
+		getWorker().execute(command);
+		return true;
+	}
+
+	private synchronized ThreadPoolExecutor getWorker() {
+		if(mWorker == null) {
+			mWorker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					return new Thread(runnable, WORKER_THREAD_NAME);
+				}
+			});
+		}
+
+		return mWorker;
+	}
+
+	private void execute(Command command, String args, Call call) {
+		try {
+			command.execute(args, call);
+		} catch(JSONException jsonExc) {
+			call.reject("Malformed arguments");
+		} catch(RuntimeException rtExc) {
+			//a failing command must not kill the JavaBridge or the worker thread
+			call.reject(rtExc.toString());
+		}
+	}
+}
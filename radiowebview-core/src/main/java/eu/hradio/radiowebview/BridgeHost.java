@@ -0,0 +1,40 @@
+package eu.hradio.radiowebview;
+
+/**
+ * The page side of the bridge the {@link JsDispatcher} delivers to. Implemented for the WebView and by
+ * headless stand-ins which record what would be delivered to the page.
+ */
+interface BridgeHost {
+
+	/**
+	 * Evaluates the script in the page. Called on the main thread.
+	 * @param script the script
+	 * @param evaluatedCallback run when the script was evaluated or {@code null}
+	 */
+	void evaluateScript(String script, Runnable evaluatedCallback);
+
+	/**
+	 * Posts the messages to the message channel of the page. Called on the main thread and only while the
+	 * message channel of the {@link JsDispatcher} is enabled.
+	 * @param messagesJson the JSON array of messages
+	 */
+	void postMessages(String messagesJson);
+
+	/**
+	 * Requests a call of {@link JsDispatcher#flush()} on the main thread with the next frame. May be called from any thread.
+	 */
+	void requestFrame();
+
+	/**
+	 * Requests a call of {@link JsDispatcher#flush()} on the main thread with the first frame after the delay.
+	 * May be called from any thread.
+	 * @param delayMs the delay in milliseconds
+	 */
+	void requestFrameDelayed(long delayMs);
+
+	/**
+	 * Executes the Runnable on the main thread
+	 * @param runnable the {@link Runnable} to execute
+	 */
+	void runOnMainThread(Runnable runnable);
+}
@@ -0,0 +1,163 @@
+package eu.hradio.radiowebview;
+
+/**
+ * The JSON layouts of the services and metadata passed to the radioWeb object, written with a {@link JsWriter}.
+ * The layouts only take plain values, so they do not depend on the radio and timeshift types and the
+ * serialization can be measured and checked on a plain JVM.
+ * Objects with a variable number of elements are written with a begin method, the elements and an end method.
+ */
+class BridgeJson {
+
+	private BridgeJson() {
+	}
+
+	/**
+	 * Writes the data of a DAB or EDI service without its timeshift state
+	 */
+	static void writeDabServiceData(JsWriter writer, int handle, String type, String serviceLabel, long serviceId, long ensembleId,
+									long ensembleEcc, String ensembleLabel, long ensembleFrequency, boolean isProgramme) {
+		writer.beginObject()
+				.name("handle").value(handle)
+				.name("type").value(type)
+				.name("serviceLabel").value(serviceLabel)
+				.name("serviceId").value(serviceId)
+				.name("ensembleId").value(ensembleId)
+				.name("ensembleEcc").value(ensembleEcc)
+				.name("ensembleLabel").value(ensembleLabel)
+				.name("ensembleFrequency").value(ensembleFrequency)
+				.name("isProgramme").value(isProgramme)
+				.endObject();
+	}
+
+	/**
+	 * Begins the data of an IP service, followed by its streams written with
+	 * {@link #writeIpStream(JsWriter, String, long, String, long, long)} and {@link #endIpServiceData(JsWriter)}
+	 */
+	static void beginIpServiceData(JsWriter writer, int handle, String type, String serviceLabel) {
+		writer.beginObject()
+				.name("handle").value(handle)
+				.name("type").value(type)
+				.name("serviceLabel").value(serviceLabel);
+
+		writer.name("streams").beginArray();
+	}
+
+	static void writeIpStream(JsWriter writer, String url, long bitrate, String mimeType, long cost, long offset) {
+		writer.beginObject()
+				.name("url").value(url)
+				.name("bitrate").value(bitrate)
+				.name("mimeType").value(mimeType)
+				.name("cost").value(cost)
+				.name("offset").value(offset)
+				.endObject();
+	}
+
+	static void endIpServiceData(JsWriter writer) {
+		writer.endArray();
+		writer.endObject();
+	}
+
+	/**
+	 * Begins the timeshift state of a service, followed by the serialized skip items and {@link #endTimeshift(JsWriter)}
+	 */
+	static void beginTimeshift(JsWriter writer, boolean paused, long currentPosition, long totalDuration, String timeshiftToken, long sbtMax) {
+		writer.beginObject()
+				.name("paused").value(paused)
+				.name("currentPosition").value(currentPosition)
+				.name("totalDuration").value(totalDuration)
+				//SBT
+				.name("timeshiftToken").value(timeshiftToken != null ? timeshiftToken : "")
+				.name("sbtMax").value(sbtMax)
+				.name("skipItems").beginArray();
+	}
+
+	static void endTimeshift(JsWriter writer) {
+		writer.endArray();
+		writer.endObject();
+	}
+
+	/**
+	 * Begins a visual object with its type, followed by the members of the type and {@link JsWriter#endObject()}
+	 */
+	static void beginVisual(JsWriter writer, String visualType) {
+		writer.beginObject();
+		writer.name("visualType").value(visualType);
+	}
+
+	/**
+	 * Writes the members of a slideshow visual
+	 * @param visualUrl the synthetic URL the image is served with
+	 * @param inlineData the image data to inline Base64 encoded or {@code null}
+	 */
+	static void writeSlsMembers(JsWriter writer, String contentName, long slideId, String mimeType, boolean isCategorized, long categoryId,
+								String categoryName, String clickthroughUrl, String alternativeLocationUrl, String visualUrl, byte[] inlineData) {
+		writer.name("contentName").value(contentName)
+				.name("slideId").value(slideId)
+				//TODO parsing of TriggerTime. Only TriggerTime '0' == 'NOW'
+				.name("triggerTime").value("NOW")
+				.name("mimeType").value(mimeType)
+				.name("isCategorized").value(isCategorized)
+				.name("categoryId").value(categoryId)
+				.name("categoryName").value(categoryName != null ? categoryName : "")
+				.name("clickthroughUrl").value(clickthroughUrl != null ? clickthroughUrl : "")
+				.name("alternativeLocationUrl").value(alternativeLocationUrl != null ? alternativeLocationUrl : "")
+				//TODO expiryTime parsing
+				.name("expiryTime").value(0)
+				//the image itself is served by the RadioWebViewClient
+				.name("visualUrl").value(visualUrl);
+		if(inlineData != null) {
+			writer.name("visualData").base64Value(inlineData);
+		}
+	}
+
+	/**
+	 * Begins a DLS or ICY textual object, followed by its DL+ items written with
+	 * {@link #writeDlPlusItem(JsWriter, String, String, String, String)} and {@link #endTextual(JsWriter)}
+	 */
+	static void beginTextual(JsWriter writer, String textualType, String text, boolean itemRunning, boolean itemToggled) {
+		writer.beginObject();
+		writer.name("textualType").value(textualType);
+		writer.name("dls").value(text)
+				.name("itemRunning").value(itemRunning)
+				.name("itemToggled").value(itemToggled);
+		writer.name("dlPlusItems").beginArray();
+	}
+
+	/**
+	 * Writes a DL+ item, the optional category and type description are left out if {@code null}
+	 */
+	static void writeDlPlusItem(JsWriter writer, String contentType, String contentCategory, String contentTypeDescription, String dlPlusText) {
+		writer.beginObject()
+				.name("contentType").value(contentType);
+		if(contentCategory != null) {
+			writer.name("contentCategory").value(contentCategory);
+		}
+		if(contentTypeDescription != null) {
+			writer.name("contentTypeDescription").value(contentTypeDescription);
+		}
+		writer.name("dlPlusText").value(dlPlusText)
+				.endObject();
+	}
+
+	static void endTextual(JsWriter writer) {
+		writer.endArray();
+		writer.endObject();
+	}
+
+	/**
+	 * Begins a skip item object, followed by the optional SBT members, the skipTextual and skipVisual members and
+	 * {@link JsWriter#endObject()}
+	 */
+	static void beginSkipItem(JsWriter writer, long relativeSkipPoint) {
+		writer.beginObject();
+		writer.name("relativeSkipPoint").value(relativeSkipPoint);
+	}
+
+	/**
+	 * @param toggleIdJson the toggle id as JSON number literal
+	 */
+	static void writeSkipItemSbt(JsWriter writer, long sbtRealTime, String toggleIdJson) {
+		writer.name("sbtRealTime").value(sbtRealTime);
+		writer.name("toggleId").jsonValue(toggleIdJson);
+	}
+}
@@ -0,0 +1,207 @@
+package eu.hradio.radiowebview;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters of the events passed through the bridge of a {@link RadioWebView}, by event type.
+ * For every type the events received from the tuners and the timeshiftplayer, the events delivered to the page,
+ * the characters of their messages and the latency from receiving an event until the script with the event
+ * was evaluated are counted. The latency is kept as histogram with power of two millisecond buckets.
+ * Latest-wins events like the timeshift progress are received more often than delivered.
+ * <p>
+ * Recording only increments atomic counters and does not allocate.
+ */
+public final class BridgeMetrics {
+
+	public static final int EVENT_DLS = 0;
+	public static final int EVENT_SLS = 1;
+	public static final int EVENT_PROGRESS = 2;
+	public static final int EVENT_SBT_PROGRESS = 3;
+	public static final int EVENT_SKIP_ITEM = 4;
+	public static final int EVENT_SERVICE_START = 5;
+	public static final int EVENT_SERVICE_STOP = 6;
+	public static final int EVENT_TYPE_COUNT = 7;
+
+	static final String[] EVENT_NAMES = {"dls", "sls", "progress", "sbtProgress", "skipItem", "serviceStart", "serviceStop"};
+
+	/**
+	 * Number of latency buckets. Bucket 0 counts latencies below 1 ms, bucket n latencies from 2^(n-1) to
+	 * below 2^n ms and the last bucket all longer latencies.
+	 */
+	public static final int LATENCY_BUCKET_COUNT = 14;
+
+	private final AtomicLongArray mReceived = new AtomicLongArray(EVENT_TYPE_COUNT);
+	private final AtomicLongArray mDelivered = new AtomicLongArray(EVENT_TYPE_COUNT);
+	private final AtomicLongArray mPayloadChars = new AtomicLongArray(EVENT_TYPE_COUNT);
+	private final AtomicLongArray mLatencySumNanos = new AtomicLongArray(EVENT_TYPE_COUNT);
+	private final AtomicLongArray mLatencyMaxNanos = new AtomicLongArray(EVENT_TYPE_COUNT);
+	private final AtomicLongArray mLatencyBuckets = new AtomicLongArray(EVENT_TYPE_COUNT * LATENCY_BUCKET_COUNT);
+
+	private final AtomicLong mFlushes = new AtomicLong();
+	private final AtomicLong mEvaluatedScriptChars = new AtomicLong();
+	private final AtomicLong mPostedMessageChars = new AtomicLong();
+
+	BridgeMetrics() {
+	}
+
+	void eventReceived(int eventType) {
+		mReceived.incrementAndGet(eventType);
+	}
+
+	void eventDelivered(int eventType, int payloadChars) {
+		mDelivered.incrementAndGet(eventType);
+		mPayloadChars.addAndGet(eventType, payloadChars);
+	}
+
+	/**
+	 * Records the latency of the oldest event of the type evaluated with a script or posted with a message
+	 */
+	void recordLatency(int eventType, long latencyNanos) {
+		if(latencyNanos < 0) {
+			return;
+		}
+
+		mLatencySumNanos.addAndGet(eventType, latencyNanos);
+		long curMax;
+		do {
+			curMax = mLatencyMaxNanos.get(eventType);
+		} while(latencyNanos > curMax && !mLatencyMaxNanos.compareAndSet(eventType, curMax, latencyNanos));
+
+		long latencyMs = latencyNanos / 1000000L;
+		int bucket = latencyMs == 0 ? 0 : 64 - Long.numberOfLeadingZeros(latencyMs);
+		mLatencyBuckets.incrementAndGet(eventType * LATENCY_BUCKET_COUNT + Math.min(bucket, LATENCY_BUCKET_COUNT - 1));
+	}
+
+	void scriptsEvaluated(int scriptChars) {
+		mFlushes.incrementAndGet();
+		mEvaluatedScriptChars.addAndGet(scriptChars);
+	}
+
+	void messagesPosted(int messageChars) {
+		mFlushes.incrementAndGet();
+		mPostedMessageChars.addAndGet(messageChars);
+	}
+
+	/**
+	 * @param eventType one of the EVENT_ constants
+	 * @return the number of events of the type received from the tuners or the timeshiftplayer
+	 */
+	public long getReceivedCount(int eventType) {
+		return mReceived.get(eventType);
+	}
+
+	/**
+	 * @param eventType one of the EVENT_ constants
+	 * @return the number of events of the type delivered to the page
+	 */
+	public long getDeliveredCount(int eventType) {
+		return mDelivered.get(eventType);
+	}
+
+	/**
+	 * @param eventType one of the EVENT_ constants
+	 * @return the characters of the delivered messages and scripts of the type
+	 */
+	public long getPayloadChars(int eventType) {
+		return mPayloadChars.get(eventType);
+	}
+
+	/**
+	 * @param eventType one of the EVENT_ constants
+	 * @return the number of latency measurements of the type
+	 */
+	public long getLatencyCount(int eventType) {
+		long count = 0;
+		for(int i = 0; i < LATENCY_BUCKET_COUNT; i++) {
+			count += mLatencyBuckets.get(eventType * LATENCY_BUCKET_COUNT + i);
+		}
+
+		return count;
+	}
+
+	/**
+	 * @param eventType one of the EVENT_ constants
+	 * @return the mean latency of the type in milliseconds or 0 if there was no measurement
+	 */
+	public double getLatencyMeanMs(int eventType) {
+		long count = getLatencyCount(eventType);
+		return count > 0 ? mLatencySumNanos.get(eventType) / (count * 1000000d) : 0;
+	}
+
+	public double getLatencyMaxMs(int eventType) {
+		return mLatencyMaxNanos.get(eventType) / 1000000d;
+	}
+
+	/**
+	 * @param eventType one of the EVENT_ constants
+	 * @return the latency histogram of the type with {@link #LATENCY_BUCKET_COUNT} buckets
+	 */
+	public long[] getLatencyHistogram(int eventType) {
+		long[] histogram = new long[LATENCY_BUCKET_COUNT];
+		for(int i = 0; i < LATENCY_BUCKET_COUNT; i++) {
+			histogram[i] = mLatencyBuckets.get(eventType * LATENCY_BUCKET_COUNT + i);
+		}
+
+		return histogram;
+	}
+
+	/**
+	 * @return the number of script evaluations and message posts to the page
+	 */
+	public long getFlushCount() {
+		return mFlushes.get();
+	}
+
+	public long getEvaluatedScriptChars() {
+		return mEvaluatedScriptChars.get();
+	}
+
+	public long getPostedMessageChars() {
+		return mPostedMessageChars.get();
+	}
+
+	public void reset() {
+		for(int i = 0; i < EVENT_TYPE_COUNT; i++) {
+			mReceived.set(i, 0);
+			mDelivered.set(i, 0);
+			mPayloadChars.set(i, 0);
+			mLatencySumNanos.set(i, 0);
+			mLatencyMaxNanos.set(i, 0);
+		}
+		for(int i = 0; i < EVENT_TYPE_COUNT * LATENCY_BUCKET_COUNT; i++) {
+			mLatencyBuckets.set(i, 0);
+		}
+		mFlushes.set(0);
+		mEvaluatedScriptChars.set(0);
+		mPostedMessageChars.set(0);
+	}
+
+	/**
+	 * Writes the snapshot of all counters as JSON object
+	 */
+	void writeJson(JsWriter writer) {
+		writer.beginObject();
+		writer.name("flushes").value(getFlushCount())
+				.name("evaluatedScriptChars").value(getEvaluatedScriptChars())
+				.name("postedMessageChars").value(getPostedMessageChars());
+		writer.name("events").beginObject();
+		for(int i = 0; i < EVENT_TYPE_COUNT; i++) {
+			writer.name(EVENT_NAMES[i]).beginObject()
+					.name("received").value(getReceivedCount(i))
+					.name("delivered").value(getDeliveredCount(i))
+					.name("payloadChars").value(getPayloadChars(i))
+					.name("latencyCount").value(getLatencyCount(i))
+					.name("latencyMeanUs").value((long) (getLatencyMeanMs(i) * 1000))
+					.name("latencyMaxUs").value(mLatencyMaxNanos.get(i) / 1000);
+			writer.name("latencyHistogram").beginArray();
+			for(int bucket = 0; bucket < LATENCY_BUCKET_COUNT; bucket++) {
+				writer.value(mLatencyBuckets.get(i * LATENCY_BUCKET_COUNT + bucket));
+			}
+			writer.endArray();
+			writer.endObject();
+		}
+		writer.endObject();
+		writer.endObject();
+	}
+}
@@ -0,0 +1,214 @@
+package eu.hradio.radiowebview;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Java side mirror of the scalar state of the radioWeb object: the radio status, the volume, the active services and
+ * the paused state of the timeshifted services. A change only marks the state dirty, the fields which differ from the
+ * state last delivered to the page are delivered with one syncState message per frame of the {@link JsDispatcher},
+ * as its state source before the events of the frame. Changes reverted within a frame are not delivered.
+ * <p>
+ * The state is only delivered while the page has the radioWeb object, from {@link #attach(String, int)} until
+ * {@link #detach()}.
+ */
+class BridgeState implements JsDispatcher.FrameSource {
+
+	//the radioWeb method applying a state update
+	static final String JS_SYNC_STATE = "syncState";
+
+	private final JsDispatcher mJsDispatcher;
+
+	//guarded by this
+	private String mStatus = null;
+	private int mVolume = -1;
+	private final LinkedHashSet<Integer> mActiveServices = new LinkedHashSet<>();
+	private final HashMap<Integer, Boolean> mTimeshiftPaused = new HashMap<>();
+	private boolean mDirty = false;
+
+	//the state of the page, guarded by this
+	private boolean mAttached = false;
+	//the first frame after attaching delivers the radioWeb object itself
+	private boolean mAttachFrame = false;
+	private String mDeliveredStatus = null;
+	private int mDeliveredVolume = -1;
+	private final ArrayList<Integer> mDeliveredActiveServices = new ArrayList<>();
+	private final HashMap<Integer, Boolean> mDeliveredTimeshiftPaused = new HashMap<>();
+
+	BridgeState(JsDispatcher jsDispatcher) {
+		mJsDispatcher = jsDispatcher;
+	}
+
+	void setStatus(String status) {
+		synchronized (this) {
+			if(status == null || status.equals(mStatus)) {
+				return;
+			}
+			mStatus = status;
+		}
+		markDirty();
+	}
+
+	void setVolume(int volume) {
+		synchronized (this) {
+			if(volume == mVolume) {
+				return;
+			}
+			mVolume = volume;
+		}
+		markDirty();
+	}
+
+	/**
+	 * @return the volume or -1 if unknown
+	 */
+	synchronized int getVolume() {
+		return mVolume;
+	}
+
+	void setServiceActive(int srvHandle, boolean active) {
+		if(srvHandle < 0) {
+			return;
+		}
+
+		synchronized (this) {
+			if(!(active ? mActiveServices.add(srvHandle) : mActiveServices.remove(srvHandle))) {
+				return;
+			}
+		}
+		markDirty();
+	}
+
+	/**
+	 * Sets the paused state of the timeshift object of a service
+	 * @param srvHandle the handle of the timeshifted service
+	 * @param paused {@code true} if paused, {@code null} if the service is no longer timeshifted
+	 */
+	void setTimeshiftPaused(int srvHandle, Boolean paused) {
+		if(srvHandle < 0) {
+			return;
+		}
+
+		synchronized (this) {
+			Boolean oldPaused = paused != null ? mTimeshiftPaused.put(srvHandle, paused) : mTimeshiftPaused.remove(srvHandle);
+			if(paused == null ? oldPaused == null : paused.equals(oldPaused)) {
+				return;
+			}
+		}
+		markDirty();
+	}
+
+	/**
+	 * Starts delivering the state to a page with a new radioWeb object
+	 * @param pageStatus the status the radioWeb object was created with
+	 * @param pageVolume the volume the radioWeb object was created with
+	 */
+	void attach(String pageStatus, int pageVolume) {
+		synchronized (this) {
+			mAttached = true;
+			mAttachFrame = true;
+			mDeliveredStatus = pageStatus;
+			mDeliveredVolume = pageVolume;
+			mDeliveredActiveServices.clear();
+			mDeliveredTimeshiftPaused.clear();
+		}
+		markDirty();
+	}
+
+	/**
+	 * Stops delivering the state, e.g. when a new page is loading
+	 */
+	synchronized void detach() {
+		mAttached = false;
+	}
+
+	private void markDirty() {
+		synchronized (this) {
+			if(mDirty || !mAttached) {
+				mDirty = true;
+				return;
+			}
+			mDirty = true;
+		}
+		mJsDispatcher.requestFrame();
+	}
+
+	@Override
+	public synchronized boolean appendFrameMessages(JsWriter frameMessages) {
+		if(!mDirty || !mAttached) {
+			return false;
+		}
+		if(mAttachFrame) {
+			//the radioWeb object is created by the scripts of this frame
+			mAttachFrame = false;
+			return true;
+		}
+		mDirty = false;
+
+		boolean statusChanged = mStatus != null && !mStatus.equals(mDeliveredStatus);
+		boolean volumeChanged = mVolume != mDeliveredVolume;
+		boolean activeChanged = !isActiveServicesDelivered();
+		boolean timeshiftChanged = !mTimeshiftPaused.equals(mDeliveredTimeshiftPaused);
+		if(!statusChanged && !volumeChanged && !activeChanged && !timeshiftChanged) {
+			return false;
+		}
+
+		JsDispatcher.beginCall(frameMessages, -1, false, JS_SYNC_STATE);
+		frameMessages.beginObject();
+		if(statusChanged) {
+			frameMessages.name("status").value(mStatus);
+			mDeliveredStatus = mStatus;
+		}
+		if(volumeChanged) {
+			frameMessages.name("volume").value(mVolume);
+			mDeliveredVolume = mVolume;
+		}
+		if(activeChanged) {
+			frameMessages.name("activeServices").beginArray();
+			mDeliveredActiveServices.clear();
+			for(Integer srvHandle : mActiveServices) {
+				frameMessages.value(srvHandle);
+				mDeliveredActiveServices.add(srvHandle);
+			}
+			frameMessages.endArray();
+		}
+		if(timeshiftChanged) {
+			//only the changed services, a service no longer timeshifted is not paused
+			frameMessages.name("timeshiftPaused").beginObject();
+			for(Map.Entry<Integer, Boolean> pausedEntry : mTimeshiftPaused.entrySet()) {
+				if(!pausedEntry.getValue().equals(mDeliveredTimeshiftPaused.get(pausedEntry.getKey()))) {
+					frameMessages.name(String.valueOf(pausedEntry.getKey())).value(pausedEntry.getValue());
+				}
+			}
+			for(Integer srvHandle : mDeliveredTimeshiftPaused.keySet()) {
+				if(!mTimeshiftPaused.containsKey(srvHandle)) {
+					frameMessages.name(String.valueOf(srvHandle)).value(false);
+				}
+			}
+			frameMessages.endObject();
+			mDeliveredTimeshiftPaused.clear();
+			mDeliveredTimeshiftPaused.putAll(mTimeshiftPaused);
+		}
+		frameMessages.endObject();
+		JsDispatcher.endCall(frameMessages);
+
+		return false;
+	}
+
+	private boolean isActiveServicesDelivered() {
+		if(mActiveServices.size() != mDeliveredActiveServices.size()) {
+			return false;
+		}
+
+		int i = 0;
+		for(Integer srvHandle : mActiveServices) {
+			if(!srvHandle.equals(mDeliveredActiveServices.get(i++))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,531 @@
+package eu.hradio.radiowebview;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Queues the scripts and messages for the radioWeb object and delivers everything posted during a frame
+ * at once to the {@link BridgeHost} with the next frame the host calls {@link #flush()} for.
+ * Scripts and messages can be posted from any thread, their order is kept. With the message channel only the order
+ * of the messages is kept, so events are posted as messages.
+ * Values where only the latest one is of interest are provided by {@link FrameSource}s which are asked
+ * for their messages once per frame. The messages of the state source are delivered before all other messages
+ * of a frame, so the listeners called by the events of a frame see the state after the frame.
+ * <p>
+ * While the page is hidden the delivery can be suspended. Posted scripts and messages are kept in order, of the
+ * messages posted with a latest key only the latest one per key. The frame sources keep their latest values anyway.
+ * On resume all of them are delivered at once with a single frame.
+ * <p>
+ * A message calls a method of the radioWeb object, of a service or of the timeshift object of a service
+ * with JSON arguments and is dispatched by radioWeb.dispatchMessage. Without the message channel the messages of
+ * a frame are evaluated as one script, with the message channel enabled via {@link #setMessageChannel(boolean)}
+ * all messages of a frame are posted as one JSON array to the channel, so the page does not need to
+ * compile a script per event. The channel carries no code: scripts posted while it is enabled are still
+ * evaluated by the host, before the messages of their frame.
+ * <p>
+ * Events posted with their type are counted in the {@link BridgeMetrics}, their latency is measured from receiving
+ * the oldest event of a type in a frame until the evaluation of the frame's script has completed, or until the
+ * messages are posted to the channel.
+ */
+class JsDispatcher {
+
+	/**
+	 * A latest-wins source of messages, asked for its messages with every frame
+	 */
+	interface FrameSource {
+
+		/**
+		 * Appends the messages for the latest values, if any
+		 * @param frameMessages the {@link JsWriter} positioned inside the message array of the current frame
+		 * @return {@code true} if the source still holds a value that shall be delivered with a later frame
+		 */
+		boolean appendFrameMessages(JsWriter frameMessages);
+	}
+
+	private final static String JS_SCHEME_PREFIX = "javascript:";
+	private final static String JS_TRY_START = "try{";
+	private final static String JS_TRY_END = "}catch(e){console.error(e);}";
+
+	private final static String JS_DISPATCH_MESSAGE_START = "radioWeb.dispatchMessage(";
+	private final static String JS_DISPATCH_MESSAGES_START = "radioWeb.dispatchMessages(";
+	private final static String JS_DISPATCH_END = ");";
+
+	//message members
+	private final static String MSG_HANDLE = "h";
+	private final static String MSG_TIMESHIFT = "ts";
+	private final static String MSG_METHOD = "m";
+	private final static String MSG_ARGUMENTS = "a";
+
+	private final BridgeHost mHost;
+
+	//guarded by this
+	private StringBuilder mPendingScripts = new StringBuilder();
+	private boolean mFrameScheduled = false;
+	//due time of the requested delayed frame, 0 if none
+	private long mDelayedFrameDueNanos = 0;
+	private boolean mMessageChannel = false;
+	//message array of the current frame, only used with the message channel
+	private final JsWriter mPendingMessages = new JsWriter();
+	//messages of the frame sources without the message channel
+	private final JsWriter mSourceMessages = new JsWriter();
+	//messages of the state source, followed by the messages of the frame with the message channel
+	private final JsWriter mStateMessages = new JsWriter();
+	private volatile FrameSource mStateSource = null;
+	//only used on the main thread
+	private StringBuilder mFlushScripts = new StringBuilder();
+
+	private final CopyOnWriteArrayList<FrameSource> mFrameSources = new CopyOnWriteArrayList<>();
+
+	//guarded by this
+	private boolean mSuspended = false;
+	//scripts and messages posted while suspended in posting order, keyed by their latest key or by themselves
+	private final LinkedHashMap<Object, SuspendedPost> mSuspendedPosts = new LinkedHashMap<>();
+
+	private static class SuspendedPost {
+
+		final String mPayload;
+		final boolean mScript;
+		final int mEventType;
+
+		SuspendedPost(String payload, boolean script, int eventType) {
+			mPayload = payload;
+			mScript = script;
+			mEventType = eventType;
+		}
+	}
+
+	private final BridgeMetrics mMetrics;
+	//receive time of the oldest event per type in the current frame, 0 if none, guarded by this
+	private final long[] mPendingSinceNanos = new long[BridgeMetrics.EVENT_TYPE_COUNT];
+	private boolean mEventsPending = false;
+	//reused evaluation callbacks, guarded by this
+	private final ArrayDeque<LatencyCallback> mLatencyCallbacks = new ArrayDeque<>();
+	private int mLatencyCallbackCount = 0;
+	private static final int MAX_LATENCY_CALLBACKS = 8;
+	//callbacks taken before the last clear are not counted anymore, their evaluation may never be reported
+	private int mLatencyCallbackGeneration = 0;
+
+	//records the latencies of the events of a frame when its script was evaluated
+	private class LatencyCallback implements Runnable {
+
+		private final long[] mSinceNanos = new long[BridgeMetrics.EVENT_TYPE_COUNT];
+		//guarded by JsDispatcher.this
+		private int mGeneration;
+
+		@Override
+		public void run() {
+			recordLatencies(mSinceNanos, System.nanoTime());
+			synchronized (JsDispatcher.this) {
+				if(mGeneration == mLatencyCallbackGeneration) {
+					mLatencyCallbacks.add(this);
+				}
+			}
+		}
+	}
+
+	JsDispatcher(BridgeHost host, BridgeMetrics metrics) {
+		mHost = host;
+		mMetrics = metrics;
+		mPendingMessages.beginArray();
+	}
+
+	/**
+	 * Writes the start of a message calling a method, followed by the arguments and {@link #endCall(JsWriter)}
+	 * @param writer the {@link JsWriter} to write the message to
+	 * @param srvHandle the handle of the service or -1 to call a method of the radioWeb object
+	 * @param timeshift {@code true} to call the method of the timeshift object of the service
+	 * @param method the name of the method
+	 * @return the writer, positioned in the arguments array
+	 */
+	static JsWriter beginCall(JsWriter writer, int srvHandle, boolean timeshift, String method) {
+		writer.beginObject();
+		if(srvHandle >= 0) {
+			writer.name(MSG_HANDLE).value(srvHandle);
+		}
+		if(timeshift) {
+			writer.name(MSG_TIMESHIFT).value(true);
+		}
+		writer.name(MSG_METHOD).value(method);
+		writer.name(MSG_ARGUMENTS).beginArray();
+		return writer;
+	}
+
+	static void endCall(JsWriter writer) {
+		writer.endArray();
+		writer.endObject();
+	}
+
+	/**
+	 * Queues the script for evaluation with the next frame.
+	 * Every script is evaluated in its own try block so that a failing script does not abort the following ones.
+	 * @param script the script, optionally prefixed with 'javascript:'
+	 */
+	void post(String script) {
+		post(script, -1, 0);
+	}
+
+	/**
+	 * Queues the script of an event for evaluation with the next frame
+	 * @param script the script, optionally prefixed with 'javascript:'
+	 * @param eventType the {@link BridgeMetrics} event type or -1
+	 * @param receivedNanos the {@link System#nanoTime()} the event was received
+	 */
+	void post(String script, int eventType, long receivedNanos) {
+		if(script == null) {
+			return;
+		}
+
+		synchronized (this) {
+			if(mSuspended) {
+				SuspendedPost suspendedPost = new SuspendedPost(script, true, eventType);
+				mSuspendedPosts.put(suspendedPost, suspendedPost);
+				return;
+			}
+			postLocked(script, eventType, receivedNanos);
+			scheduleFrameLocked();
+		}
+	}
+
+	private void postLocked(String script, int eventType, long receivedNanos) {
+		int scriptStart = script.startsWith(JS_SCHEME_PREFIX) ? JS_SCHEME_PREFIX.length() : 0;
+		if(eventType >= 0) {
+			trackEvent(eventType, receivedNanos, script.length() - scriptStart);
+		}
+		mPendingScripts.append(JS_TRY_START).append(script, scriptStart, script.length()).append(JS_TRY_END);
+	}
+
+	/**
+	 * Queues the message for delivery with the next frame
+	 * @param message a message written with {@link #beginCall(JsWriter, int, boolean, String)}
+	 */
+	void postMessage(String message) {
+		postMessage(message, -1, 0);
+	}
+
+	/**
+	 * Queues the message of an event for delivery with the next frame
+	 * @param message a message written with {@link #beginCall(JsWriter, int, boolean, String)}
+	 * @param eventType the {@link BridgeMetrics} event type or -1
+	 * @param receivedNanos the {@link System#nanoTime()} the event was received
+	 */
+	void postMessage(String message, int eventType, long receivedNanos) {
+		postLatestMessage(null, message, eventType, receivedNanos);
+	}
+
+	/**
+	 * Queues the message of an event of which only the latest one is of interest, e.g. the DLS of a service.
+	 * While suspended the message replaces the message posted before with the same key.
+	 * @param latestKey the key of the message, e.g. the event type and the service handle, or {@code null} to keep every message
+	 * @param message a message written with {@link #beginCall(JsWriter, int, boolean, String)}
+	 * @param eventType the {@link BridgeMetrics} event type or -1
+	 * @param receivedNanos the {@link System#nanoTime()} the event was received
+	 */
+	void postLatestMessage(String latestKey, String message, int eventType, long receivedNanos) {
+		if(message == null) {
+			return;
+		}
+
+		synchronized (this) {
+			if(mSuspended) {
+				SuspendedPost suspendedPost = new SuspendedPost(message, false, eventType);
+				if(latestKey != null) {
+					//moved to the position of the latest message
+					mSuspendedPosts.remove(latestKey);
+					mSuspendedPosts.put(latestKey, suspendedPost);
+				} else {
+					mSuspendedPosts.put(suspendedPost, suspendedPost);
+				}
+				return;
+			}
+			postMessageLocked(message, eventType, receivedNanos);
+			scheduleFrameLocked();
+		}
+	}
+
+	private void postMessageLocked(String message, int eventType, long receivedNanos) {
+		if(eventType >= 0) {
+			trackEvent(eventType, receivedNanos, message.length());
+		}
+		if(mMessageChannel) {
+			mPendingMessages.jsonValue(message);
+		} else {
+			mPendingScripts.append(JS_TRY_START).append(JS_DISPATCH_MESSAGE_START).append(message).append(JS_DISPATCH_END).append(JS_TRY_END);
+		}
+	}
+
+	/**
+	 * Suspends or resumes the delivery, e.g. while the page is not visible.
+	 * Must be called on the main thread, scripts queued so far are delivered before suspending.
+	 * On resume the scripts and messages posted while suspended and the latest values of the frame sources are
+	 * delivered with the next frame.
+	 * @param suspended {@code true} to suspend the delivery
+	 */
+	void setSuspended(boolean suspended) {
+		if(suspended) {
+			flush();
+		}
+
+		synchronized (this) {
+			if(suspended == mSuspended) {
+				return;
+			}
+			mSuspended = suspended;
+			if(suspended) {
+				return;
+			}
+
+			//the suspension does not count as latency of the events
+			long resumeNanos = System.nanoTime();
+			for(SuspendedPost suspendedPost : mSuspendedPosts.values()) {
+				if(suspendedPost.mScript) {
+					postLocked(suspendedPost.mPayload, suspendedPost.mEventType, resumeNanos);
+				} else {
+					postMessageLocked(suspendedPost.mPayload, suspendedPost.mEventType, resumeNanos);
+				}
+			}
+			mSuspendedPosts.clear();
+			scheduleFrameLocked();
+		}
+	}
+
+	synchronized boolean isSuspended() {
+		return mSuspended;
+	}
+
+	/**
+	 * Enables posting the messages to the message channel of the {@link BridgeHost} instead of evaluating scripts.
+	 * Must be called on the main thread, scripts queued so far are evaluated before.
+	 * @param enabled {@code true} to post messages, {@code false} to evaluate scripts again
+	 */
+	void setMessageChannel(boolean enabled) {
+		flush();
+
+		synchronized (this) {
+			mMessageChannel = enabled;
+		}
+	}
+
+	synchronized boolean hasMessageChannel() {
+		return mMessageChannel;
+	}
+
+	void addFrameSource(FrameSource frameSource) {
+		if(frameSource != null) {
+			mFrameSources.addIfAbsent(frameSource);
+		}
+	}
+
+	void removeFrameSource(FrameSource frameSource) {
+		mFrameSources.remove(frameSource);
+	}
+
+	/**
+	 * Sets the source of the state messages delivered first with every frame
+	 * @param stateSource the {@link FrameSource} or {@code null}
+	 */
+	void setStateSource(FrameSource stateSource) {
+		mStateSource = stateSource;
+	}
+
+	/**
+	 * Counts a delivered event, called by the post methods and by the {@link FrameSource}s while appending their messages
+	 * @param eventType the {@link BridgeMetrics} event type
+	 * @param receivedNanos the {@link System#nanoTime()} the event was received
+	 * @param payloadChars the length of the message or script of the event
+	 */
+	synchronized void trackEvent(int eventType, long receivedNanos, int payloadChars) {
+		mMetrics.eventDelivered(eventType, payloadChars);
+		if(mPendingSinceNanos[eventType] == 0) {
+			mPendingSinceNanos[eventType] = receivedNanos;
+			mEventsPending = true;
+		}
+	}
+
+	/**
+	 * Requests a frame for a {@link FrameSource} with a new value
+	 */
+	synchronized void requestFrame() {
+		scheduleFrameLocked();
+	}
+
+	/**
+	 * Requests a frame after a delay for a {@link FrameSource} holding back its value, e.g. to throttle its deliveries.
+	 * A delayed frame already requested for an earlier time is kept.
+	 * @param delayMs the delay in milliseconds
+	 */
+	synchronized void requestFrameDelayed(long delayMs) {
+		//a frame is requested on resume
+		if(mSuspended) {
+			return;
+		}
+
+		long dueNanos = System.nanoTime() + delayMs * 1000000L;
+		if(mDelayedFrameDueNanos != 0 && mDelayedFrameDueNanos - dueNanos <= 0) {
+			return;
+		}
+		mDelayedFrameDueNanos = dueNanos;
+		mHost.requestFrameDelayed(delayMs);
+	}
+
+	/**
+	 * Executes the given Runnable on the main (UI) thread
+	 * @param runnable the {@link Runnable} to execute
+	 */
+	void runOnMainThread(Runnable runnable) {
+		if(runnable != null) {
+			mHost.runOnMainThread(runnable);
+		}
+	}
+
+	/**
+	 * Drops all scripts and messages not yet delivered, e.g. when a new page is loading. The latency callbacks of the
+	 * scripts of the previous page still being evaluated are replaced, the page may be gone before calling them.
+	 */
+	synchronized void clear() {
+		mSuspendedPosts.clear();
+		mPendingScripts.setLength(0);
+		mPendingMessages.reset();
+		mPendingMessages.beginArray();
+		Arrays.fill(mPendingSinceNanos, 0);
+		mEventsPending = false;
+		mLatencyCallbackGeneration++;
+		mLatencyCallbackCount = mLatencyCallbacks.size();
+	}
+
+	private void recordLatencies(long[] sinceNanos, long nowNanos) {
+		for(int eventType = 0; eventType < sinceNanos.length; eventType++) {
+			if(sinceNanos[eventType] != 0) {
+				mMetrics.recordLatency(eventType, nowNanos - sinceNanos[eventType]);
+			}
+		}
+	}
+
+	//takes a callback holding the receive times of the events of this frame, null if there are no events or no free callback
+	private LatencyCallback takeLatencyCallbackLocked() {
+		if(!mEventsPending) {
+			return null;
+		}
+
+		LatencyCallback latencyCallback = mLatencyCallbacks.poll();
+		if(latencyCallback == null && mLatencyCallbackCount < MAX_LATENCY_CALLBACKS) {
+			mLatencyCallbackCount++;
+			latencyCallback = new LatencyCallback();
+		}
+		if(latencyCallback != null) {
+			latencyCallback.mGeneration = mLatencyCallbackGeneration;
+			System.arraycopy(mPendingSinceNanos, 0, latencyCallback.mSinceNanos, 0, mPendingSinceNanos.length);
+		}
+		Arrays.fill(mPendingSinceNanos, 0);
+		mEventsPending = false;
+
+		return latencyCallback;
+	}
+
+	private void scheduleFrameLocked() {
+		//requested again on resume
+		if(!mFrameScheduled && !mSuspended) {
+			mFrameScheduled = true;
+			mHost.requestFrame();
+		}
+	}
+
+	/**
+	 * Delivers all queued scripts and messages. Must be called on the main thread, usually by the {@link BridgeHost}
+	 * with the requested frame.
+	 */
+	void flush() {
+		boolean flushScriptsPending = false;
+		String flushScript;
+		String flushMessages = null;
+		boolean flushChannel;
+		LatencyCallback latencyCallback;
+		synchronized (this) {
+			mFrameScheduled = false;
+			if(mDelayedFrameDueNanos != 0 && System.nanoTime() - mDelayedFrameDueNanos >= 0) {
+				mDelayedFrameDueNanos = 0;
+			}
+			if(mSuspended) {
+				return;
+			}
+			flushChannel = mMessageChannel;
+
+			boolean sourcesPending = false;
+			boolean statePending = false;
+			FrameSource stateSource = mStateSource;
+			if(stateSource != null) {
+				mStateMessages.reset();
+				mStateMessages.beginArray();
+				sourcesPending = stateSource.appendFrameMessages(mStateMessages);
+				//more than the opening bracket
+				statePending = mStateMessages.length() > 1;
+			}
+			for(FrameSource frameSource : mFrameSources) {
+				if(flushChannel) {
+					sourcesPending |= frameSource.appendFrameMessages(mPendingMessages);
+				} else {
+					mSourceMessages.reset();
+					mSourceMessages.beginArray();
+					int emptyLength = mSourceMessages.length();
+
+					sourcesPending |= frameSource.appendFrameMessages(mSourceMessages);
+
+					if(mSourceMessages.length() > emptyLength) {
+						mSourceMessages.endArray();
+						mPendingScripts.append(JS_TRY_START).append(JS_DISPATCH_MESSAGES_START).append(mSourceMessages).append(JS_DISPATCH_END).append(JS_TRY_END);
+					}
+				}
+			}
+			if(sourcesPending) {
+				scheduleFrameLocked();
+			}
+
+			if(flushChannel) {
+				if(statePending) {
+					mStateMessages.appendElements(mPendingMessages);
+					mStateMessages.endArray();
+					flushMessages = mStateMessages.toString();
+					mPendingMessages.reset();
+					mPendingMessages.beginArray();
+				} else if(mPendingMessages.length() > 1) {
+					mPendingMessages.endArray();
+					flushMessages = mPendingMessages.toString();
+					mPendingMessages.reset();
+					mPendingMessages.beginArray();
+				}
+			} else if(statePending) {
+				mStateMessages.endArray();
+				mPendingScripts.insert(0, JS_TRY_START + JS_DISPATCH_MESSAGES_START + mStateMessages + JS_DISPATCH_END + JS_TRY_END);
+			}
+
+			if(mPendingScripts.length() > 0) {
+				//swap the buffers so that posting threads can continue while this script is built
+				StringBuilder flushScripts = mPendingScripts;
+				mPendingScripts = mFlushScripts;
+				mFlushScripts = flushScripts;
+				flushScriptsPending = true;
+			}
+
+			latencyCallback = takeLatencyCallbackLocked();
+		}
+
+		if(flushScriptsPending) {
+			flushScript = mFlushScripts.toString();
+			mFlushScripts.setLength(0);
+
+			mMetrics.scriptsEvaluated(flushScript.length());
+			//the latency of a frame with messages is measured when posting them
+			mHost.evaluateScript(flushScript, flushMessages == null ? latencyCallback : null);
+		}
+		if(flushMessages != null) {
+			mMetrics.messagesPosted(flushMessages.length());
+			mHost.postMessages(flushMessages);
+			if(latencyCallback != null) {
+				latencyCallback.run();
+			}
+		} else if(latencyCallback != null && !flushScriptsPending) {
+			latencyCallback.run();
+		}
+	}
+}
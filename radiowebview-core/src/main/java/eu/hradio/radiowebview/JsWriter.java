@@ -0,0 +1,316 @@
+package eu.hradio.radiowebview;
+
+import java.util.Arrays;
+
+/**
+ * Streaming writer for the JSON object literals and scripts passed to the radioWeb object.
+ * Values are written directly into a reusable char buffer, strings are completely escaped so that
+ * they are valid in JSON as well as in JS string literals and binary data is Base64 encoded in place.
+ * A writer for the current thread is taken with {@link #obtain()} and its script returned with {@link #release()}.
+ */
+class JsWriter {
+
+	//buffers grown beyond this size, e.g. by inlined images, are not kept for reuse
+	private static final int MAX_REUSE_CAPACITY = 64 * 1024;
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+	private static final char[] BASE64_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+	private static final ThreadLocal<JsWriter> sThreadWriter = new ThreadLocal<JsWriter>() {
+		@Override
+		protected JsWriter initialValue() {
+			return new JsWriter();
+		}
+	};
+
+	private StringBuilder mBuffer = new StringBuilder(INITIAL_CAPACITY);
+	private boolean mInUse = false;
+
+	//comma state per nesting level, true if the next member or element is the first one
+	private boolean[] mFirstStack = new boolean[16];
+	private int mDepth = 0;
+	//true if the next value is the value of a just written member name
+	private boolean mValueOfMember = false;
+
+	/**
+	 * Returns the reset writer of the current thread or a new writer if the thread's writer is already in use
+	 * @return an empty {@link JsWriter}
+	 */
+	static JsWriter obtain() {
+		JsWriter writer = sThreadWriter.get();
+		if(writer.mInUse) {
+			writer = new JsWriter();
+		}
+
+		writer.mInUse = true;
+		writer.reset();
+		return writer;
+	}
+
+	/**
+	 * Returns the written script and hands the writer back for reuse. The writer must not be used afterwards.
+	 * @return the written script
+	 */
+	String release() {
+		String written = mBuffer.toString();
+		reset();
+		if(mBuffer.capacity() > MAX_REUSE_CAPACITY) {
+			mBuffer = new StringBuilder(INITIAL_CAPACITY);
+		}
+		mInUse = false;
+
+		return written;
+	}
+
+	void reset() {
+		mBuffer.setLength(0);
+		mDepth = 0;
+		mValueOfMember = false;
+	}
+
+	int length() {
+		return mBuffer.length();
+	}
+
+	/**
+	 * Appends a script fragment or an already serialized value as is
+	 */
+	JsWriter raw(String script) {
+		mBuffer.append(script);
+		return this;
+	}
+
+	JsWriter raw(char scriptChar) {
+		mBuffer.append(scriptChar);
+		return this;
+	}
+
+	JsWriter raw(long number) {
+		mBuffer.append(number);
+		return this;
+	}
+
+	/**
+	 * Appends the elements of an array written by another writer as further elements of the current array
+	 * @param arrayWriter a writer holding only an opened, not yet closed array
+	 */
+	JsWriter appendElements(JsWriter arrayWriter) {
+		if(arrayWriter.length() > 1) {
+			beforeValue();
+			mBuffer.append(arrayWriter.mBuffer, 1, arrayWriter.mBuffer.length());
+		}
+		return this;
+	}
+
+	JsWriter beginObject() {
+		beforeValue();
+		mBuffer.append('{');
+		push();
+		return this;
+	}
+
+	JsWriter endObject() {
+		mDepth--;
+		mBuffer.append('}');
+		return this;
+	}
+
+	JsWriter beginArray() {
+		beforeValue();
+		mBuffer.append('[');
+		push();
+		return this;
+	}
+
+	JsWriter endArray() {
+		mDepth--;
+		mBuffer.append(']');
+		return this;
+	}
+
+	/**
+	 * Writes the member name, must be followed by exactly one value
+	 */
+	JsWriter name(String name) {
+		beforeValue();
+		writeString(name);
+		mBuffer.append(':');
+		//the following value belongs to this member
+		mValueOfMember = true;
+		return this;
+	}
+
+	JsWriter value(String value) {
+		beforeValue();
+		if(value == null) {
+			mBuffer.append("null");
+		} else {
+			writeString(value);
+		}
+		return this;
+	}
+
+	JsWriter value(long value) {
+		beforeValue();
+		mBuffer.append(value);
+		return this;
+	}
+
+	JsWriter value(boolean value) {
+		beforeValue();
+		mBuffer.append(value);
+		return this;
+	}
+
+	JsWriter nullValue() {
+		beforeValue();
+		mBuffer.append("null");
+		return this;
+	}
+
+	/**
+	 * Writes an already serialized JSON value, e.g. a cached object
+	 */
+	JsWriter jsonValue(String json) {
+		beforeValue();
+		mBuffer.append(json != null ? json : "null");
+		return this;
+	}
+
+	/**
+	 * Writes an already serialized JSON object without closing it, so that further members can be written
+	 * before the object is closed with {@link #endObject()}
+	 */
+	JsWriter extendObject(String objectJson) {
+		beforeValue();
+		int closeIdx = objectJson.lastIndexOf('}');
+		mBuffer.append(objectJson, 0, closeIdx);
+		push();
+		mFirstStack[mDepth - 1] = objectJson.lastIndexOf('{', closeIdx) == closeIdx - 1;
+		return this;
+	}
+
+	/**
+	 * Writes the data as Base64 encoded string without line breaks
+	 */
+	JsWriter base64Value(byte[] data) {
+		beforeValue();
+		if(data == null) {
+			mBuffer.append("null");
+			return this;
+		}
+
+		mBuffer.ensureCapacity(mBuffer.length() + ((data.length + 2) / 3) * 4 + 2);
+		mBuffer.append('"');
+		int dataIdx = 0;
+		int fullGroupsEnd = data.length - data.length % 3;
+		while(dataIdx < fullGroupsEnd) {
+			int bits = (data[dataIdx++] & 0xFF) << 16 | (data[dataIdx++] & 0xFF) << 8 | (data[dataIdx++] & 0xFF);
+			mBuffer.append(BASE64_CHARS[(bits >>> 18) & 0x3F])
+					.append(BASE64_CHARS[(bits >>> 12) & 0x3F])
+					.append(BASE64_CHARS[(bits >>> 6) & 0x3F])
+					.append(BASE64_CHARS[bits & 0x3F]);
+		}
+		int remaining = data.length - fullGroupsEnd;
+		if(remaining == 1) {
+			int bits = (data[dataIdx] & 0xFF) << 16;
+			mBuffer.append(BASE64_CHARS[(bits >>> 18) & 0x3F])
+					.append(BASE64_CHARS[(bits >>> 12) & 0x3F])
+					.append("==");
+		} else if(remaining == 2) {
+			int bits = (data[dataIdx] & 0xFF) << 16 | (data[dataIdx + 1] & 0xFF) << 8;
+			mBuffer.append(BASE64_CHARS[(bits >>> 18) & 0x3F])
+					.append(BASE64_CHARS[(bits >>> 12) & 0x3F])
+					.append(BASE64_CHARS[(bits >>> 6) & 0x3F])
+					.append('=');
+		}
+		mBuffer.append('"');
+
+		return this;
+	}
+
+	private void beforeValue() {
+		if(mValueOfMember) {
+			mValueOfMember = false;
+			return;
+		}
+		if(mDepth > 0) {
+			if(!mFirstStack[mDepth - 1]) {
+				mBuffer.append(',');
+			}
+			mFirstStack[mDepth - 1] = false;
+		}
+	}
+
+	private void push() {
+		if(mDepth == mFirstStack.length) {
+			mFirstStack = Arrays.copyOf(mFirstStack, mDepth * 2);
+		}
+		mFirstStack[mDepth++] = true;
+	}
+
+	private void writeString(String value) {
+		mBuffer.append('"');
+		int len = value.length();
+		int plainStart = 0;
+		for(int i = 0; i < len; i++) {
+			char c = value.charAt(i);
+			String escape = null;
+			switch (c) {
+				case '"':
+					escape = "\\\"";
+					break;
+				case '\\':
+					escape = "\\\\";
+					break;
+				case '\n':
+					escape = "\\n";
+					break;
+				case '\r':
+					escape = "\\r";
+					break;
+				case '\t':
+					escape = "\\t";
+					break;
+				case '\b':
+					escape = "\\b";
+					break;
+				case '\f':
+					escape = "\\f";
+					break;
+				//a closing tag must not end up in an inline script
+				case '/':
+					if(i > 0 && value.charAt(i - 1) == '<') {
+						escape = "\\/";
+					}
+					break;
+				default:
+					break;
+			}
+
+			//control chars and the line terminators which are invalid in JS string literals
+			boolean escapeUnicode = escape == null && (c < 0x20 || c == '\u2028' || c == '\u2029');
+			if(escape != null || escapeUnicode) {
+				mBuffer.append(value, plainStart, i);
+				if(escape != null) {
+					mBuffer.append(escape);
+				} else {
+					mBuffer.append("\\u")
+							.append(HEX_CHARS[(c >>> 12) & 0xF])
+							.append(HEX_CHARS[(c >>> 8) & 0xF])
+							.append(HEX_CHARS[(c >>> 4) & 0xF])
+							.append(HEX_CHARS[c & 0xF]);
+				}
+				plainStart = i + 1;
+			}
+		}
+		mBuffer.append(value, plainStart, len);
+		mBuffer.append('"');
+	}
+
+	@Override
+	public String toString() {
+		return mBuffer.toString();
+	}
+}
@@ -0,0 +1,372 @@
+package eu.hradio.radiowebview;
+
+/**
+ * Translates the service, metadata and timeshift events of the radio into messages for the radioWeb object and
+ * posts them to the {@link JsDispatcher}. Repeated labels are dropped by a {@link TextualChangeFilter}, slides are
+ * delivered from the {@link SlideCache} and skip items serialized once into the {@link SkipItemStore}.
+ * <p>
+ * The events are passed as {@link TextualData}, {@link VisualData} and {@link SkipItemData}, so the translation does
+ * not depend on the radio library. The RadioWebView adapts the events of its tuners and timeshiftplayer, the soak
+ * test drives the same translation with simulated events. Events are only passed while the page has the radioWeb object.
+ */
+class RadioEventTranslator {
+
+	private final JsDispatcher mJsDispatcher;
+	private final BridgeState mBridgeState;
+	private final SlideCache mSlideCache;
+	private final SkipItemStore mSkipItemStore;
+	private final TextualChangeFilter mTimeshiftTextualFilter = new TextualChangeFilter();
+
+	private volatile int mPageGeneration = 0;
+	private volatile boolean mDeliverRepeatedTextual = false;
+	private volatile boolean mInlineVisualData = false;
+
+	RadioEventTranslator(JsDispatcher jsDispatcher, BridgeState bridgeState) {
+		mJsDispatcher = jsDispatcher;
+		mBridgeState = bridgeState;
+		mSlideCache = new SlideCache(new SlideCache.EvictionListener() {
+			@Override
+			public void slideEvicted(SlideCache.Slide slide, int jsGeneration) {
+				if(jsGeneration == mPageGeneration) {
+					JsWriter deleteWriter = JsWriter.obtain();
+					JsDispatcher.beginCall(deleteWriter, -1, false, "deleteSlide").value(slide.mSlideNum);
+					JsDispatcher.endCall(deleteWriter);
+					mJsDispatcher.postMessage(deleteWriter.release());
+				}
+			}
+		});
+		mSkipItemStore = new SkipItemStore(mSlideCache);
+	}
+
+	SlideCache getSlideCache() {
+		return mSlideCache;
+	}
+
+	/**
+	 * Sets the generation of the loading page, the radioWeb.slides object of a new page holds no slides
+	 * @param pageGeneration the page generation
+	 */
+	void setPageGeneration(int pageGeneration) {
+		mPageGeneration = pageGeneration;
+	}
+
+	/**
+	 * @param deliverRepeated {@code true} to deliver retransmitted labels again
+	 */
+	void setRepeatedTextualDelivery(boolean deliverRepeated) {
+		mDeliverRepeatedTextual = deliverRepeated;
+	}
+
+	/**
+	 * @param inlineVisualData {@code true} to deliver the slideshow images Base64 encoded
+	 */
+	void setInlineVisualData(boolean inlineVisualData) {
+		mInlineVisualData = inlineVisualData;
+	}
+
+	//key of the events of which only the latest per service is delivered after a suspension
+	private static String latestKey(String listenerType, int srvHandle) {
+		return listenerType + srvHandle;
+	}
+
+	void serviceStarted(int srvHandle, long receivedNanos) {
+		mBridgeState.setServiceActive(srvHandle, true);
+		mJsDispatcher.postMessage(createNotifyServiceMessage("serviceStarted", srvHandle), BridgeMetrics.EVENT_SERVICE_START, receivedNanos);
+	}
+
+	void serviceStopped(int srvHandle, long receivedNanos) {
+		mBridgeState.setServiceActive(srvHandle, false);
+		mJsDispatcher.postMessage(createNotifyServiceMessage("serviceStopped", srvHandle), BridgeMetrics.EVENT_SERVICE_STOP, receivedNanos);
+	}
+
+	/**
+	 * Notifies the dls listeners of a service
+	 * @param textualFilter the {@link TextualChangeFilter} of the service
+	 */
+	void textual(int srvHandle, TextualChangeFilter textualFilter, TextualData textual, long receivedNanos) {
+		if(!mDeliverRepeatedTextual && !textualFilter.isChanged(textual, mPageGeneration)) {
+			return;
+		}
+
+		JsWriter dlsWriter = JsWriter.obtain();
+		JsDispatcher.beginCall(dlsWriter, srvHandle, false, "notifyListeners").value("dls");
+		writeTextualJson(dlsWriter, textual);
+		JsDispatcher.endCall(dlsWriter);
+
+		mJsDispatcher.postLatestMessage(latestKey("dls", srvHandle), dlsWriter.release(), BridgeMetrics.EVENT_DLS, receivedNanos);
+	}
+
+	/**
+	 * Notifies the sls listeners of a service
+	 */
+	void visual(int srvHandle, VisualData visual, long receivedNanos) {
+		mJsDispatcher.postLatestMessage(latestKey("sls", srvHandle), createNotifyVisualMessage(srvHandle, false, "sls", visual), BridgeMetrics.EVENT_SLS, receivedNanos);
+	}
+
+	/**
+	 * Sets a service timeshifted or not, the timeshift object of a service no longer timeshifted is reset.
+	 * The labels of a new timeshifted service are not compared to the labels of the previous one.
+	 * @param newService {@code true} if the service was not the timeshifted service before
+	 */
+	void setTimeshifted(int srvHandle, boolean timeshifted, boolean newService) {
+		JsWriter setTsCapWriter = JsWriter.obtain();
+		JsDispatcher.beginCall(setTsCapWriter, srvHandle, false, "setTimeshifted").value(timeshifted);
+		JsDispatcher.endCall(setTsCapWriter);
+		mBridgeState.setServiceActive(srvHandle, timeshifted);
+		if(!timeshifted) {
+			mBridgeState.setTimeshiftPaused(srvHandle, null);
+		}
+
+		mJsDispatcher.postMessage(setTsCapWriter.release());
+
+		if(timeshifted && newService) {
+			mTimeshiftTextualFilter.reset();
+		}
+	}
+
+	/**
+	 * Drops the skip items of a timeshiftplayer no longer used
+	 */
+	void clearSkipItems() {
+		mSkipItemStore.clear();
+	}
+
+	/**
+	 * @param timeshiftToken the SBT token or an empty string
+	 * @param sbtMax the maximum SBT duration or -1
+	 */
+	void timeshiftStarted(int srvHandle, String timeshiftToken, long sbtMax) {
+		JsWriter tsStartedWriter = JsWriter.obtain();
+		JsDispatcher.beginCall(tsStartedWriter, srvHandle, true, "started")
+				.value(timeshiftToken != null ? timeshiftToken : "")
+				.value(sbtMax);
+		JsDispatcher.endCall(tsStartedWriter);
+
+		mBridgeState.setTimeshiftPaused(srvHandle, false);
+		mJsDispatcher.postMessage(tsStartedWriter.release());
+	}
+
+	void timeshiftPaused(int srvHandle) {
+		mBridgeState.setTimeshiftPaused(srvHandle, true);
+		mJsDispatcher.postMessage(createTimeshiftStateMessage(srvHandle, "paused"));
+	}
+
+	void timeshiftStopped(int srvHandle) {
+		mJsDispatcher.postMessage(createTimeshiftStateMessage(srvHandle, "stopped"));
+	}
+
+	/**
+	 * Notifies the tsTextual listeners of the timeshifted service
+	 */
+	void timeshiftTextual(int srvHandle, TextualData textual, long receivedNanos) {
+		if(!mDeliverRepeatedTextual && !mTimeshiftTextualFilter.isChanged(textual, mPageGeneration)) {
+			return;
+		}
+
+		JsWriter tsDlsWriter = JsWriter.obtain();
+		JsDispatcher.beginCall(tsDlsWriter, srvHandle, true, "notifyListeners").value("tsTextual");
+		writeTextualJson(tsDlsWriter, textual);
+		JsDispatcher.endCall(tsDlsWriter);
+
+		mJsDispatcher.postLatestMessage(latestKey("tsTextual", srvHandle), tsDlsWriter.release(), BridgeMetrics.EVENT_DLS, receivedNanos);
+	}
+
+	/**
+	 * Notifies the tsVisual listeners of the timeshifted service
+	 */
+	void timeshiftVisual(int srvHandle, VisualData visual, long receivedNanos) {
+		mJsDispatcher.postLatestMessage(latestKey("tsVisual", srvHandle), createNotifyVisualMessage(srvHandle, true, "tsVisual", visual), BridgeMetrics.EVENT_SLS, receivedNanos);
+	}
+
+	/**
+	 * Adds the skip item to the timeshift object of the service
+	 * @param sbt {@code true} if the timeshifted service has SBT, the item is delivered with its SBT realtime
+	 */
+	void skipItemAdded(int srvHandle, SkipItemData skipItem, boolean sbt, long receivedNanos) {
+		String skipItemJson = getSkipItemJson(skipItem, sbt);
+		if(skipItemJson == null) {
+			return;
+		}
+
+		JsWriter skipWriter = JsWriter.obtain();
+		JsDispatcher.beginCall(skipWriter, srvHandle, true, "addSkipItem").jsonValue(skipItemJson);
+		JsDispatcher.endCall(skipWriter);
+
+		mJsDispatcher.postMessage(skipWriter.release(), BridgeMetrics.EVENT_SKIP_ITEM, receivedNanos);
+	}
+
+	/**
+	 * Removes the skip item, from the timeshift object of the service if it was delivered
+	 * @param srvHandle the handle of the timeshifted service or -1 to only forget the item
+	 */
+	void skipItemRemoved(int srvHandle, SkipItemData skipItem, long receivedNanos) {
+		SkipItemStore.Entry removedEntry = mSkipItemStore.remove(skipItem);
+		if(srvHandle >= 0 && removedEntry != null) {
+			JsWriter skipWriter = JsWriter.obtain();
+			JsDispatcher.beginCall(skipWriter, srvHandle, true, "removeSkipItem").value(removedEntry.mRelativeTimepoint);
+			JsDispatcher.endCall(skipWriter);
+
+			mJsDispatcher.postMessage(skipWriter.release(), BridgeMetrics.EVENT_SKIP_ITEM, receivedNanos);
+		}
+	}
+
+	/**
+	 * @return the stored skip item at the relative timepoint or {@code null}
+	 */
+	SkipItemData getSkipItem(long relativeTimepoint) {
+		return mSkipItemStore.getSkipItem(relativeTimepoint);
+	}
+
+	private static String createNotifyServiceMessage(String listenerType, int srvHandle) {
+		JsWriter notifyWriter = JsWriter.obtain();
+		JsDispatcher.beginCall(notifyWriter, -1, false, "notifyServiceListeners")
+				.value(listenerType)
+				.value(srvHandle);
+		JsDispatcher.endCall(notifyWriter);
+
+		return notifyWriter.release();
+	}
+
+	//notifies the tsState listeners of the timeshift object of the service
+	private static String createTimeshiftStateMessage(int srvHandle, String timeshiftState) {
+		JsWriter stateWriter = JsWriter.obtain();
+		JsDispatcher.beginCall(stateWriter, srvHandle, true, "notifyListeners")
+				.value("tsState")
+				.beginObject()
+				.name("timeshiftState").value(timeshiftState)
+				.endObject();
+		JsDispatcher.endCall(stateWriter);
+
+		return stateWriter.release();
+	}
+
+	//message notifying the given listeners with the visual, a cached slide is only defined once per page in radioWeb.slides
+	private String createNotifyVisualMessage(int srvHandle, boolean timeshift, String listenerType, VisualData visual) {
+		SlideCache.Slide slide = getCachedSlide(visual);
+		String visualJson = slide != null ? mSlideCache.getVisualJson(slide) : null;
+
+		JsWriter visualWriter = JsWriter.obtain();
+		if(visualJson == null) {
+			//not a slideshow or already evicted again
+			JsDispatcher.beginCall(visualWriter, srvHandle, timeshift, "notifyListeners").value(listenerType);
+			writeVisualJson(visualWriter, visual, slide);
+		} else {
+			JsDispatcher.beginCall(visualWriter, srvHandle, timeshift, "notifySlide").value(listenerType).value(slide.mSlideNum);
+			//while suspended the message defining the slide may be replaced by a later one
+			if(mJsDispatcher.isSuspended() || mSlideCache.markJsDefined(slide, mPageGeneration)) {
+				visualWriter.jsonValue(visualJson);
+			}
+		}
+		JsDispatcher.endCall(visualWriter);
+
+		return visualWriter.release();
+	}
+
+	//returns the cached slide with its serialized JSON or null if the visual is not a slideshow
+	private SlideCache.Slide getCachedSlide(VisualData visual) {
+		if(visual == null || !visual.isSlideshow()) {
+			return null;
+		}
+
+		SlideCache.Slide slide = mSlideCache.getSlide(visual.getVisualData(), visual.getMimeType(), visual.getContentName(), visual.getSlideId());
+		if(mSlideCache.getVisualJson(slide) == null) {
+			JsWriter slideWriter = JsWriter.obtain();
+			writeVisualJson(slideWriter, visual, slide);
+			mSlideCache.setVisualJson(slide, slideWriter.release());
+		}
+
+		return slide;
+	}
+
+	/**
+	 * Writes the visual JSON
+	 * @param writer the {@link JsWriter} to write to
+	 * @param visual the {@link VisualData} or {@code null}
+	 * @param slide the cached {@link SlideCache.Slide} of a slideshow visual, looked up if {@code null}
+	 */
+	private void writeVisualJson(JsWriter writer, VisualData visual, SlideCache.Slide slide) {
+		if(visual == null) {
+			writer.nullValue();
+			return;
+		}
+
+		BridgeJson.beginVisual(writer, visual.getVisualType());
+
+		if(visual.isSlideshow()) {
+			if(slide == null) {
+				slide = mSlideCache.getSlide(visual.getVisualData(), visual.getMimeType(), visual.getContentName(), visual.getSlideId());
+			}
+
+			BridgeJson.writeSlsMembers(writer, visual.getContentName(), visual.getSlideId(), visual.getMimeType(), visual.isCategorized(),
+					visual.getCategoryId(), visual.getCategoryText(), visual.getClickThroughUrl(), visual.getAlternativeLocationUrl(),
+					slide.mUrl, mInlineVisualData ? visual.getVisualData() : null);
+		}
+
+		writer.endObject();
+	}
+
+	/**
+	 * Returns the serialized JSON of the skip item. Every item is serialized only once and kept in the {@link SkipItemStore}.
+	 * @return the JSON string or {@code null} if the item is {@code null}
+	 */
+	private String getSkipItemJson(SkipItemData skipItem, boolean sbt) {
+		if(skipItem == null) {
+			return null;
+		}
+
+		String skipItemJson = mSkipItemStore.getJson(skipItem);
+		if(skipItemJson == null) {
+			//the slide URL is written into the JSON, the slide stays cached as long as the item is stored
+			SlideCache.Slide skipSlide = null;
+			VisualData skipVisual = skipItem.getSkipVisual();
+			if(skipVisual != null && skipVisual.isSlideshow()) {
+				skipSlide = mSlideCache.pinSlide(skipVisual.getVisualData(), skipVisual.getMimeType(), skipVisual.getContentName(), skipVisual.getSlideId());
+			}
+			skipItemJson = createSkipItemJson(skipItem, sbt, skipSlide);
+			mSkipItemStore.put(skipItem, skipItemJson, skipSlide);
+		}
+
+		return skipItemJson;
+	}
+
+	private String createSkipItemJson(SkipItemData skipItem, boolean sbt, SlideCache.Slide skipSlide) {
+		JsWriter skipWriter = JsWriter.obtain();
+		BridgeJson.beginSkipItem(skipWriter, skipItem.getRelativeTimepoint());
+
+		if(sbt) {
+			BridgeJson.writeSkipItemSbt(skipWriter, skipItem.getSbtRealTime(), skipItem.getSkipPointJson());
+		}
+
+		if(skipItem.getSkipTextual() != null) {
+			skipWriter.name("skipTextual");
+			writeTextualJson(skipWriter, skipItem.getSkipTextual());
+		}
+		if(skipItem.getSkipVisual() != null) {
+			skipWriter.name("skipVisual");
+			writeVisualJson(skipWriter, skipItem.getSkipVisual(), skipSlide);
+		}
+
+		skipWriter.endObject();
+		return skipWriter.release();
+	}
+
+	private static void writeTextualJson(JsWriter writer, TextualData textual) {
+		if(textual == null) {
+			writer.nullValue();
+			return;
+		}
+
+		if(textual.isLabel()) {
+			BridgeJson.beginTextual(writer, textual.getTextualType(), textual.getText(), textual.isItemRunning(), textual.isItemToggled());
+			for(int i = 0; i < textual.getDlPlusItemCount(); i++) {
+				BridgeJson.writeDlPlusItem(writer, textual.getDlPlusContentType(i), textual.getDlPlusContentCategory(i),
+						textual.getDlPlusContentTypeDescription(i), textual.getDlPlusText(i));
+			}
+			BridgeJson.endTextual(writer);
+		} else {
+			writer.beginObject();
+			writer.name("textualType").value(textual.getTextualType());
+			writer.endObject();
+		}
+	}
+}
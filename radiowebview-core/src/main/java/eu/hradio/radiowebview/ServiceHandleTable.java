@@ -0,0 +1,158 @@
+package eu.hradio.radiowebview;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Assigns every service a stable integer handle.
+ * The handle is used as the key of the service in the JS layer (radioWeb.serviceHandles) so that events
+ * can address a service directly without searching the radioWeb.services array.
+ * A handle stays valid for the same service (same DAB ids or same IP streams) across service list rebuilds.
+ * Handles of services no longer in the service list are released with {@link #retainHandles(Collection)},
+ * a released handle is not assigned again.
+ */
+class ServiceHandleTable<S> {
+
+	/**
+	 * Identifies a service independent of its object, e.g. by its DAB ids or its IP streams
+	 */
+	interface KeyFunction<S> {
+
+		/**
+		 * @return the key of the service or {@code null} if the service type is not supported
+		 */
+		String getKey(S service);
+	}
+
+	private final KeyFunction<S> mKeyFunction;
+
+	private final HashMap<String, Integer> mKeyHandles = new HashMap<>();
+	private final HashMap<Integer, String> mHandleKeys = new HashMap<>();
+	private final IdentityHashMap<S, Integer> mServiceHandles = new IdentityHashMap<>();
+	//null for a reserved handle
+	private final HashMap<Integer, S> mServices = new HashMap<>();
+	private int mNextHandle = 0;
+
+	ServiceHandleTable(KeyFunction<S> keyFunction) {
+		mKeyFunction = keyFunction;
+	}
+
+	/**
+	 * Registers the service and returns its handle. A service already known by its key keeps its handle.
+	 * @param service the service to register
+	 * @return the handle of the service or -1 if the service type is not supported
+	 */
+	synchronized int putService(S service) {
+		Integer handle = mServiceHandles.get(service);
+		if(handle != null) {
+			return handle;
+		}
+
+		String key = mKeyFunction.getKey(service);
+		if(key == null) {
+			return -1;
+		}
+
+		handle = mKeyHandles.get(key);
+		if(handle == null) {
+			handle = newHandle(key);
+		} else {
+			//same service with a new object, e.g. after a rescan
+			S oldService = mServices.get(handle);
+			if(oldService != null) {
+				mServiceHandles.remove(oldService);
+			}
+		}
+		mServices.put(handle, service);
+		mServiceHandles.put(service, handle);
+
+		return handle;
+	}
+
+	/**
+	 * Reserves a handle for a service which is not available yet, e.g. a service of a stored service list.
+	 * The service registered later with the same key gets this handle.
+	 * @param key the key of the service
+	 * @return the handle for the key
+	 */
+	synchronized int reserveHandle(String key) {
+		Integer handle = mKeyHandles.get(key);
+		if(handle == null) {
+			handle = newHandle(key);
+			mServices.put(handle, null);
+		}
+
+		return handle;
+	}
+
+	/**
+	 * Releases the handles of all services which are not in the current service list
+	 * @param handles the handles of the current service list
+	 */
+	synchronized void retainHandles(Collection<Integer> handles) {
+		Iterator<Map.Entry<Integer, S>> serviceIter = mServices.entrySet().iterator();
+		while(serviceIter.hasNext()) {
+			Map.Entry<Integer, S> serviceEntry = serviceIter.next();
+			if(handles.contains(serviceEntry.getKey())) {
+				continue;
+			}
+
+			serviceIter.remove();
+			mKeyHandles.remove(mHandleKeys.remove(serviceEntry.getKey()));
+			if(serviceEntry.getValue() != null) {
+				mServiceHandles.remove(serviceEntry.getValue());
+			}
+		}
+	}
+
+	private int newHandle(String key) {
+		int handle = mNextHandle++;
+		mKeyHandles.put(key, handle);
+		mHandleKeys.put(handle, key);
+		return handle;
+	}
+
+	/**
+	 * @param handle the handle of the wanted service
+	 * @return the service for the handle or {@code null} if unknown
+	 */
+	synchronized S getService(int handle) {
+		return mServices.get(handle);
+	}
+
+	/**
+	 * @param service the service to lookup
+	 * @return the handle of the service or -1 if the service was never registered
+	 */
+	synchronized int getHandle(S service) {
+		if(service == null) {
+			return -1;
+		}
+
+		Integer handle = mServiceHandles.get(service);
+		if(handle == null) {
+			String key = mKeyFunction.getKey(service);
+			if(key != null) {
+				handle = mKeyHandles.get(key);
+			}
+		}
+
+		return handle != null ? handle : -1;
+	}
+
+	/**
+	 * @param key a service key as returned by {@link #getDabServiceKey(String, int, int, int)}
+	 * @return the handle for the key or -1 if unknown
+	 */
+	synchronized int getHandle(String key) {
+		Integer handle = mKeyHandles.get(key);
+		return handle != null ? handle : -1;
+	}
+
+	static String getDabServiceKey(String type, int ensembleEcc, int ensembleId, int serviceId) {
+		return type + ':' + ensembleEcc + ':' + ensembleId + ':' + serviceId;
+	}
+}
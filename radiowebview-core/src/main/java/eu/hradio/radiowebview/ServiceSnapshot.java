@@ -0,0 +1,100 @@
+package eu.hradio.radiowebview;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The service data last published to the radioWeb.services array of the current page, by service handle.
+ * The data of a service is its serialized JSON without the timeshift state, which is updated by its own events.
+ * A new service list is compared against the snapshot to publish only the added, changed and removed services.
+ */
+class ServiceSnapshot {
+
+	static class Delta {
+
+		//handles of the added services, in service list order
+		final ArrayList<Integer> mAdded = new ArrayList<>();
+		//handles of the services with changed data
+		final ArrayList<Integer> mChanged = new ArrayList<>();
+		final ArrayList<Integer> mRemoved = new ArrayList<>();
+
+		boolean isEmpty() {
+			return mAdded.isEmpty() && mChanged.isEmpty() && mRemoved.isEmpty();
+		}
+	}
+
+	static final int SERVICE_UNCHANGED = 0;
+	static final int SERVICE_ADDED = 1;
+	static final int SERVICE_CHANGED = 2;
+
+	//null if nothing is published on the current page
+	private LinkedHashMap<Integer, String> mServices = null;
+
+	synchronized boolean isPublished() {
+		return mServices != null;
+	}
+
+	/**
+	 * Replaces the snapshot with the completely published service list
+	 * @param services the serialized service data by handle
+	 */
+	synchronized void publish(LinkedHashMap<Integer, String> services) {
+		mServices = services;
+	}
+
+	/**
+	 * Compares the new service list against the snapshot and replaces the snapshot
+	 * @param services the serialized service data by handle
+	 * @return the {@link Delta} to the previously published list
+	 */
+	synchronized Delta update(LinkedHashMap<Integer, String> services) {
+		Delta delta = new Delta();
+		if(mServices == null) {
+			delta.mAdded.addAll(services.keySet());
+			mServices = services;
+			return delta;
+		}
+
+		for(Map.Entry<Integer, String> srvEntry : services.entrySet()) {
+			String publishedData = mServices.remove(srvEntry.getKey());
+			if(publishedData == null) {
+				delta.mAdded.add(srvEntry.getKey());
+			} else if(!publishedData.equals(srvEntry.getValue())) {
+				delta.mChanged.add(srvEntry.getKey());
+			}
+		}
+		//the remaining ones are gone
+		delta.mRemoved.addAll(mServices.keySet());
+
+		mServices = services;
+		return delta;
+	}
+
+	/**
+	 * Adds or updates a single service, e.g. a service found during a scan
+	 * @param handle the handle of the service
+	 * @param data the serialized service data
+	 * @return {@link #SERVICE_ADDED}, {@link #SERVICE_CHANGED} or {@link #SERVICE_UNCHANGED}, which is also
+	 * returned if nothing is published on the current page yet
+	 */
+	synchronized int put(int handle, String data) {
+		if(mServices == null) {
+			return SERVICE_UNCHANGED;
+		}
+
+		String publishedData = mServices.put(handle, data);
+		if(publishedData == null) {
+			return SERVICE_ADDED;
+		}
+
+		return publishedData.equals(data) ? SERVICE_UNCHANGED : SERVICE_CHANGED;
+	}
+
+	/**
+	 * Forgets the published services, e.g. when a new page is loading
+	 */
+	synchronized void reset() {
+		mServices = null;
+	}
+}
@@ -0,0 +1,30 @@
+package eu.hradio.radiowebview;
+
+/**
+ * A skip item of a timeshiftplayer, independent of the timeshiftplayer library.
+ * Kept in the {@link SkipItemStore} as long as the item is in the timeshift buffer.
+ */
+interface SkipItemData {
+
+	long getRelativeTimepoint();
+
+	/**
+	 * @return the SBT realtime of the item, 0 or less if unknown
+	 */
+	long getSbtRealTime();
+
+	/**
+	 * @return the skip point as JSON number literal, delivered as toggleId of a SBT skip item
+	 */
+	String getSkipPointJson();
+
+	/**
+	 * @return the textual of the item or {@code null}
+	 */
+	TextualData getSkipTextual();
+
+	/**
+	 * @return the visual of the item or {@code null}
+	 */
+	VisualData getSkipVisual();
+}
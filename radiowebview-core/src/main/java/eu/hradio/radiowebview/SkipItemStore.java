@@ -0,0 +1,116 @@
+package eu.hradio.radiowebview;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * Holds the skip items of a timeshiftplayer together with their serialized JSON, so every item is
+ * serialized exactly once. Items are indexed by their relative timepoint, which is also the key of the item
+ * in the timeshift.skipIndex object of the JS layer, and by their SBT realtime.
+ * The slide of a skip visual is pinned in the {@link SlideCache} as long as its item is stored, so the slide URL
+ * in the serialized JSON stays valid.
+ */
+class SkipItemStore {
+
+	static class Entry {
+
+		final SkipItemData mSkipItem;
+		final long mRelativeTimepoint;
+		final long mSbtRealTime;
+		final String mJson;
+		final SlideCache.Slide mSlide;
+
+		Entry(SkipItemData skipItem, String json, SlideCache.Slide slide) {
+			mSkipItem = skipItem;
+			mRelativeTimepoint = skipItem.getRelativeTimepoint();
+			mSbtRealTime = skipItem.getSbtRealTime();
+			mJson = json;
+			mSlide = slide;
+		}
+	}
+
+	private final SlideCache mSlideCache;
+
+	//insertion ordered
+	private final LinkedHashMap<Long, Entry> mEntries = new LinkedHashMap<>();
+	private final HashMap<Long, Entry> mSbtEntries = new HashMap<>();
+
+	SkipItemStore(SlideCache slideCache) {
+		mSlideCache = slideCache;
+	}
+
+	/**
+	 * Stores the item with its JSON, replacing an item at the same relative timepoint
+	 * @param slide the slide of the skip visual pinned with {@link SlideCache#pinSlide(byte[], String, String, long)}
+	 *              or {@code null}, unpinned when the item is removed
+	 */
+	synchronized Entry put(SkipItemData skipItem, String json, SlideCache.Slide slide) {
+		Entry entry = new Entry(skipItem, json, slide);
+		Entry replaced = mEntries.put(entry.mRelativeTimepoint, entry);
+		if(replaced != null) {
+			removeSbtEntry(replaced);
+			mSlideCache.unpin(replaced.mSlide);
+		}
+		if(entry.mSbtRealTime > 0) {
+			mSbtEntries.put(entry.mSbtRealTime, entry);
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Removes the entry for the item, looked up by its SBT realtime or its relative timepoint
+	 * @param skipItem the {@link SkipItemData} to remove
+	 * @return the removed {@link Entry} or {@code null} if the item is unknown
+	 */
+	synchronized Entry remove(SkipItemData skipItem) {
+		long relativeTimepoint = skipItem.getRelativeTimepoint();
+		long sbtRealTime = skipItem.getSbtRealTime();
+		Entry entry = sbtRealTime > 0 ? mSbtEntries.get(sbtRealTime) : null;
+		//an item at another timepoint with the same SBT realtime
+		if(entry == null || entry.mRelativeTimepoint != relativeTimepoint) {
+			entry = mEntries.get(relativeTimepoint);
+		}
+		if(entry == null) {
+			return null;
+		}
+
+		//only the entries of this item, a replaced item must not remove its replacement
+		if(mEntries.get(entry.mRelativeTimepoint) == entry) {
+			mEntries.remove(entry.mRelativeTimepoint);
+			mSlideCache.unpin(entry.mSlide);
+		}
+		removeSbtEntry(entry);
+
+		return entry;
+	}
+
+	private void removeSbtEntry(Entry entry) {
+		if(entry.mSbtRealTime > 0 && mSbtEntries.get(entry.mSbtRealTime) == entry) {
+			mSbtEntries.remove(entry.mSbtRealTime);
+		}
+	}
+
+	/**
+	 * @param relativeTimepoint the relative timepoint of the wanted item
+	 * @return the {@link SkipItemData} or {@code null} if there is no item at this timepoint
+	 */
+	synchronized SkipItemData getSkipItem(long relativeTimepoint) {
+		Entry entry = mEntries.get(relativeTimepoint);
+		return entry != null ? entry.mSkipItem : null;
+	}
+
+	synchronized String getJson(SkipItemData skipItem) {
+		long relativeTimepoint = skipItem.getRelativeTimepoint();
+		Entry entry = mEntries.get(relativeTimepoint);
+		return entry != null ? entry.mJson : null;
+	}
+
+	synchronized void clear() {
+		for(Entry entry : mEntries.values()) {
+			mSlideCache.unpin(entry.mSlide);
+		}
+		mEntries.clear();
+		mSbtEntries.clear();
+	}
+}
@@ -0,0 +1,217 @@
+package eu.hradio.radiowebview;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * In-memory LRU cache for slideshow images, served to the page by the RadioWebViewClient via synthetic
+ * {@value #SLIDE_URL_PREFIX} URLs instead of Base64 encoded inside the event scripts.
+ * Broadcasters repeat the same slides over and over, so a slide is keyed by a hash of its content together
+ * with its contentName and slideId and a repeated slide is delivered from the cache including its serialized JSON.
+ * The cache is limited by a byte budget. Slides referenced by a serialized skip item are pinned and not evicted
+ * until the skip item is removed, as the skip item keeps their URL.
+ */
+class SlideCache {
+
+	static final String SLIDE_URL_PREFIX = "radioweb://sls/";
+
+	static final long DEFAULT_BUDGET_BYTES = 4 * 1024 * 1024;
+
+	static class Slide {
+
+		//key of the slide in the radioWeb.slides object
+		final long mSlideNum;
+		final String mUrl;
+		final byte[] mData;
+		final String mMimeType;
+
+		//guarded by the SlideCache
+		private String mVisualJson = null;
+		//page generation the slide was defined in the radioWeb.slides object
+		private int mJsGeneration = -1;
+		//number of references which keep the slide from eviction
+		private int mPinCount = 0;
+
+		Slide(long slideNum, byte[] data, String mimeType) {
+			mSlideNum = slideNum;
+			mUrl = SLIDE_URL_PREFIX + slideNum;
+			mData = data;
+			mMimeType = mimeType;
+		}
+	}
+
+	interface EvictionListener {
+
+		void slideEvicted(Slide slide, int jsGeneration);
+	}
+
+	private final EvictionListener mEvictionListener;
+
+	private long mNextSlideNum = 0;
+	private final LinkedHashMap<String, Slide> mSlides = new LinkedHashMap<>(16, 0.75f, true);
+	private final HashMap<String, Slide> mSlideUrls = new HashMap<>();
+	private final HashMap<Slide, String> mSlideKeys = new HashMap<>();
+
+	private final CRC32 mCrc = new CRC32();
+
+	private long mBudgetBytes = DEFAULT_BUDGET_BYTES;
+	private long mCachedBytes = 0;
+
+	private long mHits = 0;
+	private long mMisses = 0;
+	private long mEvictions = 0;
+
+	SlideCache(EvictionListener evictionListener) {
+		mEvictionListener = evictionListener;
+	}
+
+	/**
+	 * Returns the cached slide with the same content or caches the new slide
+	 * @param data the image data
+	 * @param mimeType the mimetype of the image
+	 * @param contentName the contentName of the slide
+	 * @param slideId the slideId of the slide
+	 * @return the cached {@link Slide}
+	 */
+	synchronized Slide getSlide(byte[] data, String mimeType, String contentName, long slideId) {
+		return getSlide(data, mimeType, contentName, slideId, false);
+	}
+
+	/**
+	 * Returns the cached slide with the same content or caches the new slide and pins it until {@link #unpin(Slide)}
+	 * @return the pinned {@link Slide}
+	 */
+	synchronized Slide pinSlide(byte[] data, String mimeType, String contentName, long slideId) {
+		return getSlide(data, mimeType, contentName, slideId, true);
+	}
+
+	/**
+	 * Releases a pin of {@link #pinSlide(byte[], String, String, long)}, the slide may be evicted afterwards
+	 * @param slide the pinned {@link Slide} or {@code null}
+	 */
+	synchronized void unpin(Slide slide) {
+		if(slide != null && slide.mPinCount > 0) {
+			slide.mPinCount--;
+			if(slide.mPinCount == 0) {
+				trimToBudget(null);
+			}
+		}
+	}
+
+	private Slide getSlide(byte[] data, String mimeType, String contentName, long slideId, boolean pin) {
+		mCrc.reset();
+		mCrc.update(data, 0, data.length);
+		String slideKey = mCrc.getValue() + ":" + data.length + ":" + contentName + ":" + slideId;
+
+		Slide slide = mSlides.get(slideKey);
+		if(slide != null) {
+			mHits++;
+			if(pin) {
+				slide.mPinCount++;
+			}
+			return slide;
+		}
+
+		mMisses++;
+		slide = new Slide(mNextSlideNum++, data, mimeType);
+		if(pin) {
+			slide.mPinCount++;
+		}
+		mSlides.put(slideKey, slide);
+		mSlideUrls.put(slide.mUrl, slide);
+		mSlideKeys.put(slide, slideKey);
+		mCachedBytes += data.length;
+		trimToBudget(slide);
+
+		return slide;
+	}
+
+	/**
+	 * @param url the requested URL
+	 * @return the {@link Slide} for the URL or {@code null} if the URL is not a slide URL or the slide is not cached anymore
+	 */
+	synchronized Slide getSlide(String url) {
+		if(url == null || !url.startsWith(SLIDE_URL_PREFIX)) {
+			return null;
+		}
+
+		return mSlideUrls.get(url);
+	}
+
+	synchronized String getVisualJson(Slide slide) {
+		return slide.mVisualJson;
+	}
+
+	synchronized void setVisualJson(Slide slide, String visualJson) {
+		if(slide.mVisualJson == null && mSlideKeys.containsKey(slide)) {
+			slide.mVisualJson = visualJson;
+			mCachedBytes += visualJson.length() * 2;
+			trimToBudget(slide);
+		}
+	}
+
+	/**
+	 * Marks the slide as defined in the radioWeb.slides object of the given page generation
+	 * @return {@code true} if the slide was not yet defined for this page generation
+	 */
+	synchronized boolean markJsDefined(Slide slide, int jsGeneration) {
+		if(slide.mJsGeneration != jsGeneration) {
+			slide.mJsGeneration = jsGeneration;
+			return true;
+		}
+
+		return false;
+	}
+
+	synchronized void setBudget(long budgetBytes) {
+		mBudgetBytes = Math.max(budgetBytes, 0);
+		trimToBudget(null);
+	}
+
+	synchronized long getBudget() {
+		return mBudgetBytes;
+	}
+
+	synchronized long getCachedBytes() {
+		return mCachedBytes;
+	}
+
+	synchronized long getHitCount() {
+		return mHits;
+	}
+
+	synchronized long getMissCount() {
+		return mMisses;
+	}
+
+	synchronized long getEvictionCount() {
+		return mEvictions;
+	}
+
+	//evicts the least recently used slides which are not pinned, keeping the given one
+	private void trimToBudget(Slide keepSlide) {
+		Iterator<Map.Entry<String, Slide>> slideIter = mSlides.entrySet().iterator();
+		while(mCachedBytes > mBudgetBytes && slideIter.hasNext()) {
+			Slide evictSlide = slideIter.next().getValue();
+			if(evictSlide == keepSlide || evictSlide.mPinCount > 0) {
+				continue;
+			}
+
+			slideIter.remove();
+			mSlideUrls.remove(evictSlide.mUrl);
+			mSlideKeys.remove(evictSlide);
+			mCachedBytes -= evictSlide.mData.length;
+			if(evictSlide.mVisualJson != null) {
+				mCachedBytes -= evictSlide.mVisualJson.length() * 2;
+			}
+			mEvictions++;
+
+			if(mEvictionListener != null) {
+				mEvictionListener.slideEvicted(evictSlide, evictSlide.mJsGeneration);
+			}
+		}
+	}
+}
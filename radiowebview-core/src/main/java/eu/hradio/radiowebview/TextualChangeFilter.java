@@ -0,0 +1,98 @@
+package eu.hradio.radiowebview;
+
+/**
+ * Detects retransmissions of the last delivered DLS or ICY text of a single service.
+ * A label is a repetition if its type, text, item toggle and running bits and its DL+ items are equal to the
+ * last delivered label on the same page. The values of the last delivered label are copied, the {@link TextualData}
+ * itself may be reused by the tuner for the next label. A repetition is dropped without any allocation.
+ */
+class TextualChangeFilter {
+
+	//values per DL+ item: content type, text, category and type description
+	private static final int DLPLUS_ITEM_VALUES = 4;
+
+	//the last delivered label, guarded by this
+	private boolean mDelivered = false;
+	private String mLastType = null;
+	private String mLastText = null;
+	private boolean mLastRunning = false;
+	private boolean mLastToggled = false;
+	private String[] mLastDlPlusValues = new String[0];
+	private int mLastPageGeneration = -1;
+
+	/**
+	 * Checks the label against the last delivered label and remembers it as delivered if it changed
+	 * @param textual the received {@link TextualData}
+	 * @param pageGeneration the generation of the page the label is delivered to
+	 * @return {@code true} if the label shall be delivered
+	 */
+	synchronized boolean isChanged(TextualData textual, int pageGeneration) {
+		if(textual == null) {
+			return false;
+		}
+
+		if(mDelivered && pageGeneration == mLastPageGeneration && isLastTextual(textual)) {
+			return false;
+		}
+
+		copyLastTextual(textual);
+		mDelivered = true;
+		mLastPageGeneration = pageGeneration;
+		return true;
+	}
+
+	synchronized void reset() {
+		mDelivered = false;
+		mLastType = null;
+		mLastText = null;
+		mLastDlPlusValues = new String[0];
+		mLastPageGeneration = -1;
+	}
+
+	private boolean isLastTextual(TextualData textual) {
+		if(!equalStrings(mLastType, textual.getTextualType()) || !equalStrings(mLastText, textual.getText())) {
+			return false;
+		}
+		if(mLastRunning != textual.isItemRunning() || mLastToggled != textual.isItemToggled()) {
+			return false;
+		}
+
+		int size = textual.getDlPlusItemCount();
+		if(mLastDlPlusValues.length != size * DLPLUS_ITEM_VALUES) {
+			return false;
+		}
+
+		for(int i = 0; i < size; i++) {
+			int valueIdx = i * DLPLUS_ITEM_VALUES;
+			if(!equalStrings(mLastDlPlusValues[valueIdx], textual.getDlPlusContentType(i)) ||
+					!equalStrings(mLastDlPlusValues[valueIdx + 1], textual.getDlPlusText(i)) ||
+					!equalStrings(mLastDlPlusValues[valueIdx + 2], textual.getDlPlusContentCategory(i)) ||
+					!equalStrings(mLastDlPlusValues[valueIdx + 3], textual.getDlPlusContentTypeDescription(i))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void copyLastTextual(TextualData textual) {
+		mLastType = textual.getTextualType();
+		mLastText = textual.getText();
+		mLastRunning = textual.isItemRunning();
+		mLastToggled = textual.isItemToggled();
+
+		int size = textual.getDlPlusItemCount();
+		mLastDlPlusValues = new String[size * DLPLUS_ITEM_VALUES];
+		for(int i = 0; i < size; i++) {
+			int valueIdx = i * DLPLUS_ITEM_VALUES;
+			mLastDlPlusValues[valueIdx] = textual.getDlPlusContentType(i);
+			mLastDlPlusValues[valueIdx + 1] = textual.getDlPlusText(i);
+			mLastDlPlusValues[valueIdx + 2] = textual.getDlPlusContentCategory(i);
+			mLastDlPlusValues[valueIdx + 3] = textual.getDlPlusContentTypeDescription(i);
+		}
+	}
+
+	private static boolean equalStrings(String last, String str) {
+		return last == null ? str == null : last.equals(str);
+	}
+}
@@ -0,0 +1,49 @@
+package eu.hradio.radiowebview;
+
+/**
+ * A textual metadata event of a service, e.g. a DLS with its DL+ items or an ICY text, independent of the radio library.
+ * Only read while the event is translated, the values may be copied but not the object itself.
+ */
+interface TextualData {
+
+	/**
+	 * @return the textual type, e.g. METADATA_TEXTUAL_TYPE_DAB_DLS
+	 */
+	String getTextualType();
+
+	/**
+	 * @return {@code true} for a DLS or ICY text, other types are delivered with their type only
+	 */
+	boolean isLabel();
+
+	String getText();
+
+	/**
+	 * @return the item running bit of a DLS, {@code false} for other types
+	 */
+	boolean isItemRunning();
+
+	/**
+	 * @return the item toggle bit of a DLS, {@code false} for other types
+	 */
+	boolean isItemToggled();
+
+	/**
+	 * @return the number of DL+ items, 0 for other types than DLS
+	 */
+	int getDlPlusItemCount();
+
+	String getDlPlusContentType(int itemIdx);
+
+	/**
+	 * @return the content category of the DL+ item or {@code null}
+	 */
+	String getDlPlusContentCategory(int itemIdx);
+
+	/**
+	 * @return the content type description of the DL+ item or {@code null}
+	 */
+	String getDlPlusContentTypeDescription(int itemIdx);
+
+	String getDlPlusText(int itemIdx);
+}
@@ -0,0 +1,106 @@
+package eu.hradio.radiowebview;
+
+/**
+ * Latest-wins slot for the progress and sbtRealTime updates of a timeshiftplayer. Only the latest values are
+ * delivered with a frame of the {@link JsDispatcher}, at most once per delivery interval. Values held back by the
+ * interval are delivered with a delayed frame at the end of the interval.
+ */
+class TimeshiftProgressSlot implements JsDispatcher.FrameSource {
+
+	private final JsDispatcher mJsDispatcher;
+	private volatile long mIntervalMs = 0;
+
+	private boolean mProgressDirty = false;
+	private int mProgressSrvHandle = -1;
+	private long mProgressCur;
+	private long mProgressTotal;
+
+	private boolean mSbtDirty = false;
+	private int mSbtSrvHandle = -1;
+	private long mSbtRealTime;
+	private long mSbtStreamTime;
+	private long mSbtCur;
+	private long mSbtTotal;
+
+	private long mLastDeliveryMs = Long.MIN_VALUE / 2;
+	//receive time of the oldest undelivered value
+	private long mProgressSinceNanos;
+	private long mSbtSinceNanos;
+
+	TimeshiftProgressSlot(JsDispatcher jsDispatcher) {
+		mJsDispatcher = jsDispatcher;
+	}
+
+	/**
+	 * @param intervalMs the minimum interval between two deliveries in milliseconds, 0 to deliver with every frame
+	 */
+	void setInterval(long intervalMs) {
+		mIntervalMs = intervalMs;
+	}
+
+	synchronized void updateProgress(int srvHandle, long cur, long total) {
+		if(!mProgressDirty) {
+			mProgressSinceNanos = System.nanoTime();
+		}
+		mProgressSrvHandle = srvHandle;
+		mProgressCur = cur;
+		mProgressTotal = total;
+		mProgressDirty = true;
+	}
+
+	synchronized void updateSbtRealTime(int srvHandle, long realTimePosix, long streamTimePosix, long curPos, long totalDuration) {
+		if(!mSbtDirty) {
+			mSbtSinceNanos = System.nanoTime();
+		}
+		mSbtSrvHandle = srvHandle;
+		mSbtRealTime = realTimePosix;
+		mSbtStreamTime = streamTimePosix;
+		mSbtCur = curPos;
+		mSbtTotal = totalDuration;
+		mSbtDirty = true;
+	}
+
+	synchronized void clear() {
+		mProgressDirty = false;
+		mSbtDirty = false;
+	}
+
+	@Override
+	public synchronized boolean appendFrameMessages(JsWriter frameMessages) {
+		if(!mProgressDirty && !mSbtDirty) {
+			return false;
+		}
+
+		long nowMs = System.nanoTime() / 1000000L;
+		long waitMs = mLastDeliveryMs + mIntervalMs - nowMs;
+		if(waitMs > 0) {
+			//no frame on every vsync until then
+			mJsDispatcher.requestFrameDelayed(waitMs);
+			return false;
+		}
+		mLastDeliveryMs = nowMs;
+
+		if(mProgressDirty) {
+			mProgressDirty = false;
+			int messageStart = frameMessages.length();
+			JsDispatcher.beginCall(frameMessages, mProgressSrvHandle, true, "updateProgress")
+					.value(mProgressCur)
+					.value(mProgressTotal);
+			JsDispatcher.endCall(frameMessages);
+			mJsDispatcher.trackEvent(BridgeMetrics.EVENT_PROGRESS, mProgressSinceNanos, frameMessages.length() - messageStart);
+		}
+		if(mSbtDirty) {
+			mSbtDirty = false;
+			int messageStart = frameMessages.length();
+			JsDispatcher.beginCall(frameMessages, mSbtSrvHandle, true, "updateSbtProgress")
+					.value(mSbtRealTime)
+					.value(mSbtStreamTime)
+					.value(mSbtCur)
+					.value(mSbtTotal);
+			JsDispatcher.endCall(frameMessages);
+			mJsDispatcher.trackEvent(BridgeMetrics.EVENT_SBT_PROGRESS, mSbtSinceNanos, frameMessages.length() - messageStart);
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,48 @@
+package eu.hradio.radiowebview;
+
+/**
+ * A visual metadata event of a service, e.g. a slide of the DAB slideshow, independent of the radio library.
+ * Only the type is read for other visuals than slideshow slides.
+ */
+interface VisualData {
+
+	/**
+	 * @return the visual type, e.g. METADATA_VISUAL_TYPE_DAB_SLS
+	 */
+	String getVisualType();
+
+	/**
+	 * @return {@code true} for a slide of the DAB slideshow
+	 */
+	boolean isSlideshow();
+
+	byte[] getVisualData();
+
+	/**
+	 * @return the mimetype of the image, e.g. image/jpeg
+	 */
+	String getMimeType();
+
+	String getContentName();
+
+	long getSlideId();
+
+	boolean isCategorized();
+
+	long getCategoryId();
+
+	/**
+	 * @return the category text or {@code null}
+	 */
+	String getCategoryText();
+
+	/**
+	 * @return the click through URL or {@code null}
+	 */
+	String getClickThroughUrl();
+
+	/**
+	 * @return the alternative location URL or {@code null}
+	 */
+	String getAlternativeLocationUrl();
+}
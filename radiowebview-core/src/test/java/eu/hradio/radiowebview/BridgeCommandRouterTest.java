@@ -0,0 +1,243 @@
+package eu.hradio.radiowebview;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BridgeCommandRouterTest {
+
+	private static class Settlement {
+
+		final BridgeCommandRouter.Call mCall;
+		final boolean mResolved;
+		final String mResult;
+
+		Settlement(BridgeCommandRouter.Call call, boolean resolved, String result) {
+			mCall = call;
+			mResolved = resolved;
+			mResult = result;
+		}
+	}
+
+	private final ArrayList<Settlement> mSettlements = new ArrayList<>();
+	private final CountDownLatch mWorkerSettled = new CountDownLatch(1);
+	private BridgeCommandRouter mRouter;
+
+	@Before
+	public void createRouter() {
+		mRouter = new BridgeCommandRouter(new BridgeCommandRouter.Responder() {
+			@Override
+			public void settle(BridgeCommandRouter.Call call, boolean resolved, String result) {
+				synchronized (mSettlements) {
+					mSettlements.add(new Settlement(call, resolved, result));
+				}
+				mWorkerSettled.countDown();
+			}
+		});
+	}
+
+	@After
+	public void quitRouter() {
+		mRouter.quit();
+	}
+
+	@Test
+	public void resolvedCallIsSettledOnce() {
+		mRouter.register("tune", false, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) {
+				call.resolve("true");
+				call.resolve("false");
+				call.reject("late");
+			}
+		});
+
+		assertTrue(mRouter.route("tune", "{}", 1, 0));
+		assertEquals(1, mSettlements.size());
+		assertTrue(mSettlements.get(0).mResolved);
+		assertEquals("true", mSettlements.get(0).mResult);
+		assertTrue(mSettlements.get(0).mCall.isSettled());
+	}
+
+	@Test
+	public void malformedArgumentsRejectTheCallOnce() {
+		mRouter.register("tune", false, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) throws JSONException {
+				new JSONObject(args).getInt("srvHandle");
+				call.resolve(null);
+			}
+		});
+
+		mRouter.route("tune", "{}", 2, 0);
+		assertEquals(1, mSettlements.size());
+		assertFalse(mSettlements.get(0).mResolved);
+		assertEquals("Malformed arguments", mSettlements.get(0).mResult);
+	}
+
+	@Test
+	public void failingCommandRejectsTheCallOnce() {
+		mRouter.register("tune", false, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) {
+				throw new IllegalStateException("No tuner");
+			}
+		});
+
+		mRouter.route("tune", "{}", 3, 0);
+		assertEquals(1, mSettlements.size());
+		assertFalse(mSettlements.get(0).mResolved);
+		assertTrue(mSettlements.get(0).mResult.contains("No tuner"));
+	}
+
+	@Test
+	public void commandFailingAfterSettlingIsNotSettledAgain() {
+		mRouter.register("tune", false, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) throws JSONException {
+				call.resolve(null);
+				throw new JSONException("after resolve");
+			}
+		});
+		mRouter.register("stop", false, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) {
+				call.reject("Not running");
+				throw new IllegalStateException("after reject");
+			}
+		});
+
+		mRouter.route("tune", "{}", 4, 0);
+		mRouter.route("stop", "{}", 5, 0);
+		assertEquals(2, mSettlements.size());
+		assertTrue(mSettlements.get(0).mResolved);
+		assertFalse(mSettlements.get(1).mResolved);
+		assertEquals("Not running", mSettlements.get(1).mResult);
+	}
+
+	@Test
+	public void unknownTaskIsRejected() {
+		assertFalse(mRouter.route("unknown", "{}", 6, 0));
+		assertEquals(1, mSettlements.size());
+		assertFalse(mSettlements.get(0).mResolved);
+	}
+
+	@Test
+	public void workerCommandIsSettledOnce() throws InterruptedException {
+		mRouter.register("scan", true, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) {
+				assertEquals("RadioWebCommands", Thread.currentThread().getName());
+				throw new IllegalStateException("Scan failed");
+			}
+		});
+
+		assertTrue(mRouter.route("scan", "{}", 7, 0));
+		assertTrue(mWorkerSettled.await(5, TimeUnit.SECONDS));
+		mRouter.quit();
+		synchronized (mSettlements) {
+			assertEquals(1, mSettlements.size());
+			assertFalse(mSettlements.get(0).mResolved);
+		}
+	}
+
+	@Test
+	public void queuedCommandsAreRejectedOnQuit() throws InterruptedException {
+		final CountDownLatch running = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		mRouter.register("tune", true, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) {
+				running.countDown();
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch(InterruptedException interruptExc) {
+					Thread.currentThread().interrupt();
+				}
+				call.resolve(null);
+			}
+		});
+
+		mRouter.route("tune", "{}", 10, 0);
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+		mRouter.route("tune", "{}", 11, 0);
+		mRouter.route("tune", "{}", 12, 0);
+		mRouter.quit();
+		//routed after quitting
+		mRouter.route("tune", "{}", 13, 0);
+		synchronized (mSettlements) {
+			assertEquals(3, mSettlements.size());
+			for(Settlement settlement : mSettlements) {
+				assertFalse(settlement.mResolved);
+				assertEquals(BridgeCommandRouter.ERROR_DESTROYED, settlement.mResult);
+			}
+			assertEquals(11, mSettlements.get(0).mCall.mCallId);
+			assertEquals(13, mSettlements.get(2).mCall.mCallId);
+		}
+
+		//the running command is not interrupted
+		release.countDown();
+		long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while(true) {
+			synchronized (mSettlements) {
+				if(mSettlements.size() == 4) {
+					assertTrue(mSettlements.get(3).mResolved);
+					assertEquals(10, mSettlements.get(3).mCall.mCallId);
+					break;
+				}
+			}
+			assertTrue("Running command not settled", System.nanoTime() - deadlineNanos < 0);
+			Thread.sleep(5);
+		}
+	}
+
+	@Test
+	public void settlementIsDeliveredToThePage() throws JSONException {
+		RecordingBridgeHost host = new RecordingBridgeHost(true, true);
+		try {
+			host.getCommandRouter().register("getVolume", false, new BridgeCommandRouter.Command() {
+				@Override
+				public void execute(String args, BridgeCommandRouter.Call call) {
+					call.resolve("{\"volume\":80}");
+				}
+			});
+			host.getCommandRouter().register("failing", false, new BridgeCommandRouter.Command() {
+				@Override
+				public void execute(String args, BridgeCommandRouter.Call call) {
+					throw new IllegalArgumentException("</script>");
+				}
+			});
+
+			host.getCommandRouter().route("getVolume", "{}", 8, 0);
+			host.getCommandRouter().route("failing", "{}", 9, 0);
+			//no answer expected
+			host.getCommandRouter().route("getVolume", "{}", -1, 0);
+			assertTrue(host.runFrame());
+
+			JSONArray messages = new JSONArray(host.getMessages().get(0));
+			assertEquals(2, messages.length());
+			JSONArray resolveArgs = messages.getJSONObject(0).getJSONArray("a");
+			assertEquals(BridgeCommandRouter.JS_SETTLE_CALL, messages.getJSONObject(0).getString("m"));
+			assertEquals(8, resolveArgs.getLong(0));
+			assertTrue(resolveArgs.getBoolean(1));
+			assertEquals(80, resolveArgs.getJSONObject(2).getInt("volume"));
+			JSONArray rejectArgs = messages.getJSONObject(1).getJSONArray("a");
+			assertEquals(9, rejectArgs.getLong(0));
+			assertFalse(rejectArgs.getBoolean(1));
+			assertTrue(rejectArgs.getString(2).contains("</script>"));
+		} finally {
+			host.release();
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package eu.hradio.radiowebview;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JsDispatcherTest {
+
+	private RecordingBridgeHost mHost;
+
+	@After
+	public void releaseHost() {
+		if(mHost != null) {
+			mHost.release();
+		}
+	}
+
+	private JsDispatcher createDispatcher(boolean messageChannel) {
+		mHost = new RecordingBridgeHost(messageChannel, true);
+		return mHost.getDispatcher();
+	}
+
+	private static String createMessage(int srvHandle, String method, long arg) {
+		JsWriter writer = JsWriter.obtain();
+		JsDispatcher.beginCall(writer, srvHandle, false, method).value(arg);
+		JsDispatcher.endCall(writer);
+		return writer.release();
+	}
+
+	@Test
+	public void messagesOfAFrameAreDeliveredTogether() throws JSONException {
+		JsDispatcher dispatcher = createDispatcher(true);
+		assertFalse(mHost.runFrame());
+
+		for(int i = 0; i < 3; i++) {
+			dispatcher.postMessage(createMessage(i, "update", i));
+		}
+		assertTrue(mHost.runFrame());
+		assertFalse(mHost.runFrame());
+
+		assertEquals(1, mHost.getDeliveryCount());
+		JSONArray messages = new JSONArray(mHost.getMessages().get(0));
+		assertEquals(3, messages.length());
+		for(int i = 0; i < 3; i++) {
+			assertEquals(i, messages.getJSONObject(i).getInt("h"));
+			assertEquals(i, messages.getJSONObject(i).getJSONArray("a").getLong(0));
+		}
+	}
+
+	@Test
+	public void scriptsOfAFrameAreEvaluatedTogether() {
+		JsDispatcher dispatcher = createDispatcher(false);
+		dispatcher.post("javascript:first();");
+		dispatcher.postMessage(createMessage(-1, "second", 2));
+		dispatcher.post("third();");
+		assertTrue(mHost.runFrame());
+
+		assertEquals(1, mHost.getScripts().size());
+		String script = mHost.getScripts().get(0);
+		assertFalse(script.contains("javascript:"));
+		assertTrue(script.indexOf("first();") < script.indexOf("\"second\""));
+		assertTrue(script.indexOf("\"second\"") < script.indexOf("third();"));
+	}
+
+	@Test
+	public void latestMessagesAreDeduplicatedWhileSuspended() throws JSONException {
+		JsDispatcher dispatcher = createDispatcher(true);
+		dispatcher.setSuspended(true);
+		dispatcher.postLatestMessage("dls1", createMessage(1, "dls", 1), -1, 0);
+		dispatcher.postMessage(createMessage(2, "skip", 1));
+		dispatcher.postLatestMessage("dls1", createMessage(1, "dls", 2), -1, 0);
+		dispatcher.postLatestMessage("dls2", createMessage(2, "dls", 1), -1, 0);
+		assertFalse(mHost.runFrame());
+		assertEquals(0, mHost.getDeliveryCount());
+
+		dispatcher.setSuspended(false);
+		assertTrue(mHost.runFrame());
+
+		JSONArray messages = new JSONArray(mHost.getMessages().get(0));
+		assertEquals(3, messages.length());
+		//the message of a key is delivered at the position of its latest post
+		assertEquals("skip", messages.getJSONObject(0).getString("m"));
+		assertEquals(1, messages.getJSONObject(1).getInt("h"));
+		assertEquals(2, messages.getJSONObject(1).getJSONArray("a").getLong(0));
+		assertEquals(2, messages.getJSONObject(2).getInt("h"));
+	}
+
+	@Test
+	public void suspendedScriptsAndMessagesKeepTheirOrder() {
+		JsDispatcher dispatcher = createDispatcher(false);
+		dispatcher.post("before();");
+		dispatcher.setSuspended(true);
+		//delivered before suspending
+		assertEquals(1, mHost.getScripts().size());
+		assertTrue(mHost.getScripts().get(0).contains("before();"));
+
+		dispatcher.post("first();");
+		dispatcher.postMessage(createMessage(-1, "second", 2));
+		dispatcher.post("third();");
+		dispatcher.postLatestMessage("fourth", createMessage(-1, "fourth", 4), -1, 0);
+		mHost.runFrame();
+		assertEquals(1, mHost.getScripts().size());
+
+		dispatcher.setSuspended(false);
+		assertTrue(mHost.runFrame());
+		assertEquals(2, mHost.getScripts().size());
+		String script = mHost.getScripts().get(1);
+		assertTrue(script.indexOf("first();") < script.indexOf("\"second\""));
+		assertTrue(script.indexOf("\"second\"") < script.indexOf("third();"));
+		assertTrue(script.indexOf("third();") < script.indexOf("\"fourth\""));
+	}
+
+	@Test
+	public void stateIsDeliveredBeforeTheEventsOfTheFrame() throws JSONException {
+		JsDispatcher dispatcher = createDispatcher(true);
+		BridgeState bridgeState = new BridgeState(dispatcher);
+		dispatcher.setStateSource(bridgeState);
+		bridgeState.attach("STATUS_RADIO_RUNNING", 100);
+		mHost.runFrame();
+		mHost.clear();
+
+		dispatcher.postMessage(createMessage(-1, "notifyServiceListeners", 3));
+		bridgeState.setServiceActive(3, true);
+		assertTrue(mHost.runFrame());
+
+		JSONArray messages = new JSONArray(mHost.getMessages().get(0));
+		assertEquals(2, messages.length());
+		assertEquals(BridgeState.JS_SYNC_STATE, messages.getJSONObject(0).getString("m"));
+		assertEquals("notifyServiceListeners", messages.getJSONObject(1).getString("m"));
+	}
+
+	@Test
+	public void latencyIsRecordedAgainAfterUnansweredEvaluations() {
+		final ArrayList<Runnable> evaluatedCallbacks = new ArrayList<>();
+		BridgeMetrics metrics = new BridgeMetrics();
+		JsDispatcher dispatcher = new JsDispatcher(new BridgeHost() {
+			@Override
+			public void evaluateScript(String script, Runnable evaluatedCallback) {
+				//the page is torn down before the scripts are evaluated
+				if(evaluatedCallback != null) {
+					evaluatedCallbacks.add(evaluatedCallback);
+				}
+			}
+
+			@Override
+			public void postMessages(String messagesJson) {
+			}
+
+			@Override
+			public void requestFrame() {
+			}
+
+			@Override
+			public void requestFrameDelayed(long delayMs) {
+			}
+
+			@Override
+			public void runOnMainThread(Runnable runnable) {
+				runnable.run();
+			}
+		}, metrics);
+
+		for(int i = 0; i < 20; i++) {
+			dispatcher.postLatestMessage("dls", createMessage(1, "dls", i), BridgeMetrics.EVENT_DLS, System.nanoTime());
+			dispatcher.flush();
+		}
+		assertTrue(evaluatedCallbacks.size() < 20);
+
+		dispatcher.clear();
+		evaluatedCallbacks.clear();
+		dispatcher.postLatestMessage("dls", createMessage(1, "dls", 20), BridgeMetrics.EVENT_DLS, System.nanoTime());
+		dispatcher.flush();
+		assertEquals(1, evaluatedCallbacks.size());
+		evaluatedCallbacks.get(0).run();
+		assertEquals(1, metrics.getLatencyCount(BridgeMetrics.EVENT_DLS));
+	}
+
+	@Test
+	public void clearDropsTheUndeliveredMessages() {
+		JsDispatcher dispatcher = createDispatcher(true);
+		dispatcher.postMessage(createMessage(-1, "stale", 1));
+		dispatcher.clear();
+		mHost.runFrame();
+
+		assertEquals(0, mHost.getDeliveryCount());
+	}
+}
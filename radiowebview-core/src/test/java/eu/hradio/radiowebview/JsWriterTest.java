@@ -0,0 +1,86 @@
+package eu.hradio.radiowebview;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class JsWriterTest {
+
+	private static String writeString(String value) {
+		JsWriter writer = JsWriter.obtain();
+		writer.value(value);
+		return writer.release();
+	}
+
+	@Test
+	public void closingTagIsEscaped() {
+		assertEquals("\"<\\/script><b>a/b<\\/b>\"", writeString("</script><b>a/b</b>"));
+	}
+
+	@Test
+	public void lineTerminatorsAreEscaped() {
+		String written = writeString("a\u2028b\u2029c\nd");
+		assertEquals("\"a\\u2028b\\u2029c\\nd\"", written);
+		assertFalse(written.contains("\u2028"));
+		assertFalse(written.contains("\u2029"));
+	}
+
+	@Test
+	public void controlCharsAndQuotesAreEscaped() {
+		assertEquals("\"\\\"\\\\\\t\\u0000\\u001f\u00d6\"", writeString("\"\\\t\u0000\u001f\u00d6"));
+	}
+
+	@Test
+	public void escapedStringsParseToTheOriginal() throws JSONException {
+		String value = "</script>\u2028Radio \"Eins\"\u2029\\Klassik\r\n\u0001";
+		JsWriter writer = JsWriter.obtain();
+		writer.beginArray().value(value).nullValue().value((String) null).endArray();
+		JSONArray parsed = new JSONArray(writer.release());
+
+		assertEquals(value, parsed.getString(0));
+		assertEquals(3, parsed.length());
+	}
+
+	@Test
+	public void membersAndElementsAreSeparated() throws JSONException {
+		JsWriter writer = JsWriter.obtain();
+		writer.beginObject()
+				.name("a").value(1)
+				.name("b").beginArray().value(true).beginObject().endObject().jsonValue("{\"c\":2}").endArray()
+				.name("d").value("e")
+				.endObject();
+		String written = writer.release();
+
+		assertEquals("{\"a\":1,\"b\":[true,{},{\"c\":2}],\"d\":\"e\"}", written);
+		assertEquals(2, new JSONObject(written).getJSONArray("b").getJSONObject(2).getInt("c"));
+	}
+
+	@Test
+	public void extendedObjectKeepsItsMembers() {
+		JsWriter writer = JsWriter.obtain();
+		writer.extendObject("{\"handle\":1}").name("timeshift").nullValue().endObject();
+		assertEquals("{\"handle\":1,\"timeshift\":null}", writer.release());
+
+		writer = JsWriter.obtain();
+		writer.extendObject("{}").name("handle").value(2).endObject();
+		assertEquals("{\"handle\":2}", writer.release());
+	}
+
+	@Test
+	public void dataIsBase64Encoded() {
+		JsWriter writer = JsWriter.obtain();
+		writer.beginArray()
+				.base64Value(new byte[0])
+				.base64Value(new byte[]{'M'})
+				.base64Value(new byte[]{'M', 'a'})
+				.base64Value(new byte[]{'M', 'a', 'n'})
+				.base64Value(new byte[]{(byte) 0xFF, (byte) 0xFE})
+				.endArray();
+
+		assertEquals("[\"\",\"TQ==\",\"TWE=\",\"TWFu\",\"//4=\"]", writer.release());
+	}
+}
@@ -0,0 +1,338 @@
+package eu.hradio.radiowebview;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RadioEventTranslatorTest {
+
+	private static final int SRV_HANDLE = 3;
+
+	private RecordingBridgeHost mHost;
+	private RadioEventTranslator mTranslator;
+	private final TextualChangeFilter mTextualFilter = new TextualChangeFilter();
+
+	@Before
+	public void createTranslator() {
+		mHost = new RecordingBridgeHost(true, true);
+		BridgeState bridgeState = new BridgeState(mHost.getDispatcher());
+		mTranslator = new RadioEventTranslator(mHost.getDispatcher(), bridgeState);
+	}
+
+	@After
+	public void releaseHost() {
+		mHost.release();
+	}
+
+	//the messages of the next frame
+	private ArrayList<JSONObject> runFrame() throws JSONException {
+		ArrayList<JSONObject> messages = new ArrayList<>();
+		int delivered = mHost.getMessages().size();
+		mHost.runFrame();
+		for(int i = delivered; i < mHost.getMessages().size(); i++) {
+			JSONArray frameMessages = new JSONArray(mHost.getMessages().get(i));
+			for(int msgIdx = 0; msgIdx < frameMessages.length(); msgIdx++) {
+				messages.add(frameMessages.getJSONObject(msgIdx));
+			}
+		}
+		return messages;
+	}
+
+	@Test
+	public void repeatedLabelIsDeliveredOnce() throws JSONException {
+		mTranslator.textual(SRV_HANDLE, mTextualFilter, new Label("Now: News", false), 0);
+		mTranslator.textual(SRV_HANDLE, mTextualFilter, new Label("Now: News", false), 0);
+		ArrayList<JSONObject> messages = runFrame();
+		assertEquals(1, messages.size());
+		JSONArray args = messages.get(0).getJSONArray("a");
+		assertEquals("dls", args.getString(0));
+		assertEquals("Now: News", args.getJSONObject(1).getString("dls"));
+		assertEquals("Title", args.getJSONObject(1).getJSONArray("dlPlusItems").getJSONObject(0).getString("dlPlusText"));
+
+		//the toggle bit starts a new item
+		mTranslator.textual(SRV_HANDLE, mTextualFilter, new Label("Now: News", true), 0);
+		assertEquals(1, runFrame().size());
+
+		mTranslator.setRepeatedTextualDelivery(true);
+		mTranslator.textual(SRV_HANDLE, mTextualFilter, new Label("Now: News", true), 0);
+		assertEquals(1, runFrame().size());
+	}
+
+	@Test
+	public void labelIsDeliveredAgainOnANewPage() throws JSONException {
+		mTranslator.textual(SRV_HANDLE, mTextualFilter, new Label("Now: News", false), 0);
+		assertEquals(1, runFrame().size());
+
+		mTranslator.setPageGeneration(1);
+		mTranslator.textual(SRV_HANDLE, mTextualFilter, new Label("Now: News", false), 0);
+		assertEquals(1, runFrame().size());
+	}
+
+	@Test
+	public void repeatedSlideIsDefinedOnce() throws JSONException {
+		byte[] data = new byte[]{1, 2, 3};
+		mTranslator.visual(SRV_HANDLE, new Slide("a.jpg", 1, data), 0);
+		mTranslator.visual(SRV_HANDLE, new Slide("a.jpg", 1, data), 0);
+		ArrayList<JSONObject> messages = runFrame();
+
+		assertEquals(2, messages.size());
+		JSONArray firstArgs = messages.get(0).getJSONArray("a");
+		JSONArray repeatedArgs = messages.get(1).getJSONArray("a");
+		assertEquals("notifySlide", messages.get(0).getString("m"));
+		assertEquals("sls", firstArgs.getString(0));
+		assertEquals("a.jpg", firstArgs.getJSONObject(2).getString("contentName"));
+		String visualUrl = firstArgs.getJSONObject(2).getString("visualUrl");
+		assertNotNull(mTranslator.getSlideCache().getSlide(visualUrl));
+		//only referenced by its number
+		assertEquals(firstArgs.getLong(1), repeatedArgs.getLong(1));
+		assertEquals(2, repeatedArgs.length());
+
+		//defined again on a new page
+		mTranslator.setPageGeneration(1);
+		mTranslator.visual(SRV_HANDLE, new Slide("a.jpg", 1, data), 0);
+		assertEquals(3, runFrame().get(0).getJSONArray("a").length());
+	}
+
+	@Test
+	public void evictedSlideIsDeleted() throws JSONException {
+		mTranslator.getSlideCache().setBudget(0);
+		mTranslator.visual(SRV_HANDLE, new Slide("a.jpg", 1, new byte[]{1}), 0);
+		mTranslator.visual(SRV_HANDLE, new Slide("b.jpg", 2, new byte[]{2}), 0);
+		ArrayList<JSONObject> messages = runFrame();
+
+		//deleted when the second slide is cached, before it is defined
+		assertEquals(3, messages.size());
+		long firstSlideNum = messages.get(0).getJSONArray("a").getLong(1);
+		assertEquals("deleteSlide", messages.get(1).getString("m"));
+		assertEquals(firstSlideNum, messages.get(1).getJSONArray("a").getLong(0));
+		assertEquals("b.jpg", messages.get(2).getJSONArray("a").getJSONObject(2).getString("contentName"));
+	}
+
+	@Test
+	public void skipItemIsAddedAndRemovedOnce() throws JSONException {
+		SkipItem skipItem = new SkipItem(5000, new Slide("skip.jpg", 7, new byte[]{7}));
+		mTranslator.skipItemAdded(SRV_HANDLE, skipItem, true, 0);
+		ArrayList<JSONObject> messages = runFrame();
+
+		assertEquals(1, messages.size());
+		assertEquals("addSkipItem", messages.get(0).getString("m"));
+		assertTrue(messages.get(0).getBoolean("ts"));
+		JSONObject skipJson = messages.get(0).getJSONArray("a").getJSONObject(0);
+		assertEquals(5000, skipJson.getLong("relativeSkipPoint"));
+		assertEquals("Skip 5000", skipJson.getJSONObject("skipTextual").getString("dls"));
+		assertSame(skipItem, mTranslator.getSkipItem(5000));
+
+		//the slide of the skip item stays cached while the item is stored
+		String visualUrl = skipJson.getJSONObject("skipVisual").getString("visualUrl");
+		mTranslator.getSlideCache().setBudget(0);
+		mTranslator.visual(SRV_HANDLE, new Slide("other.jpg", 8, new byte[]{8}), 0);
+		assertNotNull(mTranslator.getSlideCache().getSlide(visualUrl));
+
+		mTranslator.skipItemRemoved(SRV_HANDLE, new SkipItem(5000, null), 0);
+		mTranslator.skipItemRemoved(SRV_HANDLE, new SkipItem(5000, null), 0);
+		messages = runFrame();
+		assertEquals("removeSkipItem", messages.get(messages.size() - 1).getString("m"));
+		assertEquals(5000, messages.get(messages.size() - 1).getJSONArray("a").getLong(0));
+		assertNull(mTranslator.getSkipItem(5000));
+		assertNull(mTranslator.getSlideCache().getSlide(visualUrl));
+		int removals = 0;
+		for(JSONObject message : messages) {
+			if("removeSkipItem".equals(message.getString("m"))) {
+				removals++;
+			}
+		}
+		assertEquals(1, removals);
+	}
+
+	@Test
+	public void serviceEventsUpdateTheState() throws JSONException {
+		mTranslator.serviceStarted(SRV_HANDLE, 0);
+		mTranslator.timeshiftStarted(SRV_HANDLE, null, -1);
+		mTranslator.timeshiftPaused(SRV_HANDLE);
+		ArrayList<JSONObject> messages = runFrame();
+
+		assertEquals(3, messages.size());
+		assertEquals("notifyServiceListeners", messages.get(0).getString("m"));
+		assertEquals("serviceStarted", messages.get(0).getJSONArray("a").getString(0));
+		assertEquals(SRV_HANDLE, messages.get(0).getJSONArray("a").getInt(1));
+		assertEquals("started", messages.get(1).getString("m"));
+		assertEquals("", messages.get(1).getJSONArray("a").getString(0));
+		assertEquals("paused", messages.get(2).getJSONArray("a").getJSONObject(1).getString("timeshiftState"));
+	}
+
+	private static class Label implements TextualData {
+
+		private final String mText;
+		private final boolean mToggled;
+
+		Label(String text, boolean toggled) {
+			mText = text;
+			mToggled = toggled;
+		}
+
+		@Override
+		public String getTextualType() {
+			return "METADATA_TEXTUAL_TYPE_DAB_DLS";
+		}
+
+		@Override
+		public boolean isLabel() {
+			return true;
+		}
+
+		@Override
+		public String getText() {
+			return mText;
+		}
+
+		@Override
+		public boolean isItemRunning() {
+			return true;
+		}
+
+		@Override
+		public boolean isItemToggled() {
+			return mToggled;
+		}
+
+		@Override
+		public int getDlPlusItemCount() {
+			return 1;
+		}
+
+		@Override
+		public String getDlPlusContentType(int itemIdx) {
+			return "ITEM_TITLE";
+		}
+
+		@Override
+		public String getDlPlusContentCategory(int itemIdx) {
+			return null;
+		}
+
+		@Override
+		public String getDlPlusContentTypeDescription(int itemIdx) {
+			return null;
+		}
+
+		@Override
+		public String getDlPlusText(int itemIdx) {
+			return "Title";
+		}
+	}
+
+	private static class Slide implements VisualData {
+
+		private final String mContentName;
+		private final long mSlideId;
+		private final byte[] mData;
+
+		Slide(String contentName, long slideId, byte[] data) {
+			mContentName = contentName;
+			mSlideId = slideId;
+			mData = data;
+		}
+
+		@Override
+		public String getVisualType() {
+			return "METADATA_VISUAL_TYPE_DAB_SLS";
+		}
+
+		@Override
+		public boolean isSlideshow() {
+			return true;
+		}
+
+		@Override
+		public byte[] getVisualData() {
+			return mData;
+		}
+
+		@Override
+		public String getMimeType() {
+			return "image/jpeg";
+		}
+
+		@Override
+		public String getContentName() {
+			return mContentName;
+		}
+
+		@Override
+		public long getSlideId() {
+			return mSlideId;
+		}
+
+		@Override
+		public boolean isCategorized() {
+			return false;
+		}
+
+		@Override
+		public long getCategoryId() {
+			return 0;
+		}
+
+		@Override
+		public String getCategoryText() {
+			return null;
+		}
+
+		@Override
+		public String getClickThroughUrl() {
+			return null;
+		}
+
+		@Override
+		public String getAlternativeLocationUrl() {
+			return null;
+		}
+	}
+
+	private static class SkipItem implements SkipItemData {
+
+		private final long mRelativeTimepoint;
+		private final VisualData mVisual;
+
+		SkipItem(long relativeTimepoint, VisualData visual) {
+			mRelativeTimepoint = relativeTimepoint;
+			mVisual = visual;
+		}
+
+		@Override
+		public long getRelativeTimepoint() {
+			return mRelativeTimepoint;
+		}
+
+		@Override
+		public long getSbtRealTime() {
+			return 1580000000000L + mRelativeTimepoint;
+		}
+
+		@Override
+		public String getSkipPointJson() {
+			return "1";
+		}
+
+		@Override
+		public TextualData getSkipTextual() {
+			return new Label("Skip " + mRelativeTimepoint, false);
+		}
+
+		@Override
+		public VisualData getSkipVisual() {
+			return mVisual;
+		}
+	}
+}
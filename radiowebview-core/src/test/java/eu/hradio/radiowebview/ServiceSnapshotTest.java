@@ -0,0 +1,72 @@
+package eu.hradio.radiowebview;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ServiceSnapshotTest {
+
+	private static LinkedHashMap<Integer, String> services(Object... handlesAndData) {
+		LinkedHashMap<Integer, String> services = new LinkedHashMap<>();
+		for(int i = 0; i < handlesAndData.length; i += 2) {
+			services.put((Integer) handlesAndData[i], (String) handlesAndData[i + 1]);
+		}
+		return services;
+	}
+
+	@Test
+	public void firstUpdateAddsAllServices() {
+		ServiceSnapshot snapshot = new ServiceSnapshot();
+		assertFalse(snapshot.isPublished());
+
+		ServiceSnapshot.Delta delta = snapshot.update(services(3, "{c}", 1, "{a}"));
+		assertTrue(snapshot.isPublished());
+		assertEquals(Arrays.asList(3, 1), delta.mAdded);
+		assertTrue(delta.mChanged.isEmpty());
+		assertTrue(delta.mRemoved.isEmpty());
+	}
+
+	@Test
+	public void updateReportsAddedChangedAndRemovedServices() {
+		ServiceSnapshot snapshot = new ServiceSnapshot();
+		snapshot.publish(services(1, "{a}", 2, "{b}", 3, "{c}"));
+
+		ServiceSnapshot.Delta delta = snapshot.update(services(1, "{a}", 3, "{c2}", 4, "{d}"));
+		assertEquals(Collections.singletonList(4), delta.mAdded);
+		assertEquals(Collections.singletonList(3), delta.mChanged);
+		assertEquals(Collections.singletonList(2), delta.mRemoved);
+
+		//compared against the updated snapshot
+		assertTrue(snapshot.update(services(1, "{a}", 3, "{c2}", 4, "{d}")).isEmpty());
+	}
+
+	@Test
+	public void putReportsTheChangeOfASingleService() {
+		ServiceSnapshot snapshot = new ServiceSnapshot();
+		assertEquals(ServiceSnapshot.SERVICE_UNCHANGED, snapshot.put(1, "{a}"));
+
+		snapshot.publish(services(1, "{a}"));
+		assertEquals(ServiceSnapshot.SERVICE_UNCHANGED, snapshot.put(1, "{a}"));
+		assertEquals(ServiceSnapshot.SERVICE_CHANGED, snapshot.put(1, "{a2}"));
+		assertEquals(ServiceSnapshot.SERVICE_ADDED, snapshot.put(2, "{b}"));
+
+		ServiceSnapshot.Delta delta = snapshot.update(services(2, "{b}"));
+		assertEquals(Collections.singletonList(1), delta.mRemoved);
+	}
+
+	@Test
+	public void resetForgetsThePublishedServices() {
+		ServiceSnapshot snapshot = new ServiceSnapshot();
+		snapshot.publish(services(1, "{a}"));
+		snapshot.reset();
+
+		assertFalse(snapshot.isPublished());
+		assertEquals(Collections.singletonList(1), snapshot.update(services(1, "{a}")).mAdded);
+	}
+}
@@ -0,0 +1,94 @@
+package eu.hradio.radiowebview;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimeshiftProgressSlotTest {
+
+	private static final long INTERVAL_MS = 200;
+
+	private RecordingBridgeHost mHost;
+	private TimeshiftProgressSlot mSlot;
+
+	@Before
+	public void createSlot() {
+		mHost = new RecordingBridgeHost(true, true);
+		mSlot = new TimeshiftProgressSlot(mHost.getDispatcher());
+		mHost.getDispatcher().addFrameSource(mSlot);
+	}
+
+	@After
+	public void releaseHost() {
+		mHost.release();
+	}
+
+	private void updateProgress(long cur) {
+		mSlot.updateProgress(1, cur, cur + 1000);
+		mHost.getDispatcher().requestFrame();
+	}
+
+	private JSONArray getLastMessages() throws JSONException {
+		return new JSONArray(mHost.getMessages().get(mHost.getMessages().size() - 1));
+	}
+
+	@Test
+	public void onlyTheLatestValuesAreDelivered() throws JSONException {
+		updateProgress(1000);
+		updateProgress(2000);
+		mSlot.updateSbtRealTime(1, 10, 20, 30, 40);
+		mSlot.updateSbtRealTime(1, 11, 21, 31, 41);
+		assertTrue(mHost.runFrame());
+
+		JSONArray messages = getLastMessages();
+		assertEquals(2, messages.length());
+		assertEquals("updateProgress", messages.getJSONObject(0).getString("m"));
+		assertTrue(messages.getJSONObject(0).getBoolean("ts"));
+		assertEquals(2000, messages.getJSONObject(0).getJSONArray("a").getLong(0));
+		assertEquals("updateSbtProgress", messages.getJSONObject(1).getString("m"));
+		assertEquals(11, messages.getJSONObject(1).getJSONArray("a").getLong(0));
+
+		//nothing new to deliver
+		assertFalse(mHost.runFrame());
+		assertEquals(1, mHost.getDeliveryCount());
+	}
+
+	@Test
+	public void throttledValueIsDeliveredWithADelayedFrame() throws JSONException, InterruptedException {
+		mSlot.setInterval(INTERVAL_MS);
+		updateProgress(1000);
+		assertTrue(mHost.runFrame());
+		assertEquals(1, mHost.getDeliveryCount());
+
+		long throttledNanos = System.nanoTime();
+		updateProgress(2000);
+		updateProgress(3000);
+		//held back without a frame on every vsync
+		assertTrue(mHost.runFrame());
+		assertFalse(mHost.runFrame());
+		assertEquals(1, mHost.getDeliveryCount());
+
+		while(!mHost.runFrame()) {
+			Thread.sleep(5);
+			assertTrue("No delayed frame", System.nanoTime() - throttledNanos < INTERVAL_MS * 10 * 1000000L);
+		}
+		assertTrue(System.nanoTime() - throttledNanos >= (INTERVAL_MS - 20) * 1000000L);
+		assertEquals(2, mHost.getDeliveryCount());
+		assertEquals(3000, getLastMessages().getJSONObject(0).getJSONArray("a").getLong(0));
+	}
+
+	@Test
+	public void clearedValuesAreNotDelivered() {
+		updateProgress(1000);
+		mSlot.clear();
+		mHost.runFrame();
+
+		assertEquals(0, mHost.getDeliveryCount());
+	}
+}
@@ -0,0 +1,222 @@
+package eu.hradio.radiowebview;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A headless {@link BridgeHost} standing in for the WebView. It records the scripts and messages the page would
+ * receive, so the bridge can be run and checked on a plain JVM.
+ * There is no main thread and no frame clock: the thread calling {@link #runFrame()} acts as main thread and
+ * every call runs the Runnables posted to the main thread and flushes the dispatcher if a frame was requested or
+ * a delayed frame is due.
+ * Scripts are evaluated immediately.
+ */
+public class RecordingBridgeHost implements BridgeHost {
+
+	/**
+	 * Receives every delivery on the frame thread, e.g. to verify the delivered events
+	 */
+	public interface DeliveryListener {
+
+		void onScript(String script);
+
+		void onMessages(String messagesJson);
+	}
+
+	private final BridgeMetrics mMetrics = new BridgeMetrics();
+	private final JsDispatcher mDispatcher;
+	private final BridgeCommandRouter mCommandRouter;
+	private final boolean mKeepPayloads;
+	private volatile DeliveryListener mDeliveryListener = null;
+
+	//guarded by this
+	private final ArrayDeque<Runnable> mMainQueue = new ArrayDeque<>();
+	private boolean mFrameRequested = false;
+	//due time of the delayed frame, 0 if none
+	private long mDelayedFrameDueNanos = 0;
+
+	//only used on the calling thread
+	private final ArrayList<String> mScripts = new ArrayList<>();
+	private final ArrayList<String> mMessages = new ArrayList<>();
+	private long mFrameCount = 0;
+	private long mDeliveryCount = 0;
+	private long mDeliveredChars = 0;
+
+	/**
+	 * @param messageChannel {@code true} to deliver messages like with a message port, {@code false} to evaluate scripts
+	 * @param keepPayloads {@code true} to keep the delivered scripts and messages, {@code false} to only count them
+	 */
+	public RecordingBridgeHost(boolean messageChannel, boolean keepPayloads) {
+		mKeepPayloads = keepPayloads;
+		mDispatcher = new JsDispatcher(this, mMetrics);
+		mDispatcher.setMessageChannel(messageChannel);
+		mCommandRouter = new BridgeCommandRouter(new BridgeCommandRouter.Responder() {
+			@Override
+			public void settle(BridgeCommandRouter.Call call, boolean resolved, String result) {
+				if(call.mCallId >= 0) {
+					mDispatcher.postMessage(BridgeCommandRouter.createSettleMessage(call, resolved, result));
+				}
+			}
+		});
+	}
+
+	JsDispatcher getDispatcher() {
+		return mDispatcher;
+	}
+
+	/**
+	 * @return the {@link BridgeCommandRouter} settling its calls through the dispatcher of this host
+	 */
+	BridgeCommandRouter getCommandRouter() {
+		return mCommandRouter;
+	}
+
+	public void setDeliveryListener(DeliveryListener deliveryListener) {
+		mDeliveryListener = deliveryListener;
+	}
+
+	public BridgeMetrics getMetrics() {
+		return mMetrics;
+	}
+
+	/**
+	 * Runs the Runnables posted to the main thread and the requested frame
+	 * @return {@code true} if a frame was flushed
+	 */
+	public boolean runFrame() {
+		Runnable mainRunnable;
+		while((mainRunnable = pollMainRunnable()) != null) {
+			mainRunnable.run();
+		}
+
+		synchronized (this) {
+			boolean delayedFrameDue = mDelayedFrameDueNanos != 0 && System.nanoTime() - mDelayedFrameDueNanos >= 0;
+			if(!mFrameRequested && !delayedFrameDue) {
+				return false;
+			}
+			mFrameRequested = false;
+			if(delayedFrameDue) {
+				mDelayedFrameDueNanos = 0;
+			}
+		}
+
+		mFrameCount++;
+		mDispatcher.flush();
+		return true;
+	}
+
+	/**
+	 * Runs frames until no further frame is requested, e.g. by frame sources with pending values. Delayed frames not
+	 * yet due are not waited for.
+	 * @param maxFrames the maximum number of frames to run
+	 * @return the number of frames run
+	 */
+	public int runFrames(int maxFrames) {
+		int frames = 0;
+		while(frames < maxFrames && runFrame()) {
+			frames++;
+		}
+
+		return frames;
+	}
+
+	/**
+	 * @return the evaluated scripts, only kept with keepPayloads
+	 */
+	public List<String> getScripts() {
+		return mScripts;
+	}
+
+	/**
+	 * @return the JSON arrays of the posted messages, only kept with keepPayloads
+	 */
+	public List<String> getMessages() {
+		return mMessages;
+	}
+
+	public long getFrameCount() {
+		return mFrameCount;
+	}
+
+	/**
+	 * @return the number of script evaluations and message posts
+	 */
+	public long getDeliveryCount() {
+		return mDeliveryCount;
+	}
+
+	public long getDeliveredChars() {
+		return mDeliveredChars;
+	}
+
+	/**
+	 * Drops the recorded payloads and resets the counters
+	 */
+	public void clear() {
+		mScripts.clear();
+		mMessages.clear();
+		mFrameCount = 0;
+		mDeliveryCount = 0;
+		mDeliveredChars = 0;
+		mMetrics.reset();
+	}
+
+	/**
+	 * Stops the command worker thread
+	 */
+	public void release() {
+		mCommandRouter.quit();
+	}
+
+	@Override
+	public void evaluateScript(String script, Runnable evaluatedCallback) {
+		mDeliveryCount++;
+		mDeliveredChars += script.length();
+		if(mKeepPayloads) {
+			mScripts.add(script);
+		}
+		DeliveryListener deliveryListener = mDeliveryListener;
+		if(deliveryListener != null) {
+			deliveryListener.onScript(script);
+		}
+		if(evaluatedCallback != null) {
+			evaluatedCallback.run();
+		}
+	}
+
+	@Override
+	public void postMessages(String messagesJson) {
+		mDeliveryCount++;
+		mDeliveredChars += messagesJson.length();
+		if(mKeepPayloads) {
+			mMessages.add(messagesJson);
+		}
+		DeliveryListener deliveryListener = mDeliveryListener;
+		if(deliveryListener != null) {
+			deliveryListener.onMessages(messagesJson);
+		}
+	}
+
+	@Override
+	public synchronized void requestFrame() {
+		mFrameRequested = true;
+	}
+
+	@Override
+	public synchronized void requestFrameDelayed(long delayMs) {
+		long dueNanos = System.nanoTime() + delayMs * 1000000L;
+		if(mDelayedFrameDueNanos == 0 || dueNanos - mDelayedFrameDueNanos < 0) {
+			mDelayedFrameDueNanos = dueNanos;
+		}
+	}
+
+	@Override
+	public synchronized void runOnMainThread(Runnable runnable) {
+		mMainQueue.add(runnable);
+	}
+
+	private synchronized Runnable pollMainRunnable() {
+		return mMainQueue.poll();
+	}
+}
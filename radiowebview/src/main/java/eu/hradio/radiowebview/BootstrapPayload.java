@@ -0,0 +1,38 @@
+package eu.hradio.radiowebview;
+
+import org.omri.radioservice.RadioService;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * The radioWeb object script and the serialized services for a page, prepared while the page is loading so that
+ * only the ready-made payload has to be injected when the page is finished.
+ * The payload is only valid for the page generation and the service list version it was prepared for and as long
+ * as the radio status and volume written into the script are unchanged.
+ */
+class BootstrapPayload {
+
+	final int mPageGeneration;
+	final int mServicesVersion;
+	final String mRadioStatus;
+	final int mVolume;
+	final String mRadioWebJs;
+
+	//serialized service data without timeshift state by handle, in service list order
+	final LinkedHashMap<Integer, String> mServiceData = new LinkedHashMap<>();
+	final HashMap<Integer, RadioService> mServices = new HashMap<>();
+
+	BootstrapPayload(int pageGeneration, int servicesVersion, String radioStatus, int volume, String radioWebJs) {
+		mPageGeneration = pageGeneration;
+		mServicesVersion = servicesVersion;
+		mRadioStatus = radioStatus;
+		mVolume = volume;
+		mRadioWebJs = radioWebJs;
+	}
+
+	boolean isValid(int pageGeneration, int servicesVersion, String radioStatus, int volume) {
+		return mPageGeneration == pageGeneration && mServicesVersion == servicesVersion &&
+				mRadioStatus.equals(radioStatus) && mVolume == volume;
+	}
+}
@@ -0,0 +1,308 @@
+package eu.hradio.radiowebview;
+
+import org.omri.radioservice.RadioService;
+import org.omri.radioservice.RadioServiceDab;
+import org.omri.radioservice.RadioServiceIp;
+import org.omri.radioservice.RadioServiceIpStream;
+import org.omri.radioservice.metadata.Textual;
+import org.omri.radioservice.metadata.TextualDabDynamicLabel;
+import org.omri.radioservice.metadata.TextualDabDynamicLabelPlusItem;
+import org.omri.radioservice.metadata.TextualType;
+import org.omri.radioservice.metadata.Visual;
+import org.omri.radioservice.metadata.VisualDabSlideShow;
+import org.omri.radioservice.metadata.VisualType;
+
+import java.util.Collections;
+import java.util.List;
+
+import eu.hradio.timeshiftplayer.SkipItem;
+
+/**
+ * Adapts the services, metadata and skip items of the omri radio and the timeshiftplayer to the
+ * {@link RadioEventTranslator} and the {@link ServiceHandleTable}.
+ */
+final class OmriEventData {
+
+	private OmriEventData() {
+	}
+
+	/**
+	 * Identifies a DAB service by its ids and an IP service by its streams, so a station keeps its handle when its label changes
+	 */
+	static final ServiceHandleTable.KeyFunction<RadioService> SERVICE_KEYS = new ServiceHandleTable.KeyFunction<RadioService>() {
+		@Override
+		public String getKey(RadioService service) {
+			return getServiceKey(service);
+		}
+	};
+
+	static String getServiceKey(RadioService service) {
+		switch (service.getRadioServiceType()) {
+			case RADIOSERVICE_TYPE_DAB:
+			case RADIOSERVICE_TYPE_EDI: {
+				RadioServiceDab dabSrv = (RadioServiceDab) service;
+				return ServiceHandleTable.getDabServiceKey(service.getRadioServiceType().toString(), dabSrv.getEnsembleEcc(), dabSrv.getEnsembleId(), dabSrv.getServiceId());
+			}
+			case RADIOSERVICE_TYPE_IP: {
+				RadioServiceIp ipSrv = (RadioServiceIp) service;
+				StringBuilder keyBuilder = new StringBuilder(service.getRadioServiceType().toString());
+				for(RadioServiceIpStream ipStream : ipSrv.getIpStreams()) {
+					keyBuilder.append(':').append(ipStream.getUrl());
+				}
+				return keyBuilder.toString();
+			}
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * @return the adapted {@link Textual} or {@code null}
+	 */
+	static TextualData textual(Textual textual) {
+		return new OmriTextual().adapt(textual);
+	}
+
+	/**
+	 * @return the adapted {@link Visual} or {@code null}
+	 */
+	static VisualData visual(Visual visual) {
+		return visual != null ? new OmriVisual(visual) : null;
+	}
+
+	/**
+	 * @return the adapted {@link SkipItem} or {@code null}
+	 */
+	static SkipItemData skipItem(SkipItem skipItem) {
+		return skipItem != null ? new OmriSkipItem(skipItem) : null;
+	}
+
+	/**
+	 * @param skipItem a skip item adapted by {@link #skipItem(SkipItem)}
+	 * @return the {@link SkipItem} of the timeshiftplayer or {@code null}
+	 */
+	static SkipItem getSkipItem(SkipItemData skipItem) {
+		return skipItem instanceof OmriSkipItem ? ((OmriSkipItem) skipItem).mSkipItem : null;
+	}
+
+	private static String toStringOrNull(Object value) {
+		return value != null ? value.toString() : null;
+	}
+
+	/**
+	 * A {@link TextualData} adapting one {@link Textual} after the other, so a retransmitted label can be checked by
+	 * the {@link TextualChangeFilter} without allocation. Only used by one thread at a time, the DL+ items are only
+	 * fetched if they are compared or written.
+	 */
+	static class OmriTextual implements TextualData {
+
+		private Textual mTextual = null;
+		private boolean mDls = false;
+		private List<TextualDabDynamicLabelPlusItem> mDlPlusItems = null;
+
+		/**
+		 * @return this adapter for the {@link Textual} or {@code null}
+		 */
+		TextualData adapt(Textual textual) {
+			mTextual = textual;
+			mDls = textual != null && textual.getType() == TextualType.METADATA_TEXTUAL_TYPE_DAB_DLS;
+			mDlPlusItems = null;
+			return textual != null ? this : null;
+		}
+
+		private List<TextualDabDynamicLabelPlusItem> getDlPlusItems() {
+			if(mDlPlusItems == null) {
+				List<TextualDabDynamicLabelPlusItem> dlPlusItems = null;
+				if(mDls) {
+					TextualDabDynamicLabel dls = (TextualDabDynamicLabel) mTextual;
+					dlPlusItems = dls.hasTags() ? dls.getDlPlusItems() : null;
+				}
+				mDlPlusItems = dlPlusItems != null ? dlPlusItems : Collections.<TextualDabDynamicLabelPlusItem>emptyList();
+			}
+			return mDlPlusItems;
+		}
+
+		@Override
+		public String getTextualType() {
+			return mTextual.getType().toString();
+		}
+
+		@Override
+		public boolean isLabel() {
+			return mDls || mTextual.getType() == TextualType.METADATA_TEXTUAL_TYPE_ICY_TEXT;
+		}
+
+		@Override
+		public String getText() {
+			return mTextual.getText();
+		}
+
+		@Override
+		public boolean isItemRunning() {
+			return mDls && ((TextualDabDynamicLabel) mTextual).itemRunning();
+		}
+
+		@Override
+		public boolean isItemToggled() {
+			return mDls && ((TextualDabDynamicLabel) mTextual).itemToggled();
+		}
+
+		@Override
+		public int getDlPlusItemCount() {
+			return getDlPlusItems().size();
+		}
+
+		@Override
+		public String getDlPlusContentType(int itemIdx) {
+			return toStringOrNull(getDlPlusItems().get(itemIdx).getDynamicLabelPlusContentType());
+		}
+
+		@Override
+		public String getDlPlusContentCategory(int itemIdx) {
+			return toStringOrNull(getDlPlusItems().get(itemIdx).getDlPlusContentCategory());
+		}
+
+		@Override
+		public String getDlPlusContentTypeDescription(int itemIdx) {
+			return toStringOrNull(getDlPlusItems().get(itemIdx).getDlPlusContentTypeDescription());
+		}
+
+		@Override
+		public String getDlPlusText(int itemIdx) {
+			return getDlPlusItems().get(itemIdx).getDlPlusContentText();
+		}
+	}
+
+	private static class OmriVisual implements VisualData {
+
+		private final Visual mVisual;
+		//null for other visuals than slideshow slides, only the type is read of them
+		private final VisualDabSlideShow mSls;
+
+		OmriVisual(Visual visual) {
+			mVisual = visual;
+			mSls = visual.getVisualType() == VisualType.METADATA_VISUAL_TYPE_DAB_SLS ? (VisualDabSlideShow) visual : null;
+		}
+
+		@Override
+		public String getVisualType() {
+			return mVisual.getVisualType().toString();
+		}
+
+		@Override
+		public boolean isSlideshow() {
+			return mSls != null;
+		}
+
+		@Override
+		public byte[] getVisualData() {
+			return mSls.getVisualData();
+		}
+
+		@Override
+		public String getMimeType() {
+			switch (mSls.getVisualMimeType()) {
+				case METADATA_VISUAL_MIMETYPE_PNG: {
+					return "image/png";
+				}
+				case METADATA_VISUAL_MIMETYPE_GIF: {
+					return "image/gif";
+				}
+				case METADATA_VISUAL_MIMETYPE_ANIMATED_GIF: {
+					return "image/gif";
+				}
+				case METADATA_VISUAL_MIMETYPE_JPEG: {
+					return "image/jpeg";
+				}
+				//not supported in DAB
+				case METADATA_VISUAL_MIMETYPE_BMP: {
+					return "image/bmp";
+				}
+				//not supported in DAB
+				case METADATA_VISUAL_MIMETYPE_SVG: {
+					return "image/svg+xml";
+				}
+				//not supported in DAB
+				case METADATA_VISUAL_MIMETYPE_TIFF: {
+					return "image/tiff";
+				}
+				//not supported in DAB
+				case METADATA_VISUAL_MIMETYPE_WEBP: {
+					return "image/webp";
+				}
+				default: {
+					return "image/unknown";
+				}
+			}
+		}
+
+		@Override
+		public String getContentName() {
+			return mSls.getContentName();
+		}
+
+		@Override
+		public long getSlideId() {
+			return mSls.getSlideId();
+		}
+
+		@Override
+		public boolean isCategorized() {
+			return mSls.isCategorized();
+		}
+
+		@Override
+		public long getCategoryId() {
+			return mSls.getCategoryId();
+		}
+
+		@Override
+		public String getCategoryText() {
+			return mSls.getCategoryText();
+		}
+
+		@Override
+		public String getClickThroughUrl() {
+			return toStringOrNull(mSls.getClickThroughUrl());
+		}
+
+		@Override
+		public String getAlternativeLocationUrl() {
+			return toStringOrNull(mSls.getAlternativeLocationURL());
+		}
+	}
+
+	private static class OmriSkipItem implements SkipItemData {
+
+		private final SkipItem mSkipItem;
+
+		OmriSkipItem(SkipItem skipItem) {
+			mSkipItem = skipItem;
+		}
+
+		@Override
+		public long getRelativeTimepoint() {
+			return mSkipItem.getRelativeTimepoint();
+		}
+
+		@Override
+		public long getSbtRealTime() {
+			return mSkipItem.getSbtRealTime();
+		}
+
+		@Override
+		public String getSkipPointJson() {
+			return String.valueOf(mSkipItem.getSkipPoint());
+		}
+
+		@Override
+		public TextualData getSkipTextual() {
+			return textual(mSkipItem.getSkipTextual());
+		}
+
+		@Override
+		public VisualData getSkipVisual() {
+			return visual(mSkipItem.getSkipVisual());
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package eu.hradio.radiowebview;
+
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static eu.hradio.radiowebview.BuildConfig.DEBUG;
+
+/**
+ * The last known service list, stored as a compact file so the services can be published before the tuners are
+ * initialized. A service is stored with its key of the {@link ServiceHandleTable} and its serialized data
+ * without the handle member, because handles are only valid during a run.
+ * <p>
+ * The file is memory mapped for reading: a magic int, the number of services and for each service the UTF-8 length
+ * prefixed key and data.
+ */
+class PersistedServiceList {
+
+	private final static String TAG = "PersistedServiceList";
+
+	private static final int FILE_MAGIC = 0x52575331; //RWS1
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	static class Entry {
+
+		final String mKey;
+		//the members of the service data following the handle, up to and including the closing brace
+		final String mDataMembers;
+
+		Entry(String key, String dataMembers) {
+			mKey = key;
+			mDataMembers = dataMembers;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Entry)) {
+				return false;
+			}
+
+			Entry other = (Entry) obj;
+			return mKey.equals(other.mKey) && mDataMembers.equals(other.mDataMembers);
+		}
+
+		@Override
+		public int hashCode() {
+			return mKey.hashCode() * 31 + mDataMembers.hashCode();
+		}
+	}
+
+	private final File mFile;
+
+	PersistedServiceList(File file) {
+		mFile = file;
+	}
+
+	/**
+	 * Reads the stored service list
+	 * @return the stored entries or {@code null} if there is no valid stored list
+	 */
+	List<Entry> load() {
+		if(!mFile.isFile()) {
+			return null;
+		}
+
+		RandomAccessFile listFile = null;
+		try {
+			listFile = new RandomAccessFile(mFile, "r");
+			FileChannel listChannel = listFile.getChannel();
+			MappedByteBuffer listBuffer = listChannel.map(FileChannel.MapMode.READ_ONLY, 0, listChannel.size());
+
+			if(listBuffer.remaining() < 8 || listBuffer.getInt() != FILE_MAGIC) {
+				if(DEBUG)Log.d(TAG, "No valid service list file");
+				return null;
+			}
+
+			int srvCount = listBuffer.getInt();
+			ArrayList<Entry> entries = new ArrayList<>(Math.max(0, Math.min(srvCount, 1024)));
+			for(int i = 0; i < srvCount; i++) {
+				String key = readString(listBuffer);
+				String dataMembers = readString(listBuffer);
+				if(key == null || dataMembers == null) {
+					if(DEBUG)Log.d(TAG, "Truncated service list file");
+					return null;
+				}
+				entries.add(new Entry(key, dataMembers));
+			}
+
+			if(DEBUG)Log.d(TAG, "Loaded services: " + entries.size());
+			return entries;
+		} catch(IOException ioExc) {
+			if(DEBUG)ioExc.printStackTrace();
+			return null;
+		} finally {
+			if(listFile != null) {
+				try {
+					listFile.close();
+				} catch(IOException closeExc) {
+					if(DEBUG)closeExc.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replaces the stored service list. The list is written to a temporary file first, so a failed write
+	 * does not destroy the stored list.
+	 * @param entries the services to store
+	 */
+	void save(List<Entry> entries) {
+		File tmpFile = new File(mFile.getPath() + ".tmp");
+		DataOutputStream listOut = null;
+		try {
+			listOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+			listOut.writeInt(FILE_MAGIC);
+			listOut.writeInt(entries.size());
+			for(Entry entry : entries) {
+				writeString(listOut, entry.mKey);
+				writeString(listOut, entry.mDataMembers);
+			}
+			listOut.close();
+			listOut = null;
+
+			if(!tmpFile.renameTo(mFile)) {
+				if(DEBUG)Log.d(TAG, "Renaming the service list file failed");
+				tmpFile.delete();
+			} else {
+				if(DEBUG)Log.d(TAG, "Saved services: " + entries.size());
+			}
+		} catch(IOException ioExc) {
+			if(DEBUG)ioExc.printStackTrace();
+			tmpFile.delete();
+		} finally {
+			if(listOut != null) {
+				try {
+					listOut.close();
+				} catch(IOException closeExc) {
+					if(DEBUG)closeExc.printStackTrace();
+				}
+			}
+		}
+	}
+
+	void delete() {
+		mFile.delete();
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		if(buffer.remaining() < 4) {
+			return null;
+		}
+
+		int length = buffer.getInt();
+		if(length < 0 || length > buffer.remaining()) {
+			return null;
+		}
+
+		//decoded directly from the mapped file
+		ByteBuffer stringBuffer = buffer.slice();
+		stringBuffer.limit(length);
+		buffer.position(buffer.position() + length);
+
+		return UTF_8.decode(stringBuffer).toString();
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] valueBytes = value.getBytes(UTF_8);
+		out.writeInt(valueBytes.length);
+		out.write(valueBytes);
+	}
+}
@@ -10,17 +10,19 @@ import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
+import android.os.Looper;
 import android.util.AttributeSet;
-import android.util.Base64;
 import android.util.Log;
 import android.webkit.JavascriptInterface;
-import android.webkit.ValueCallback;
+import android.webkit.WebMessage;
+import android.webkit.WebMessagePort;
 import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
 import android.webkit.WebView;
 import android.webkit.WebViewClient;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.omri.radio.Radio;
@@ -32,20 +34,32 @@ import org.omri.radioservice.RadioServiceIp;
 import org.omri.radioservice.RadioServiceIpStream;
 import org.omri.radioservice.RadioServiceType;
 import org.omri.radioservice.metadata.Textual;
-import org.omri.radioservice.metadata.TextualDabDynamicLabel;
-import org.omri.radioservice.metadata.TextualDabDynamicLabelPlusItem;
-import org.omri.radioservice.metadata.TextualIpIcy;
 import org.omri.radioservice.metadata.TextualMetadataListener;
-import org.omri.radioservice.metadata.TextualType;
 import org.omri.radioservice.metadata.Visual;
-import org.omri.radioservice.metadata.VisualDabSlideShow;
 import org.omri.radioservice.metadata.VisualMetadataListener;
-import org.omri.radioservice.metadata.VisualType;
 import org.omri.tuner.ReceptionQuality;
 import org.omri.tuner.Tuner;
 import org.omri.tuner.TunerListener;
 import org.omri.tuner.TunerStatus;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import eu.hradio.core.audiotrackservice.AudiotrackService;
 import eu.hradio.timeshiftplayer.SkipItem;
 import eu.hradio.timeshiftplayer.TimeshiftListener;
@@ -58,6 +72,11 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 	private final static String TAG = "RadioWebView";
 
 	private Context mContext;
+	private final BridgeMetrics mBridgeMetrics = new BridgeMetrics();
+	private final WebViewBridgeHost mBridgeHost;
+	private final JsDispatcher mJsDispatcher;
+	private final BridgeState mBridgeState;
+	private final RadioEventTranslator mEventTranslator;
 
 	public RadioWebView(Context context) {
 		this(context, null);
@@ -71,6 +90,14 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 		super(context, attrs, defStyle);
 
 		mContext = context;
+		mBridgeHost = new WebViewBridgeHost(this);
+		mJsDispatcher = new JsDispatcher(mBridgeHost, mBridgeMetrics);
+		mBridgeHost.setDispatcher(mJsDispatcher);
+		mBridgeState = new BridgeState(mJsDispatcher);
+		mEventTranslator = new RadioEventTranslator(mJsDispatcher, mBridgeState);
+		mJsDispatcher.setStateSource(mBridgeState);
+		registerBridgeCommands();
+		mJsDispatcher.addFrameSource(mScanBatchSlot);
 
 		if(mContext != null) {
 			getSettings().setJavaScriptEnabled(true);
@@ -84,25 +111,270 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 			setWebViewClient(new RadioWebViewClient());
 			addJavascriptInterface(this, "radioWeb");
 
-			if(DEBUG)Log.d(TAG, "initializing radio in constructor: " + mContext);
-			if (Radio.getInstance().getRadioStatus() == RadioStatus.STATUS_RADIO_SUSPENDED) {
-				Radio.getInstance().initialize(mContext);
+			initializeRadio();
+		}
+	}
+
+	private final TunerReadiness mTunerReadiness = new TunerReadiness();
+	//initializes the radio and the tuners, one thread which ends when idle and is stopped with the view
+	private final ThreadPoolExecutor mInitExecutor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			return new Thread(runnable, "RadioWebRadioInit");
+		}
+	});
+
+	//initializes the radio and all tuners off the main thread, so the first frame does not wait for the tuners.
+	//The tuners are initialized one after another, the tuner implementations share the Radio and are not known to initialize safely in parallel.
+	private void initializeRadio() {
+		mInitExecutor.allowCoreThreadTimeOut(true);
+		mInitExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				loadStoredServices();
+				radioWebReadyCheck();
 
-				for(Tuner tuner : Radio.getInstance().getAvailableTuners()) {
-					tuner.subscribe(this);
-					//TODO multiple tuners handling
-					switch (tuner.getTunerStatus()) {
-						case TUNER_STATUS_NOT_INITIALIZED: {
+				if(DEBUG)Log.d(TAG, "initializing radio: " + mContext);
+				boolean initTuners = false;
+				Collection<Tuner> tuners;
+				try {
+					if (Radio.getInstance().getRadioStatus() == RadioStatus.STATUS_RADIO_SUSPENDED) {
+						Radio.getInstance().initialize(mContext);
+						initTuners = true;
+					}
+					tuners = Radio.getInstance().getAvailableTuners();
+				} catch(RuntimeException radioExc) {
+					//the page gets the radioWeb object without services instead of waiting forever
+					Log.e(TAG, "Initializing radio failed", radioExc);
+					tuners = Collections.emptyList();
+					initTuners = false;
+				}
+				mBridgeState.setStatus(getRadioStatusString());
+
+				if(initTuners) {
+					for(Tuner tuner : tuners) {
+						tuner.subscribe(RadioWebView.this);
+					}
+				}
+				//all tuners may be initialized already
+				if(mTunerReadiness.await(tuners)) {
+					tunersReady();
+				}
+				if(!initTuners) {
+					return;
+				}
+
+				for(Tuner tuner : tuners) {
+					if(Thread.currentThread().isInterrupted()) {
+						if(DEBUG)Log.d(TAG, "Tuner initialization stopped");
+						return;
+					}
+					if(tuner.getTunerStatus() == TunerStatus.TUNER_STATUS_NOT_INITIALIZED) {
+						if(DEBUG)Log.d(TAG, "initializing tuner: " + tuner.getTunerType());
+						try {
 							tuner.initializeTuner();
-							break;
-						}
-						case TUNER_STATUS_INITIALIZED: {
-							break;
+						} catch(RuntimeException tunerExc) {
+							Log.e(TAG, "Initializing tuner " + tuner.getTunerType() + " failed", tunerExc);
+							if(mTunerReadiness.failed(tuner)) {
+								tunersReady();
+							}
 						}
 					}
 				}
 			}
+		});
+	}
+
+	private void tunersReady() {
+		invalidateBootstrap();
+		radioWebReadyCheck();
+		reconcileProvisionalServices();
+	}
+
+	//creates the radioWeb object on the main thread as soon as the page is finished and all tuners are initialized or a stored service list is available
+	private void radioWebReadyCheck() {
+		executeOnMainThread(new Runnable() {
+			@Override
+			public void run() {
+				if(mWebViewFinished && !mNotifiedReady && isRadioWebInitPossible()) {
+					if(DEBUG)Log.d(TAG, "Initializing RadioWeb");
+
+					initRadioWebJs();
+				}
+			}
+		});
+	}
+
+	private boolean isRadioWebInitPossible() {
+		return mTunerReadiness.isReady() || (mServiceListPersistence && mStoredServices != null);
+	}
+
+	private static final String SERVICE_LIST_FILE = "radioweb_services";
+
+	private volatile boolean mServiceListPersistence = true;
+	//the stored service list, loaded once at startup
+	private volatile List<PersistedServiceList.Entry> mStoredServices = null;
+	private volatile PersistedServiceList mPersistedServiceList = null;
+	//the last stored service list, only used on the bootstrap thread
+	private List<PersistedServiceList.Entry> mSavedServices = null;
+	//true while radioWeb.services holds the provisional stored services
+	private final AtomicBoolean mProvisionalServices = new AtomicBoolean(false);
+
+	/**
+	 * Stores the last known service list, so the services can be published as provisional services and
+	 * radioWebReady can be dispatched before the tuners are initialized. Enabled by default.
+	 * @param persistence {@code false} to wait for the tuners and to delete the stored service list
+	 */
+	public void setServiceListPersistence(boolean persistence) {
+		mServiceListPersistence = persistence;
+		if(!persistence) {
+			mStoredServices = null;
+			//after a pending store of the service list
+			getBootstrapHandler().post(new Runnable() {
+				@Override
+				public void run() {
+					deleteStoredServices();
+				}
+			});
+		}
+	}
+
+	private void deleteStoredServices() {
+		PersistedServiceList persistedServiceList = mPersistedServiceList;
+		if(persistedServiceList != null) {
+			persistedServiceList.delete();
+			mSavedServices = null;
+		}
+	}
+
+	private void loadStoredServices() {
+		if(mContext == null) {
+			return;
+		}
+
+		mPersistedServiceList = new PersistedServiceList(new File(mContext.getFilesDir(), SERVICE_LIST_FILE));
+		if(!mServiceListPersistence) {
+			deleteStoredServices();
+			return;
+		}
+		List<PersistedServiceList.Entry> storedServices = mPersistedServiceList.load();
+		if(storedServices != null && !storedServices.isEmpty()) {
+			mSavedServices = storedServices;
+			mStoredServices = storedServices;
+		}
+	}
+
+	//stores the published service list on the bootstrap thread if it differs from the stored one
+	private void storeServices(LinkedHashMap<Integer, String> serviceData) {
+		if(!mServiceListPersistence || mPersistedServiceList == null) {
+			return;
+		}
+
+		final LinkedHashMap<Integer, String> storeData = new LinkedHashMap<>(serviceData);
+		getBootstrapHandler().post(new Runnable() {
+			@Override
+			public void run() {
+				ArrayList<PersistedServiceList.Entry> entries = new ArrayList<>(storeData.size());
+				for(Map.Entry<Integer, String> srvEntry : storeData.entrySet()) {
+					RadioService srv = mServiceHandles.getService(srvEntry.getKey());
+					String key = srv != null ? OmriEventData.getServiceKey(srv) : null;
+					if(key != null) {
+						//the handle is the first member of the service data
+						String data = srvEntry.getValue();
+						entries.add(new PersistedServiceList.Entry(key, data.substring(data.indexOf(',') + 1)));
+					}
+				}
+
+				if(!entries.equals(mSavedServices)) {
+					mPersistedServiceList.save(entries);
+					mSavedServices = entries;
+				}
+			}
+		});
+	}
+
+	//reconciles the provisional services with the services of the initialized tuners
+	private void reconcileProvisionalServices() {
+		if(mNotifiedReady && mTunerReadiness.isReady() && mProvisionalServices.compareAndSet(true, false)) {
+			if(DEBUG)Log.d(TAG, "Reconciling provisional services");
+			updateRadioServicesJs();
+		}
+	}
+
+	//only used on the main thread, the delivery is suspended while the view is hidden, detached or paused
+	private boolean mWindowVisible = true;
+	private boolean mAttachedToWindow = true;
+	private boolean mWebViewPaused = false;
+	private boolean mSuspendWhenHidden = true;
+
+	/**
+	 * Suspends the delivery of the radioWeb events while the view is not visible, detached from its window or paused
+	 * with {@link #onPause()}. Of the DLS and SLS only the latest per service is kept, on resume the page receives
+	 * the kept events and the current state at once. Enabled by default. Must be called on the main thread.
+	 * @param suspendWhenHidden {@code true} to suspend the delivery while hidden
+	 */
+	public void setSuspendWhenHidden(boolean suspendWhenHidden) {
+		mSuspendWhenHidden = suspendWhenHidden;
+		updateDeliverySuspension();
+	}
+
+	@Override
+	protected void onWindowVisibilityChanged(int visibility) {
+		super.onWindowVisibilityChanged(visibility);
+		mWindowVisible = visibility == VISIBLE;
+		updateDeliverySuspension();
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		mAttachedToWindow = true;
+		updateDeliverySuspension();
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		mAttachedToWindow = false;
+		updateDeliverySuspension();
+		super.onDetachedFromWindow();
+	}
+
+	@Override
+	public void onPause() {
+		mWebViewPaused = true;
+		updateDeliverySuspension();
+		super.onPause();
+	}
+
+	@Override
+	public void onResume() {
+		super.onResume();
+		mWebViewPaused = false;
+		updateDeliverySuspension();
+	}
+
+	private void updateDeliverySuspension() {
+		boolean suspended = mSuspendWhenHidden && (!mWindowVisible || !mAttachedToWindow || mWebViewPaused);
+		if(suspended != mJsDispatcher.isSuspended()) {
+			if(DEBUG)Log.d(TAG, "Delivery suspended: " + suspended);
+			mJsDispatcher.setSuspended(suspended);
+		}
+	}
+
+	@Override
+	public void destroy() {
+		mCommandRouter.quit();
+		rejectServiceCalls(mPendingStartCalls, BridgeCommandRouter.ERROR_DESTROYED);
+		rejectServiceCalls(mPendingStopCalls, BridgeCommandRouter.ERROR_DESTROYED);
+		mInitExecutor.shutdownNow();
+		synchronized (mPrepareBootstrapRunnable) {
+			if(mBootstrapThread != null) {
+				mBootstrapThread.quit();
+				mBootstrapThread = null;
+				mBootstrapHandler = null;
+			}
 		}
+		super.destroy();
 	}
 
 	public void reset() {
@@ -111,7 +383,7 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 		unbindAudiotrackService();
 		this.clearHistory();
 		mNotifiedReady = false;
-		mTimeshiftJsSrvIdx = -1;
+		mTimeshiftSrvHandle = -1;
 		mWebViewFinished = false;
 	}
 
@@ -157,6 +429,7 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 
 		mAudiotrackServiceBound = true;
 		mAudiotrackService = (AudiotrackService.AudioTrackBinder)service;
+		mBridgeState.setVolume(getOutputVolume());
 	}
 
 	@Override
@@ -168,9 +441,447 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 	}
 	/* */
 
-	private void createRadioWebJsObj() {
-		if(DEBUG)Log.d(TAG, "Init Creating JS radioWeb object");
+	//installed once with the radioWeb object, the service literals only carry data
+	private static final String RADIOSERVICE_JS_PROTOTYPE =
+			"radioWeb.RadioService = function(data) {" +
+				"for(var key in data) {" +
+					"if(key !== 'timeshift') {" +
+						"this[key] = data[key];" +
+					"}" +
+				"}" +
+				//only the timeshifted service is delivered with its timeshift state
+				"if(data.timeshift) {" +
+					"Object.defineProperty(this, '_timeshift', {value: new radioWeb.Timeshift(data.timeshift), writable: true});" +
+				"}" +
+				"this.listeners = {sls: [], dls: [], epg: [], state: []};" +
+				"radioWeb.serviceHandles[this.handle] = this;" +
+			"};" +
+			//the timeshift object of a DAB service is created on first access
+			"Object.defineProperty(radioWeb.RadioService.prototype, 'timeshift', {" +
+				"get: function() {" +
+					"if(this._timeshift === undefined && (this.type === 'RADIOSERVICE_TYPE_DAB' || this.type === 'RADIOSERVICE_TYPE_EDI')) {" +
+						"Object.defineProperty(this, '_timeshift', {value: new radioWeb.Timeshift({paused: false, currentPosition: -1, totalDuration: -1, timeshiftToken: '', sbtMax: -1, skipItems: []}), writable: true});" +
+					"}" +
+					"return this._timeshift;" +
+				"}," +
+				"configurable: true" +
+			"});" +
+			//the Promises resolve with the service as soon as it is started or stopped
+			"radioWeb.RadioService.prototype.provisional = false;" +
+			//deprecated, the id of the IP services of earlier versions is an alias of the handle
+			"Object.defineProperty(radioWeb.RadioService.prototype, 'id', {" +
+				"get: function() { return this.handle; }," +
+				"configurable: true" +
+			"});" +
+			"radioWeb.RadioService.prototype.start = function() {" +
+				"var srv = this;" +
+				"var started = radioWeb.call('serviceStart', {handle: this.handle});" +
+				"return started && started.then(function() { return srv; });" +
+			"};" +
+			"radioWeb.RadioService.prototype.stop = function() {" +
+				"var srv = this;" +
+				"var stopped = radioWeb.call('serviceStop', {handle: this.handle});" +
+				"return stopped && stopped.then(function() { return srv; });" +
+			"};" +
+			"radioWeb.RadioService.prototype.addEventListener = function(type, listener) {" +
+				"if(typeof type == 'string' && this.listeners.hasOwnProperty(type)) {" +
+					"this.listeners[type].push(listener);" +
+				"}" +
+			"};" +
+			"radioWeb.RadioService.prototype.removeEventListener = function(type, listener) {" +
+				"if(typeof type == 'string' && this.listeners.hasOwnProperty(type)) {" +
+					"var remListener = this.listeners[type].indexOf(listener);" +
+					"if(remListener > -1) {" +
+						"this.listeners[type].splice(remListener, 1);" +
+					"}" +
+				"}" +
+			"};" +
+			"radioWeb.RadioService.prototype.notifyListeners = function(type, data) {" +
+				"this.listeners[type].forEach(function(cb) { cb(data); });" +
+			"};" +
+			//a cached slide is defined once in radioWeb.slides and afterwards only referenced by its number
+			"radioWeb.RadioService.prototype.notifySlide = function(type, slideNum, data) {" +
+				"if(data !== undefined) {" +
+					"radioWeb.slides[slideNum] = data;" +
+				"}" +
+				"this.notifyListeners(type, radioWeb.slides[slideNum]);" +
+			"};" +
+			//only a timeshift object already created is reset
+			"radioWeb.RadioService.prototype.setTimeshifted = function(timeshifted) {" +
+				"this.timeshifted = timeshifted;" +
+				"if(!timeshifted && this._timeshift) {" +
+					"this._timeshift.skipItems = [];" +
+					"this._timeshift.skipIndex = {};" +
+					"this._timeshift.timeshiftToken = '';" +
+					"this._timeshift.sbtMax = -1;" +
+					"this._timeshift.totalDuration = 0;" +
+					"this._timeshift.currentPosition = 0;" +
+				"}" +
+			"};";
+
+	//applies the changed fields of the BridgeState, the active services are kept as handles until their service objects exist
+	private static final String STATE_SYNC_JS =
+			"radioWeb.activeServiceHandles = [];" +
+			"radioWeb.resolveActiveServices = function() {" +
+				//rebuilt in place to keep the array object
+				"radioWeb.activeServices.length = 0;" +
+				"radioWeb.activeServiceHandles.forEach(function(handle) {" +
+					"var activeSrv = radioWeb.serviceHandles[handle];" +
+					"if(activeSrv !== undefined) {" +
+						"radioWeb.activeServices.push(activeSrv);" +
+					"}" +
+				"});" +
+			"};" +
+			"radioWeb." + BridgeState.JS_SYNC_STATE + " = function(state) {" +
+				"if(state.status !== undefined) {" +
+					"radioWeb.status = state.status;" +
+				"}" +
+				"if(state.volume !== undefined) {" +
+					"radioWeb.volume = state.volume;" +
+				"}" +
+				"if(state.activeServices !== undefined) {" +
+					"radioWeb.activeServiceHandles = state.activeServices;" +
+					"radioWeb.resolveActiveServices();" +
+				"}" +
+				"if(state.timeshiftPaused !== undefined) {" +
+					"for(var handle in state.timeshiftPaused) {" +
+						"var tsSrv = radioWeb.serviceHandles[handle];" +
+						"if(tsSrv !== undefined && tsSrv.timeshift) {" +
+							"tsSrv.timeshift.paused = state.timeshiftPaused[handle];" +
+						"}" +
+					"}" +
+				"}" +
+			"};";
+
+	//method of the radioWeb object applying a service delta and notifying the servicesUpdated listeners
+	private static final String JS_UPDATE_SERVICES = "updateServices";
+
+	//applies the added, changed and removed services in place and returns the changed service objects
+	private static final String SERVICE_DELTA_JS =
+			"radioWeb.applyServiceDelta = function(delta) {" +
+				"var changes = {added: [], changed: [], removed: []};" +
+				"delta.removed.forEach(function(handle) {" +
+					"var remSrv = radioWeb.serviceHandles[handle];" +
+					"if(remSrv !== undefined) {" +
+						"delete radioWeb.serviceHandles[handle];" +
+						"changes.removed.push(remSrv);" +
+					"}" +
+				"});" +
+				"if(changes.removed.length > 0) {" +
+					//compact in place to keep the array object
+					"var keepIdx = 0;" +
+					"for(var i = 0; i < radioWeb.services.length; i++) {" +
+						"var srv = radioWeb.services[i];" +
+						"if(radioWeb.serviceHandles[srv.handle] === srv) {" +
+							"radioWeb.services[keepIdx++] = srv;" +
+						"}" +
+					"}" +
+					"radioWeb.services.length = keepIdx;" +
+				"}" +
+				"delta.changed.forEach(function(data) {" +
+					"var chgSrv = radioWeb.serviceHandles[data.handle];" +
+					"if(chgSrv !== undefined) {" +
+						//the data of a live service replaces the provisional stored data
+						"delete chgSrv.provisional;" +
+						"for(var key in data) {" +
+							"chgSrv[key] = data[key];" +
+						"}" +
+						"changes.changed.push(chgSrv);" +
+					"}" +
+				"});" +
+				"delta.added.forEach(function(data) {" +
+					"var addSrv = new radioWeb.RadioService(data);" +
+					"radioWeb.services.push(addSrv);" +
+					"changes.added.push(addSrv);" +
+				"});" +
+				"radioWeb.resolveActiveServices();" +
+				"return changes;" +
+			"};" +
+			"radioWeb.updateServices = function(delta) {" +
+				"var changes = radioWeb.applyServiceDelta(delta);" +
+				"radioWeb.listeners.servicesUpdated.forEach(function(cb) { cb( radioWeb.services, changes ); });" +
+			"};";
+
+	private static final String JS_MESSAGE_PORT_NAME = "radioWebPort";
+	//separates the task, the call id and the arguments of a call received on the message port
+	private static final char PORT_CALL_SEPARATOR = ':';
+
+	//dispatches the messages of the JsDispatcher, either evaluated as script or received on the message port
+	private static final String MESSAGE_JS_RUNTIME =
+			"radioWeb.dispatchMessage = function(msg) {" +
+				"var target = msg.h !== undefined ? radioWeb.serviceHandles[msg.h] : radioWeb;" +
+				"if(msg.ts) {" +
+					"target = target.timeshift;" +
+				"}" +
+				"target[msg.m].apply(target, msg.a);" +
+			"};" +
+			"radioWeb.dispatchMessages = function(msgs) {" +
+				"for(var i = 0; i < msgs.length; i++) {" +
+					"try {" +
+						"radioWeb.dispatchMessage(msgs[i]);" +
+					"} catch(e) {" +
+						"console.error(e);" +
+					"}" +
+				"}" +
+			"};" +
+			"radioWeb.notifyListeners = function(type, data) {" +
+				"this.listeners[type].forEach(function(cb) { cb(data); });" +
+			"};" +
+			"radioWeb.notifyServiceListeners = function(type, srvHandle) {" +
+				"radioWeb.notifyListeners(type, radioWeb.serviceHandles[srvHandle]);" +
+			"};" +
+			"radioWeb.deleteSlide = function(slideNum) {" +
+				"if(radioWeb.slides != null) {" +
+					"delete radioWeb.slides[slideNum];" +
+				"}" +
+			"};" +
+			//calls to the RadioWebView go through the message port if there is one
+			"radioWeb.send = function(task, args, callId) {" +
+				"var data = JSON.stringify(args !== undefined ? args : {});" +
+				"if(callId === undefined) {" +
+					"callId = -1;" +
+				"}" +
+				"if(radioWeb.port) {" +
+					"radioWeb.port.postMessage(task + '" + PORT_CALL_SEPARATOR + "' + callId + '" + PORT_CALL_SEPARATOR + "' + data);" +
+				"} else {" +
+					"radioWeb.javaCall(task, data, callId);" +
+				"}" +
+			"};" +
+			//a call with a Promise, settled by the RadioWebView with radioWeb.settleCall. Calls are independent of each other and may settle in any order.
+			"radioWeb.pendingCalls = {};" +
+			"radioWeb.nextCallId = 0;" +
+			"radioWeb.call = function(task, args) {" +
+				"if(typeof Promise === 'undefined') {" +
+					"radioWeb.send(task, args);" +
+					"return undefined;" +
+				"}" +
+				"var callId = radioWeb.nextCallId++;" +
+				"return new Promise(function(resolve, reject) {" +
+					"radioWeb.pendingCalls[callId] = {resolve: resolve, reject: reject};" +
+					"radioWeb.send(task, args, callId);" +
+				"});" +
+			"};" +
+			"radioWeb." + BridgeCommandRouter.JS_SETTLE_CALL + " = function(callId, resolved, result) {" +
+				"var pending = radioWeb.pendingCalls[callId];" +
+				"if(pending === undefined) {" +
+					"return;" +
+				"}" +
+				"delete radioWeb.pendingCalls[callId];" +
+				"if(resolved) {" +
+					"pending.resolve(result);" +
+				"} else {" +
+					"pending.reject(new Error(result));" +
+				"}" +
+			"};" +
+			"if(!radioWeb.portListening) {" +
+				"radioWeb.portListening = true;" +
+				"window.addEventListener('message', function(e) {" +
+					//the port is taken once and only from the RadioWebView, its messages have no source window.
+					//Messages from other windows, e.g. embedded frames, are never taken as the port.
+					"if(radioWeb.port || (e.source !== null && e.source !== window)) {" +
+						"return;" +
+					"}" +
+					"if(e.data === '" + JS_MESSAGE_PORT_NAME + "' && e.ports && e.ports.length > 0) {" +
+						"radioWeb.port = e.ports[0];" +
+						"radioWeb.port.onmessage = function(portEvent) { radioWeb.dispatchMessages(JSON.parse(portEvent.data)); };" +
+					"}" +
+				"});" +
+			"}";
+
+	private static final String TIMESHIFT_JS_PROTOTYPE =
+			"radioWeb.Timeshift = function(data) {" +
+				"for(var key in data) {" +
+					"this[key] = data[key];" +
+				"}" +
+				"this.listeners = {tsState: [], skipItemAdded: [], skipItemRemoved: [], progress: [], sbtProgress: [], tsVisual: [], tsTextual: []};" +
+				//skipItems keyed by their relativeSkipPoint
+				"this.skipIndex = {};" +
+				"if(!Array.isArray(this.skipItems)) {" +
+					"this.skipItems = [];" +
+				"}" +
+				"for(var i = 0; i < this.skipItems.length; i++) {" +
+					"this.skipIndex[this.skipItems[i].relativeSkipPoint] = this.skipItems[i];" +
+				"}" +
+			"};" +
+			//maps the public listener types to the listeners keys
+			"radioWeb.Timeshift.listenerTypes = {state: 'tsState', skipitemadded: 'skipItemAdded', skipitemremoved: 'skipItemRemoved', progress: 'progress', sbtprogress: 'sbtProgress', visual: 'tsVisual', textual: 'tsTextual'};" +
+			"radioWeb.Timeshift.prototype.addTimeshiftListener = function(type, timeshiftlistener) {" +
+				"if(typeof type == 'string' && radioWeb.Timeshift.listenerTypes.hasOwnProperty(type)) {" +
+					"this.listeners[radioWeb.Timeshift.listenerTypes[type]].push(timeshiftlistener);" +
+				"}" +
+			"};" +
+			"radioWeb.Timeshift.prototype.removeTimeshiftListener = function(type, timeshiftlistener) {" +
+				"if(typeof type == 'string' && radioWeb.Timeshift.listenerTypes.hasOwnProperty(type)) {" +
+					"var tsListeners = this.listeners[radioWeb.Timeshift.listenerTypes[type]];" +
+					"var remListener = tsListeners.indexOf(timeshiftlistener);" +
+					"if(remListener > -1) {" +
+						"tsListeners.splice(remListener, 1);" +
+					"}" +
+				"}" +
+			"};" +
+			"radioWeb.Timeshift.prototype.notifyListeners = function(type, data) {" +
+				"this.listeners[type].forEach(function(cb) { cb(data); });" +
+			"};" +
+			"radioWeb.Timeshift.prototype.notifySlide = radioWeb.RadioService.prototype.notifySlide;" +
+			"radioWeb.Timeshift.prototype.started = function(token, sbtMax) {" +
+				"this.timeshiftToken = token;" +
+				"this.sbtMax = sbtMax;" +
+				"this.notifyListeners('tsState', {timeshiftState: 'started'});" +
+			"};" +
+			"radioWeb.Timeshift.prototype.updateProgress = function(cur, total) {" +
+				"this.currentPosition = cur;" +
+				"this.totalDuration = total;" +
+				"this.notifyListeners('progress', {currentPosition: cur, totalDuration: total});" +
+			"};" +
+			"radioWeb.Timeshift.prototype.updateSbtProgress = function(realTime, streamTime, cur, total) {" +
+				"this.currentPosition = cur;" +
+				"this.totalDuration = total;" +
+				"this.notifyListeners('sbtProgress', {realTime: realTime, streamTime: streamTime, currentPosition: cur, totalDuration: total});" +
+			"};" +
+			"radioWeb.Timeshift.prototype.addSkipItem = function(skipItem) {" +
+				"if(!this.skipIndex.hasOwnProperty(skipItem.relativeSkipPoint)) {" +
+					"this.skipIndex[skipItem.relativeSkipPoint] = skipItem;" +
+					"this.skipItems.push(skipItem);" +
+					"this.notifyListeners('skipItemAdded', skipItem);" +
+				"}" +
+			"};" +
+			"radioWeb.Timeshift.prototype.removeSkipItem = function(relativeSkipPoint) {" +
+				"var skipItem = this.skipIndex[relativeSkipPoint];" +
+				"if(skipItem !== undefined) {" +
+					"delete this.skipIndex[relativeSkipPoint];" +
+					"var itemIdx = this.skipItems.indexOf(skipItem);" +
+					"if(itemIdx > -1) {" +
+						"this.skipItems.splice(itemIdx, 1);" +
+					"}" +
+					"this.notifyListeners('skipItemRemoved', skipItem);" +
+				"}" +
+			"};" +
+			"radioWeb.Timeshift.prototype.pause = function(unPause) { return radioWeb.call('timeshiftPause', {pause: unPause}); };" +
+			"radioWeb.Timeshift.prototype.skipTo = function(skipToItem) { return radioWeb.call('skipTo', {skipItem: skipToItem}); };" +
+			"radioWeb.Timeshift.prototype.seek = function(seekMs) { return radioWeb.call('timeshiftSeek', {seekpos: seekMs}); };";
+
+	//version of the service list, incremented when the tuners change the services
+	private final AtomicInteger mServicesVersion = new AtomicInteger();
+	//prepared for the loading page, taken when the page is finished
+	private volatile BootstrapPayload mBootstrapPayload = null;
+	//guarded by mPrepareBootstrapRunnable
+	private HandlerThread mBootstrapThread = null;
+	private Handler mBootstrapHandler = null;
+
+	private final Runnable mPrepareBootstrapRunnable = new Runnable() {
+		@Override
+		public void run() {
+			//the services are not complete before all tuners are initialized, prepared again with the last tuner
+			if(mNotifiedReady || !mTunerReadiness.isReady()) {
+				return;
+			}
+
+			BootstrapPayload payload = createBootstrapPayload();
+			mBootstrapPayload = payload;
+			if(DEBUG)Log.d(TAG, "Init prepared bootstrap payload for page generation: " + payload.mPageGeneration + " with services: " + payload.mServiceData.size());
+		}
+	};
+
+	//prepares the bootstrap payload for the loading page in the background, replacing a pending preparation
+	private void scheduleBootstrap() {
+		if(mNotifiedReady) {
+			return;
+		}
+
+		Handler bootstrapHandler = getBootstrapHandler();
+		bootstrapHandler.removeCallbacks(mPrepareBootstrapRunnable);
+		bootstrapHandler.post(mPrepareBootstrapRunnable);
+	}
+
+	private Handler getBootstrapHandler() {
+		synchronized (mPrepareBootstrapRunnable) {
+			if(mBootstrapHandler == null) {
+				mBootstrapThread = new HandlerThread("RadioWebBootstrap");
+				mBootstrapThread.start();
+				mBootstrapHandler = new Handler(mBootstrapThread.getLooper());
+			}
+
+			return mBootstrapHandler;
+		}
+	}
+
+	//the service list has changed, a prepared payload is outdated
+	private void invalidateBootstrap() {
+		mServicesVersion.incrementAndGet();
+		scheduleBootstrap();
+	}
+
+	private BootstrapPayload createBootstrapPayload() {
+		int pageGeneration = mPageGeneration;
+		BootstrapPayload payload = new BootstrapPayload(pageGeneration, mServicesVersion.get(), getRadioStatusString(), getOutputVolume(), createRadioWebJs(pageGeneration));
+		for(RadioService srv : Radio.getInstance().getRadioServices()) {
+			int srvHandle = mServiceHandles.putService(srv);
+			String srvData = createJsServiceData(srv, srvHandle);
+			if(srvData != null && !payload.mServiceData.containsKey(srvHandle)) {
+				payload.mServiceData.put(srvHandle, srvData);
+				payload.mServices.put(srvHandle, srv);
+			}
+		}
+
+		return payload;
+	}
 
+	//injects the radioWeb object and the services, from the prepared payload if it is still valid or the provisional stored services
+	private void initRadioWebJs() {
+		boolean provisional = !mTunerReadiness.isReady();
+		BootstrapPayload payload;
+		if(provisional) {
+			payload = createProvisionalPayload();
+		} else {
+			payload = mBootstrapPayload;
+			if(payload == null || !payload.isValid(mPageGeneration, mServicesVersion.get(), getRadioStatusString(), getOutputVolume())) {
+				if(DEBUG)Log.d(TAG, "Init no valid bootstrap payload prepared");
+				payload = createBootstrapPayload();
+			}
+		}
+		mBootstrapPayload = null;
+		mProvisionalServices.set(provisional);
+
+		if(DEBUG)Log.d(TAG, "Init Creating JS radioWeb object, provisional services: " + provisional);
+		mJsDispatcher.post(payload.mRadioWebJs);
+		fillRadioServicesJs(payload);
+		mBridgeState.setStatus(getRadioStatusString());
+		mBridgeState.setVolume(getOutputVolume());
+		updateActiveServicesJs();
+		//the state differing from the payload is synced after the radioWeb object is created
+		mBridgeState.attach(payload.mRadioStatus, payload.mVolume);
+		notifyRadioWebReady();
+
+		if(provisional) {
+			//the tuners may have become ready meanwhile
+			reconcileProvisionalServices();
+		} else {
+			storeServices(payload.mServiceData);
+		}
+	}
+
+	//the stored services, marked as provisional and without a RadioService until the tuners are initialized
+	private BootstrapPayload createProvisionalPayload() {
+		int pageGeneration = mPageGeneration;
+		BootstrapPayload payload = new BootstrapPayload(pageGeneration, mServicesVersion.get(), getRadioStatusString(), getOutputVolume(), createRadioWebJs(pageGeneration));
+		List<PersistedServiceList.Entry> storedServices = mStoredServices;
+		if(storedServices != null) {
+			for(PersistedServiceList.Entry storedSrv : storedServices) {
+				int srvHandle = mServiceHandles.reserveHandle(storedSrv.mKey);
+				if(!payload.mServiceData.containsKey(srvHandle)) {
+					payload.mServiceData.put(srvHandle, "{\"handle\":" + srvHandle + ",\"provisional\":true," + storedSrv.mDataMembers);
+				}
+			}
+		}
+
+		return payload;
+	}
+
+	private String getRadioStatusString() {
+		return Radio.getInstance().getRadioStatus().toString();
+	}
+
+	private int getOutputVolume() {
 		int curOutputVolume = -1;
 		if(mAudiotrackServiceBound) {
 			if(mAudiotrackService != null) {
@@ -178,100 +889,243 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 			}
 		}
 
-		final String radioWebObjString = "javascript:" +
+		return curOutputVolume;
+	}
+
+	private String createRadioWebJs(int pageGeneration) {
+		return "javascript:" +
 				"if(radioWeb == null) { " +
 					"radioWeb = {};" +
 				"}" +
-				"radioWeb.status = '" + Radio.getInstance().getRadioStatus().toString() + "';" +
-				"radioWeb.volume = "+ curOutputVolume +";" +
+				"radioWeb.status = '" + getRadioStatusString() + "';" +
+				"radioWeb.volume = "+ getOutputVolume() +";" +
 				"radioWeb.activeServices = [];" +
 				"radioWeb.services = [];" +
-				"radioWeb.setVolume = function(newVolume) { radioWeb.javaCall(JSON.stringify({volume: newVolume, task: 'setVolume'})); }" + ";" +
-				"radioWeb.listeners = {serviceStarted: [], serviceStopped: [], servicesUpdated: []};" +
+				"radioWeb.serviceHandles = {};" +
+				"radioWeb.slides = {};" +
+				"radioWeb.setVolume = function(newVolume) { return radioWeb.call('setVolume', {volume: newVolume}); }" + ";" +
+				"radioWeb.metrics = null;" +
+				"radioWeb.refreshMetrics = function() {" +
+					"var metrics = radioWeb.call('" + JSON_GENERAL_METRICS + "');" +
+					"return metrics && metrics.then(function(snapshot) { radioWeb.metrics = snapshot; return snapshot; });" +
+				"};" +
+				"radioWeb.listeners = {serviceStarted: [], serviceStopped: [], servicesUpdated: [], scanStarted: [], scanProgress: [], scanFinished: []};" +
 				"radioWeb.addEventListener = function(type, listener) {" +
-								"if(typeof type == 'string') {" +
-									"switch(type) {" +
-										"case 'serviceStarted':" +
-											"this.listeners.serviceStarted.push(listener);" +
-											"break;" +
-										"case 'serviceStopped':" +
-											"this.listeners.serviceStopped.push(listener);" +
-											"break;" +
-										"case 'servicesUpdated':" +
-											"this.listeners.servicesUpdated.push(listener);" +
-											"break;" +
-									"}" +
+								"if(typeof type == 'string' && this.listeners.hasOwnProperty(type)) {" +
+									"this.listeners[type].push(listener);" +
 								"}" +
 							"};" +
 				"radioWeb.removeEventListener = function(type, listener) {" +
-								"if(typeof type == 'string') {" +
-									"switch(type) {" +
-										"case 'serviceStarted':" +
-											"remListener = this.listeners.serviceStarted.indexOf(listener);" +
-											"if(remListener > -1) {" +
-												"this.listeners.serviceStarted.splice(remListener, 1);" +
-											"}" +
-											"break;" +
-										"case 'serviceStopped':" +
-											"remListener = this.listeners.serviceStopped.indexOf(listener);" +
-											"if(remListener > -1) {" +
-												"this.listeners.serviceStopped.splice(remListener, 1);" +
-											"}" +
-											"break;" +
-										"case 'servicesUpdated':" +
-											"remListener = this.listeners.servicesUpdated.indexOf(listener);" +
-											"if(remListener > -1) {" +
-												"this.listeners.servicesUpdated.splice(remListener, 1);" +
-											"}" +
-											"break;" +
+								"if(typeof type == 'string' && this.listeners.hasOwnProperty(type)) {" +
+									"var remListener = this.listeners[type].indexOf(listener);" +
+									"if(remListener > -1) {" +
+										"this.listeners[type].splice(remListener, 1);" +
 									"}" +
 								"}" +
-							"};"
+							"};" +
+				"radioWeb.pageGeneration = " + pageGeneration + ";" +
+				RADIOSERVICE_JS_PROTOTYPE +
+				STATE_SYNC_JS +
+				SERVICE_DELTA_JS +
+				TIMESHIFT_JS_PROTOTYPE +
+				MESSAGE_JS_RUNTIME +
+				(isMessageChannelSupported() ? "radioWeb.send('" + JSON_GENERAL_OPEN_CHANNEL + "', {generation: radioWeb.pageGeneration});" : "")
 				;
+	}
 
-		this.evaluateJavascript(radioWebObjString, new ValueCallback<String>() {
-			@Override
-			public void onReceiveValue(String value) {
-				if(DEBUG)Log.d(TAG, "Init createRadioWebJsObj callback: " + (value != null ? value : "null"));
+	private final ServiceHandleTable<RadioService> mServiceHandles = new ServiceHandleTable<>(OmriEventData.SERVICE_KEYS);
+	private final ServiceSnapshot mServiceSnapshot = new ServiceSnapshot();
+	//publishes the serialized services of the payload, only the current timeshift state is written now
+	private void fillRadioServicesJs(BootstrapPayload payload) {
+		if(DEBUG)Log.d(TAG, "Init Filling JS RadioServices");
+
+		JsWriter srvWriter = JsWriter.obtain();
+		srvWriter.raw("javascript:radioWeb.serviceHandles = {};radioWeb.services = ");
+		srvWriter.beginArray();
+		for(Map.Entry<Integer, String> srvEntry : payload.mServiceData.entrySet()) {
+			writeJsService(srvWriter, payload.mServices.get(srvEntry.getKey()), srvEntry.getValue());
+		}
+		srvWriter.endArray();
+		srvWriter.raw(".map(function(data) { return new radioWeb.RadioService(data); });");
+
+		synchronized (mServiceSnapshot) {
+			mServiceSnapshot.publish(payload.mServiceData);
+			mJsDispatcher.post(srvWriter.release());
+		}
+	}
+
+	private static final int SCAN_BATCH_MAX_SERVICES = 25;
+
+	//collects the services found during a scan and publishes them in batches with the next frames
+	private class ScanBatchSlot implements JsDispatcher.FrameSource {
+
+		//complete service literals
+		private final ArrayDeque<String> mAddedServices = new ArrayDeque<>();
+		//service data without timeshift state
+		private final ArrayDeque<String> mChangedServices = new ArrayDeque<>();
+
+		synchronized void addService(String srvJs) {
+			mAddedServices.add(srvJs);
+		}
+
+		synchronized void changeService(String srvData) {
+			mChangedServices.add(srvData);
+		}
+
+		synchronized void clear() {
+			mAddedServices.clear();
+			mChangedServices.clear();
+		}
+
+		/**
+		 * @return the message publishing all collected services or {@code null} if there are none
+		 */
+		synchronized String drain() {
+			if(mAddedServices.isEmpty() && mChangedServices.isEmpty()) {
+				return null;
 			}
-		});
+
+			JsWriter batchWriter = JsWriter.obtain();
+			writeBatch(batchWriter, Integer.MAX_VALUE);
+			return batchWriter.release();
+		}
+
+		@Override
+		public synchronized boolean appendFrameMessages(JsWriter frameMessages) {
+			if(mAddedServices.isEmpty() && mChangedServices.isEmpty()) {
+				return false;
+			}
+
+			writeBatch(frameMessages, SCAN_BATCH_MAX_SERVICES);
+
+			return !mAddedServices.isEmpty() || !mChangedServices.isEmpty();
+		}
+
+		private void writeBatch(JsWriter batchWriter, int maxServices) {
+			JsDispatcher.beginCall(batchWriter, -1, false, JS_UPDATE_SERVICES);
+			batchWriter.beginObject();
+			batchWriter.name("added").beginArray();
+			int numServices = 0;
+			while(numServices < maxServices && !mAddedServices.isEmpty()) {
+				batchWriter.jsonValue(mAddedServices.poll());
+				numServices++;
+			}
+			batchWriter.endArray();
+			batchWriter.name("changed").beginArray();
+			while(numServices < maxServices && !mChangedServices.isEmpty()) {
+				batchWriter.jsonValue(mChangedServices.poll());
+				numServices++;
+			}
+			batchWriter.endArray();
+			batchWriter.name("removed").beginArray().endArray();
+			batchWriter.endObject();
+			JsDispatcher.endCall(batchWriter);
+		}
 	}
 
-	private void fillRadioServicesJs() {
-		if(DEBUG)Log.d(TAG, "Init Filling JS RadioServices");
+	private final ScanBatchSlot mScanBatchSlot = new ScanBatchSlot();
 
-		StringBuilder srvBuilder = new StringBuilder("javascript:radioWeb.services = [");
-		for(RadioService srv : Radio.getInstance().getRadioServices()) {
+	//publishes a service found during a scan with the next scan batch
+	private void publishFoundServiceJs(RadioService srv) {
+		int srvHandle = mServiceHandles.putService(srv);
+		String srvData = createJsServiceData(srv, srvHandle);
+		if(srvData == null) {
+			return;
+		}
 
-			switch (srv.getRadioServiceType()) {
-				case RADIOSERVICE_TYPE_DAB:
-				case RADIOSERVICE_TYPE_EDI: {
-					srvBuilder.append(createDabJsService(srv));
+		//the snapshot and the batch change together, so that a concurrent update does not publish the service twice
+		synchronized (mServiceSnapshot) {
+			switch (mServiceSnapshot.put(srvHandle, srvData)) {
+				case ServiceSnapshot.SERVICE_ADDED: {
+					JsWriter srvWriter = JsWriter.obtain();
+					writeJsService(srvWriter, srv, srvData);
+					mScanBatchSlot.addService(srvWriter.release());
+					mJsDispatcher.requestFrame();
 					break;
 				}
-				case RADIOSERVICE_TYPE_IP: {
-					srvBuilder.append(createIpJsService(srv));
+				case ServiceSnapshot.SERVICE_CHANGED: {
+					mScanBatchSlot.changeService(srvData);
+					mJsDispatcher.requestFrame();
 					break;
 				}
 				default:
 					break;
 			}
+		}
+	}
 
-			srvBuilder.append(",");
+	//notifies the scan listeners of the given type
+	private void notifyScanJs(String scanEvent, Tuner tuner, int progress) {
+		JsWriter scanWriter = JsWriter.obtain();
+		JsDispatcher.beginCall(scanWriter, -1, false, "notifyListeners").value(scanEvent);
+		scanWriter.beginObject();
+		scanWriter.name("tunerType").value(tuner.getTunerType().toString());
+		if(progress >= 0) {
+			scanWriter.name("progress").value(progress);
 		}
+		scanWriter.endObject();
+		JsDispatcher.endCall(scanWriter);
 
-		srvBuilder.setLength(srvBuilder.length()-1);
-		srvBuilder.append("]");
+		mJsDispatcher.postMessage(scanWriter.release());
+	}
 
-		this.evaluateJavascript(srvBuilder.toString(), new ValueCallback<String>() {
-			@Override
-			public void onReceiveValue(String value) {
-				if(DEBUG)Log.d(TAG, "Init fillRadioServicesJs callback: " + (value != null ? value : "null"));
+	/**
+	 * Publishes only the added, changed and removed services since the last published service list
+	 * and notifies the servicesUpdated listeners with the changes
+	 */
+	private void updateRadioServicesJs() {
+		if(DEBUG)Log.d(TAG, "Updating JS RadioServices");
+
+		LinkedHashMap<Integer, String> updatedServices = new LinkedHashMap<>();
+		HashMap<Integer, RadioService> updatedServiceObjs = new HashMap<>();
+		for(RadioService srv : Radio.getInstance().getRadioServices()) {
+			int srvHandle = mServiceHandles.putService(srv);
+			String srvData = createJsServiceData(srv, srvHandle);
+			if(srvData != null && !updatedServices.containsKey(srvHandle)) {
+				updatedServices.put(srvHandle, srvData);
+				updatedServiceObjs.put(srvHandle, srv);
 			}
-		});
+		}
+
+		synchronized (mServiceSnapshot) {
+			//services found during the scan but not yet published go first
+			String scanBatch = mScanBatchSlot.drain();
+			if(scanBatch != null) {
+				mJsDispatcher.postMessage(scanBatch);
+			}
+
+			ServiceSnapshot.Delta delta = mServiceSnapshot.update(updatedServices);
+			mServiceHandles.retainHandles(updatedServices.keySet());
+			storeServices(updatedServices);
+			if(DEBUG)Log.d(TAG, "Services added: " + delta.mAdded.size() + ", changed: " + delta.mChanged.size() + ", removed: " + delta.mRemoved.size());
+
+			JsWriter deltaWriter = JsWriter.obtain();
+			JsDispatcher.beginCall(deltaWriter, -1, false, JS_UPDATE_SERVICES);
+			deltaWriter.beginObject();
+			deltaWriter.name("added").beginArray();
+			for(Integer addedHandle : delta.mAdded) {
+				writeJsService(deltaWriter, updatedServiceObjs.get(addedHandle), updatedServices.get(addedHandle));
+			}
+			deltaWriter.endArray();
+			//the timeshift state of a changed service is kept
+			deltaWriter.name("changed").beginArray();
+			for(Integer changedHandle : delta.mChanged) {
+				deltaWriter.jsonValue(updatedServices.get(changedHandle));
+			}
+			deltaWriter.endArray();
+			deltaWriter.name("removed").beginArray();
+			for(Integer removedHandle : delta.mRemoved) {
+				deltaWriter.value(removedHandle);
+			}
+			deltaWriter.endArray();
+			deltaWriter.endObject();
+			JsDispatcher.endCall(deltaWriter);
+
+			mJsDispatcher.postMessage(deltaWriter.release());
+		}
 	}
 
-	private boolean mNotifiedReady = false;
+	private volatile boolean mNotifiedReady = false;
 	private void notifyRadioWebReady() {
 		if(DEBUG)Log.d(TAG, "Init Notifying JS radioWebReady");
 
@@ -279,92 +1133,27 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 
 		final String radioWebReadyJs = "javascript:window.dispatchEvent(new Event('radioWebReady'));";
 
-		this.evaluateJavascript(radioWebReadyJs, new ValueCallback<String>() {
-			@Override
-			public void onReceiveValue(String value) {
-				if(DEBUG)Log.d(TAG, "Init notifyRadioWebReady callback: " + (value != null ? value : "null"));
-			}
-		});
+		mJsDispatcher.post(radioWebReadyJs);
 	}
 
 	private void updateActiveServicesJs() {
 		for(Tuner tuner : Radio.getInstance().getAvailableTuners()) {
 			RadioService runSrv = tuner.getCurrentRunningRadioService();
 			if(runSrv != null) {
-				if(runSrv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_DAB || runSrv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_EDI) {
-					getJsServiceIdx(runSrv, new ValueCallback<String>() {
-						@Override
-						public void onReceiveValue(String value) {
-							if(value != null) {
-								if(!value.equals("null")) {
-									int srvIdx = Integer.parseInt(value);
-									final String addActiveSrv = "javascript:" +
-											"if(radioWeb != null) {" +
-												"radioWeb.activeServices.push(radioWeb.services[" + srvIdx + "]);" +
-											"} else {" +
-												"console.log('radioWeb is null at adding active service');" +
-											"}";
-								}
-							}
-						}
-					});
-				}
-
+				mBridgeState.setServiceActive(mServiceHandles.getHandle(runSrv), true);
 			}
 		}
 	}
 
-	private void addActiveServiceJs(int srvIdx) {
-		if(DEBUG)Log.d(TAG, "Adding active service with Idx: " + srvIdx);
-		if(srvIdx > -1) {
-			final String addJsSrv = "javascript:" +
-					"if(!radioWeb.activeServices.includes(radioWeb.services[" + srvIdx + "])) {" +
-						"radioWeb.activeServices.push(radioWeb.services[" + srvIdx + "]);" +
-					"}";
-
-			evaluateJavascript(addJsSrv, null);
-		}
-	}
-
-	private void removeActiveServiceJs(int srvIdx) {
-		if(DEBUG)Log.d(TAG, "Removing active service with Idx: " + srvIdx);
-		if(srvIdx > -1) {
-			final String remJsSrv = "javascript:" +
-					"remSrvIdx = radioWeb.activeServices.indexOf(radioWeb.services[" + srvIdx + "]);" +
-					"if(remSrvIdx > -1) {" +
-						"radioWeb.activeServices.splice(remSrvIdx, 1);" +
-					"}";
-
-			evaluateJavascript(remJsSrv, null);
-		}
-	}
-
-	private String creatTimeshiftObject() {
+	//only data, the methods and listeners are added by the radioWeb.Timeshift constructor
+	private void writeTimeshiftJson(JsWriter writer) {
 		String timeshiftToken = "";
 		long sbtMax = -1;
 		boolean isPaused = false;
 		long curPos = -1;
 		long totalDur = -1;
 
-		StringBuilder skipItemsBuilder = new StringBuilder();
-		skipItemsBuilder.append("skipItems: [");
 		if(mTimeshiftPlayer != null) {
-			if (!mTimeshiftPlayer.getSkipItems().isEmpty()) {
-				if (DEBUG) Log.d(TAG, "Filling Skipitems array");
-				for (SkipItem item : mTimeshiftPlayer.getSkipItems()) {
-					try {
-						skipItemsBuilder.append(createSkipitemJson(item).toString());
-						skipItemsBuilder.append(",");
-					} catch (JSONException jsonExc) {
-						if (DEBUG) Log.e(TAG, "Error building Skipitem JSON");
-						jsonExc.printStackTrace();
-					}
-				}
-				//remove last comma
-				skipItemsBuilder.setLength(skipItemsBuilder.length() - 1);
-			}
-			//skipItemsBuilder.append("],");
-
 			isPaused = mTimeshiftPlayer.isPaused();
 			curPos = mTimeshiftPlayer.getCurrentPosition();
 			totalDur = mTimeshiftPlayer.getDuration();
@@ -374,431 +1163,455 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 				sbtMax = ((RadioServiceDabEdi) mTimeshiftPlayer.getRadioService()).getSbtMax();
 			}
 		}
-		skipItemsBuilder.append("],");
-
-		return "{" +
-					"paused:" + isPaused + "," +
-					"currentPosition:" + curPos + "," +
-					"totalDuration: " + totalDur + "," +
-					//SBT
-					"timeshiftToken: '" + timeshiftToken + "'," +
-					"sbtMax: " + sbtMax + "," +
-					"listeners: {tsState: [], skipItemAdded: [], skipItemRemoved: [], progress: [], sbtProgress: [], tsVisual: [], tsTextual: []}," +
-					"addTimeshiftListener: function(type ,timeshiftlistener) {" +
-						"if(typeof type == 'string') {" +
-							"switch(type) {" +
-								"case 'state':" +
-									"this.listeners.tsState.push(timeshiftlistener);" +
-									//"radioWeb.javaCall(JSON.stringify({msg: 'TsState listener added', task: 'logBack'}));" +
-									"break;" +
-								"case 'skipitemadded':" +
-									"this.listeners.skipItemAdded.push(timeshiftlistener);" +
-									"curListeners = 'Init Added SkipListener, CurrentSkipListeners: ' + this.listeners.skipItemAdded.length;" +
-									"radioWeb.javaCall(JSON.stringify({msg: curListeners, task: 'logBack'}));" +
-									"break;" +
-								"case 'skipitemremoved':" +
-									"this.listeners.skipItemRemoved.push(timeshiftlistener);" +
-									//"radioWeb.javaCall(JSON.stringify({msg: 'SkipItemRemoved listener added', task: 'logBack'}));" +
-									"break;" +
-								"case 'sbtprogress':" +
-									"this.listeners.sbtProgress.push(timeshiftlistener);" +
-									//"radioWeb.javaCall(JSON.stringify({msg: 'SbtProgress listener added', task: 'logBack'}));" +
-									"break;" +
-								"case 'progress':" +
-									"this.listeners.progress.push(timeshiftlistener);" +
-									//"radioWeb.javaCall(JSON.stringify({msg: 'Sbt Progress listener added', task: 'logBack'}));" +
-									"break;" +
-								"case 'visual':" +
-									"this.listeners.tsVisual.push(timeshiftlistener);" +
-									//"radioWeb.javaCall(JSON.stringify({msg: 'TS Visual listener added', task: 'logBack'}));" +
-									"break;" +
-								"case 'textual':" +
-									"this.listeners.tsTextual.push(timeshiftlistener);" +
-									//"radioWeb.javaCall(JSON.stringify({msg: 'TS Textual listener added', task: 'logBack'}));" +
-									"break;" +
-							"}" +
-						"}" +
-					"}," +
-					"removeTimeshiftListener: function(type ,timeshiftlistener) {" +
-						"if(typeof type == 'string') {" +
-							"switch(type) {" +
-								"case 'state':" +
-									"remListener = this.listeners.tsState.indexOf(timeshiftlistener);" +
-									"if(remListener > -1) {" +
-										"this.listeners.tsState.splice(remListener, 1);" +
-									"};" +
-									"break;" +
-								"case 'skipitemadded':" +
-									"remListener = this.listeners.skipItemAdded.indexOf(timeshiftlistener);" +
-									//"radioWeb.javaCall(JSON.stringify({msg: 'SkipItemAdded listener removed', task: 'logBack'}));" +
-									"if(remListener > -1) {" +
-										"this.listeners.skipItemAdded.splice(remListener, 1);" +
-									"};" +
-									"break;" +
-								"case 'skipitemremoved':" +
-									"remListener = this.listeners.skipItemRemoved.indexOf(timeshiftlistener);" +
-									"if(remListener > -1) {" +
-										"this.listeners.skipItemRemoved.splice(remListener, 1);" +
-									"};" +
-									"break;" +
-								"case 'progress':" +
-									"remListener = this.listeners.progress.indexOf(timeshiftlistener);" +
-									"if(remListener > -1) {" +
-										"this.listeners.progress.splice(remListener, 1);" +
-									"};" +
-									"break;" +
-								"case 'sbtprogress':" +
-									"remListener = this.listeners.sbtProgress.indexOf(timeshiftlistener);" +
-									"if(remListener > -1) {" +
-										"this.listeners.sbtProgress.splice(remListener, 1);" +
-									"};" +
-									"break;" +
-								"case 'visual':" +
-									"remListener = this.listeners.tsVisual.indexOf(timeshiftlistener);" +
-									"if(remListener > -1) {" +
-										"this.listeners.tsVisual.splice(remListener, 1);" +
-									"};" +
-									"break;" +
-								"case 'textual':" +
-									"remListener = this.listeners.tsTextual.indexOf(timeshiftlistener);" +
-									"if(remListener > -1) {" +
-										"this.listeners.tsTextual.splice(remListener, 1);" +
-									"};" +
-									"break;" +
-							"}" +
-						"}" +
-					"}," +
 
-					skipItemsBuilder.toString() +
+		BridgeJson.beginTimeshift(writer, isPaused, curPos, totalDur, timeshiftToken, sbtMax);
+		if(mTimeshiftPlayer != null) {
+			if (DEBUG) Log.d(TAG, "Filling Skipitems array");
+			for (SkipItem item : mTimeshiftPlayer.getSkipItems()) {
+				String skipItemJson = getSkipItemJson(item);
+				if(skipItemJson != null) {
+					writer.jsonValue(skipItemJson);
+				}
+			}
+		}
+		BridgeJson.endTimeshift(writer);
+	}
+
+	//the service data without the timeshift state, null if the service type is not supported
+	private String createJsServiceData(RadioService srv, int handle) {
+		if(handle < 0) {
+			return null;
+		}
+
+		JsWriter dataWriter = JsWriter.obtain();
+		switch (srv.getRadioServiceType()) {
+			case RADIOSERVICE_TYPE_DAB:
+			case RADIOSERVICE_TYPE_EDI: {
+				writeDabJsServiceData(dataWriter, srv, handle);
+				break;
+			}
+			case RADIOSERVICE_TYPE_IP: {
+				writeIpJsServiceData(dataWriter, srv, handle);
+				break;
+			}
+			default:
+				break;
+		}
+
+		String srvData = dataWriter.release();
+		return !srvData.isEmpty() ? srvData : null;
+	}
 
-					//methods
-					"pause: function(unPause) { radioWeb.javaCall(JSON.stringify({pause: unPause, task: 'timeshiftPause'})); }" + "," +
-					"skipTo: function(skipToItem) { radioWeb.javaCall(JSON.stringify({skipItem: skipToItem, task: 'skipTo'})); }" + "," +
-					"seek: function(seekMs) { radioWeb.javaCall(JSON.stringify({seekpos: seekMs, task: 'timeshiftSeek'})); }" +
-					"}";
+	//writes the complete service literal, the service data with the timeshift state
+	private void writeJsService(JsWriter writer, RadioService srv, String srvData) {
+		writer.extendObject(srvData);
+		//a provisional service has no RadioService yet
+		if(srv != null && (srv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_DAB || srv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_EDI)) {
+			writeDabJsServiceTimeshift(writer, (RadioServiceDab)srv);
+		}
+		writer.endObject();
 	}
 
-	private String createDabJsService(RadioService srv) {
-		if(srv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_DAB || srv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_EDI) {
-			RadioServiceDab dabSrv = (RadioServiceDab)srv;
+	//only the timeshifted service is written with its timeshift state, the timeshift object of any other service is created by the page on demand
+	private void writeDabJsServiceTimeshift(JsWriter writer, RadioServiceDab dabSrv) {
+		boolean timeshiftCapable = false;
+
+		//check if timeshiftplayer is there and which service is currently timeshifted
+		if(mTimeshiftPlayer != null && mTimeshiftPlayer.getRadioService() != null) {
+			if(DEBUG)Log.d(TAG, "Creating service with ready timeshiftplayer");
+			if(dabSrv.getEnsembleId() == ((RadioServiceDab)mTimeshiftPlayer.getRadioService()).getEnsembleId() &&
+					dabSrv.getServiceId() == ((RadioServiceDab)mTimeshiftPlayer.getRadioService()).getServiceId() &&
+					dabSrv.getEnsembleEcc() == ((RadioServiceDab)mTimeshiftPlayer.getRadioService()).getEnsembleEcc()
+			) {
+				if(DEBUG)Log.d(TAG, "Service " + mTimeshiftPlayer.getRadioService().getServiceLabel() + " is currently timeshifted");
+				timeshiftCapable = true;
+			}
+		}
 
-			String timeshiftJsObj = "";
-			boolean timeshiftCapable = false;
+		if(timeshiftCapable) {
+			writer.name("timeshift");
+			writeTimeshiftJson(writer);
+		}
+		writer.name("timeshifted").value(timeshiftCapable);
+	}
 
-			//check if timeshiftplayer is there and which service is currently timeshifted
-			if(mTimeshiftPlayer != null && mTimeshiftPlayer.getRadioService() != null) {
-				if(DEBUG)Log.d(TAG, "Creating service with ready timeshiftplayer");
-				if(dabSrv.getEnsembleId() == ((RadioServiceDab)mTimeshiftPlayer.getRadioService()).getEnsembleId() &&
-						dabSrv.getServiceId() == ((RadioServiceDab)mTimeshiftPlayer.getRadioService()).getServiceId() &&
-						dabSrv.getEnsembleEcc() == ((RadioServiceDab)mTimeshiftPlayer.getRadioService()).getEnsembleEcc()
-				) {
-					if(DEBUG)Log.d(TAG, "Service " + mTimeshiftPlayer.getRadioService().getServiceLabel() + " is currently timeshifted");
-					timeshiftCapable = true;
+	//only data, the methods and listeners are added by the radioWeb.RadioService constructor
+	private void writeDabJsServiceData(JsWriter writer, RadioService srv, int handle) {
+		RadioServiceDab dabSrv = (RadioServiceDab)srv;
 
-					timeshiftJsObj = "timeshift: " + creatTimeshiftObject() + ",";
-				}
-			} else {
-				if(mTimeshiftPlayer == null) {
-					if(DEBUG)Log.d(TAG, "Creating service without timeshiftplayer");
-				} else {
-					if(DEBUG)Log.d(TAG, "Creating service with timeshiftplayer but null service");
-				}
+		BridgeJson.writeDabServiceData(writer, handle, dabSrv.getRadioServiceType().toString(), dabSrv.getServiceLabel(),
+				dabSrv.getServiceId(), dabSrv.getEnsembleId(), dabSrv.getEnsembleEcc(), dabSrv.getEnsembleLabel(),
+				dabSrv.getEnsembleFrequency(), dabSrv.isProgrammeService());
+	}
+
+	//only data, the methods and listeners are added by the radioWeb.RadioService constructor
+	private void writeIpJsServiceData(JsWriter writer, RadioService srv, int handle) {
+		RadioServiceIp ipSrv = (RadioServiceIp)srv;
 
-				timeshiftCapable = false;
-				timeshiftJsObj = "timeshift: " + creatTimeshiftObject() + ",";
-			}
-			return "{" +
-					"type: '" + dabSrv.getRadioServiceType().toString() + "'," +
-					"serviceLabel: '" + dabSrv.getServiceLabel() + "'," +
-					"serviceId: " + dabSrv.getServiceId() + "," +
-					"ensembleId: " + dabSrv.getEnsembleId() + "," +
-					"ensembleEcc: " + dabSrv.getEnsembleEcc() + "," +
-					"ensembleLabel: '" + dabSrv.getEnsembleLabel() + "'," +
-					"ensembleFrequency: " + dabSrv.getEnsembleFrequency() + "," +
-					"isProgramme: " + dabSrv.isProgrammeService() + "," +
-					"timeshifted: " + timeshiftCapable + "," +
-					timeshiftJsObj +
-					"listeners: {sls: [], dls: [], epg: [], state: []}" + "," +
-					"start: function() { radioWeb.javaCall(JSON.stringify({service: this, task: 'serviceStart'})); }" + "," +
-					"stop: function() { radioWeb.javaCall(JSON.stringify({service: this, task: 'serviceStop'})); }" + "," +
-					"addEventListener: function(type, listener) { " +
-											"if(typeof type == 'string') {" +
-												"switch(type) {" +
-													"case 'sls':" +
-														"this.listeners.sls.push(listener);" +
-														"break;" +
-													"case 'dls':" +
-														"this.listeners.dls.push(listener);" +
-														"break;" +
-													"case 'epg':" +
-														"this.listeners.epg.push(listener);" +
-														"break;" +
-													"case 'state':" +
-														"this.listeners.state.push(listener);" +
-														"break;" +
-												"}" +
-											"}" +
-										" }," +
-					"removeEventListener: function(type, listener) { " +
-											"if(typeof type == 'string') {" +
-												"switch(type) {" +
-													"case 'sls':" +
-														"remListener = this.listeners.sls.indexOf(listener);" +
-														"if(remListener > -1) {" +
-															"this.listeners.sls.splice(remListener, 1);" +
-														"};" +
-														"break;" +
-													"case 'dls':" +
-														"remListener = this.listeners.dls.indexOf(listener);" +
-														"if(remListener > -1) {" +
-															"this.listeners.dls.splice(remListener, 1);" +
-														"};" +
-														"break;" +
-													"case 'epg':" +
-														"remListener = this.listeners.epg.indexOf(listener);" +
-														"if(remListener > -1) {" +
-															"this.listeners.epg.splice(remListener, 1);" +
-														"};" +
-														"break;" +
-													"case 'state':" +
-														"remListener = this.listeners.state.indexOf(listener);" +
-														"if(remListener > -1) {" +
-															"this.listeners.state.splice(remListener, 1);" +
-														"};" +
-														"break;" +
-												"}" +
-											"}" +
-										" }" +
-					"}";
+		BridgeJson.beginIpServiceData(writer, handle, ipSrv.getRadioServiceType().toString(), ipSrv.getServiceLabel());
+		for(RadioServiceIpStream ipStream : ipSrv.getIpStreams()) {
+			BridgeJson.writeIpStream(writer, ipStream.getUrl(), ipStream.getBitrate(), ipStream.getMimeType().getMimeTypeString(),
+					ipStream.getCost(), ipStream.getOffset());
 		}
+		BridgeJson.endIpServiceData(writer);
+	}
 
-		return null;
+	private static final String JSON_CALL_TASK                          = "task";
+	private static final String JSON_SERVICE_TASK_START                 = "serviceStart";
+	private static final String JSON_SERVICE_TASK_STOP                  = "serviceStop";
+	private static final String JSON_SERVICE_TASK_SETVOLUME             = "setVolume";
+	private static final String JSON_SERVICE                            = "service";
+	private static final String JSON_SERVICE_HANDLE                     = "handle";
+	private static final String JSON_SERVICE_TYPE                       = "type";
+	private static final String JSON_SERVICE_IP_ID                      = "id";
+	private static final String JSON_SERVICE_DAB_SERVICEID              = "serviceId";
+	private static final String JSON_SERVICE_DAB_ENSEMBLEID             = "ensembleId";
+	private static final String JSON_SERVICE_DAB_ENSEMBLE_ECC           = "ensembleEcc";
+
+	//Timeshift
+	private static final String JSON_SERVICE_TASK_TIMESHIFT_PAUSE       = "timeshiftPause";
+	private static final String JSON_SERVICE_TASK_TIMESHIFT_SEEK        = "timeshiftSeek";
+	private static final String JSON_SERVICE_TASK_TIMESHIFT_SKIPTO      = "skipTo";
+
+	private static final String JSON_GENERAL_LOGBACK                    = "logBack";
+	private static final String JSON_GENERAL_METRICS                    = "metrics";
+	private static final String JSON_GENERAL_OPEN_CHANNEL               = "openChannel";
+
+	//serviceStart and serviceStop calls not settled by the tuner within this time are rejected
+	private static final long SERVICE_CALL_TIMEOUT_MS = 10000;
+
+	private final BridgeCommandRouter mCommandRouter = new BridgeCommandRouter(new BridgeCommandRouter.Responder() {
+		@Override
+		public void settle(BridgeCommandRouter.Call call, boolean resolved, String result) {
+			if(!resolved) {
+				if(DEBUG)Log.d(TAG, "Rejecting " + call.mTask + ": " + result);
+			}
+
+			//the page does not wait for the result or is already gone
+			if(call.mCallId < 0 || call.mPageGeneration != mPageGeneration) {
+				return;
+			}
+
+			mJsDispatcher.postMessage(BridgeCommandRouter.createSettleMessage(call, resolved, result));
+		}
+	});
+
+	//arms the timeouts of the service calls from the worker thread, independent of the view being attached
+	private final Handler mServiceCallTimeoutHandler = new Handler(Looper.getMainLooper());
+	//serviceStart and serviceStop calls waiting for the tuner, by service handle
+	private final HashMap<Integer, ArrayList<BridgeCommandRouter.Call>> mPendingStartCalls = new HashMap<>();
+	private final HashMap<Integer, ArrayList<BridgeCommandRouter.Call>> mPendingStopCalls = new HashMap<>();
+
+	private void awaitServiceCall(final HashMap<Integer, ArrayList<BridgeCommandRouter.Call>> pendingCalls, final int srvHandle, final BridgeCommandRouter.Call call) {
+		synchronized (pendingCalls) {
+			ArrayList<BridgeCommandRouter.Call> srvCalls = pendingCalls.get(srvHandle);
+			if(srvCalls == null) {
+				srvCalls = new ArrayList<>();
+				pendingCalls.put(srvHandle, srvCalls);
+			}
+			srvCalls.add(call);
+		}
+
+		mServiceCallTimeoutHandler.postDelayed(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (pendingCalls) {
+					ArrayList<BridgeCommandRouter.Call> srvCalls = pendingCalls.get(srvHandle);
+					if(srvCalls != null) {
+						srvCalls.remove(call);
+						if(srvCalls.isEmpty()) {
+							pendingCalls.remove(srvHandle);
+						}
+					}
+				}
+				call.reject("Timeout");
+			}
+		}, SERVICE_CALL_TIMEOUT_MS);
 	}
 
-	private String createIpJsService(RadioService srv) {
-		if(srv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_IP) {
-			RadioServiceIp ipSrv = (RadioServiceIp)srv;
-
-			StringBuilder ipSrvBuilder = new StringBuilder(
-			 "{" +
-						"type: '" + ipSrv.getRadioServiceType().toString() + "'," +
-						"serviceLabel: '" + ipSrv.getServiceLabel().replace("'", "\\'") + "'," +
-						"listeners: {sls: [], dls: [], epg: [], state: []}" + "," +
-						"start: function() { radioWeb.javaCall(JSON.stringify({service: this, task: 'serviceStart'})); }" + "," +
-						"addEventListener: function(type, listener) { " +
-							"if(typeof type == 'string') {" +
-								"switch(type) {" +
-									"case 'sls':" +
-										"this.listeners.sls.push(listener);" +
-					                    //"radioWeb.javaCall(JSON.stringify({msg: 'SLS listener added', task: 'logBack'}));" +
-										"break;" +
-									"case 'dls':" +
-										"this.listeners.dls.push(listener);" +
-					                    //"radioWeb.javaCall(JSON.stringify({msg: 'DLS listener added', task: 'logBack'}));" +
-										"break;" +
-									"case 'epg':" +
-										"this.listeners.epg.push(listener);" +
-										"break;" +
-									"case 'state':" +
-										"this.listeners.state.push(listener);" +
-					                    //"radioWeb.javaCall(JSON.stringify({msg: 'State listener added', task: 'logBack'}));" +
-										"break;" +
-								"}" +
-							"}" +
-						" }," +
-						"removeEventListener: function(type, listener) { " +
-							"if(typeof type == 'string') {" +
-								"switch(type) {" +
-									"case 'sls':" +
-										"remListener = this.listeners.sls.indexOf(listener);" +
-										"if(remListener > -1) {" +
-											"this.listeners.sls.splice(remListener, 1);" +
-										"};" +
-										"break;" +
-									"case 'dls':" +
-										"remListener = this.listeners.dls.indexOf(listener);" +
-										"if(remListener > -1) {" +
-											"this.listeners.dls.splice(remListener, 1);" +
-										"};" +
-										"break;" +
-									"case 'epg':" +
-										"remListener = this.listeners.epg.indexOf(listener);" +
-										"if(remListener > -1) {" +
-											"this.listeners.epg.splice(remListener, 1);" +
-										"};" +
-										"break;" +
-									"case 'state':" +
-										"remListener = this.listeners.state.indexOf(listener);" +
-										"if(remListener > -1) {" +
-											"this.listeners.state.splice(remListener, 1);" +
-										"};" +
-										"break;" +
-								"}" +
-							"}" +
-						" },"
-			);
+	private void resolveServiceCalls(HashMap<Integer, ArrayList<BridgeCommandRouter.Call>> pendingCalls, int srvHandle) {
+		ArrayList<BridgeCommandRouter.Call> srvCalls;
+		synchronized (pendingCalls) {
+			srvCalls = pendingCalls.remove(srvHandle);
+		}
 
-			ipSrvBuilder.append("id: " + ipSrv.hashCode() + ",");
-			ipSrvBuilder.append("streams: [");
-			for(RadioServiceIpStream ipStream : ipSrv.getIpStreams()) {
-				ipSrvBuilder.append("{");
-					ipSrvBuilder.append("url: '" + ipStream.getUrl() + "',");
-					ipSrvBuilder.append("bitrate: " + ipStream.getBitrate() + ",");
-					ipSrvBuilder.append("mimeType: '" + ipStream.getMimeType().getMimeTypeString() + "',");
-					ipSrvBuilder.append("cost: " + ipStream.getCost() + ",");
-					ipSrvBuilder.append("offset: " + ipStream.getOffset());
-				ipSrvBuilder.append("},");
+		if(srvCalls != null) {
+			for(BridgeCommandRouter.Call call : srvCalls) {
+				call.resolve(null);
 			}
+		}
+	}
 
-			//remove last char
-			ipSrvBuilder.setLength(ipSrvBuilder.length()-1);
-			ipSrvBuilder.append("]");
+	private void clearServiceCalls() {
+		synchronized (mPendingStartCalls) {
+			mPendingStartCalls.clear();
+		}
+		synchronized (mPendingStopCalls) {
+			mPendingStopCalls.clear();
+		}
+	}
 
-			ipSrvBuilder.append("}"); //END
+	private void rejectServiceCalls(HashMap<Integer, ArrayList<BridgeCommandRouter.Call>> pendingCalls, String error) {
+		ArrayList<BridgeCommandRouter.Call> calls = new ArrayList<>();
+		synchronized (pendingCalls) {
+			for(ArrayList<BridgeCommandRouter.Call> srvCalls : pendingCalls.values()) {
+				calls.addAll(srvCalls);
+			}
+			pendingCalls.clear();
+		}
 
-			return ipSrvBuilder.toString();
+		for(BridgeCommandRouter.Call call : calls) {
+			call.reject(error);
 		}
+	}
+
+	private boolean isServiceRunning(RadioService srv) {
+		for(Tuner tuner : Radio.getInstance().getAvailableTuners()) {
+			if(srv.equals(tuner.getCurrentRunningRadioService())) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private void registerBridgeCommands() {
+		//tuning may take long, the service and timeshift commands are executed in order on the worker
+		mCommandRouter.register(JSON_SERVICE_TASK_START, true, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) throws JSONException {
+				if(DEBUG)Log.d(TAG, "Starting Service from JS call!");
+				RadioService srv = getServiceFromJson(new JSONObject(args));
+				if(srv == null) {
+					call.reject("Unknown service");
+					return;
+				}
+
+				//TODO dont play Shoutcast services when timeshiftplayer active
+				if(srv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_IP) {
+					if(DEBUG)Log.d(TAG, "Not Tuning IP_SHOUTCAST service: " + srv.getServiceLabel());
+					call.reject("Service type not supported");
+					return;
+				}
+				if(isServiceRunning(srv)) {
+					call.resolve(null);
+					return;
+				}
+
+				//resolved by radioServiceStarted
+				awaitServiceCall(mPendingStartCalls, mServiceHandles.getHandle(srv), call);
+				Radio.getInstance().startRadioService(srv);
+			}
+		});
+		mCommandRouter.register(JSON_SERVICE_TASK_STOP, true, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) throws JSONException {
+				if(DEBUG)Log.d(TAG, "Stopping Service from JS call!");
+				RadioService srv = getServiceFromJson(new JSONObject(args));
+				if(srv == null) {
+					call.reject("Unknown service");
+					return;
+				}
+				if(!isServiceRunning(srv)) {
+					call.resolve(null);
+					return;
+				}
+
+				//resolved by radioServiceStopped
+				awaitServiceCall(mPendingStopCalls, mServiceHandles.getHandle(srv), call);
+				Radio.getInstance().stopRadioService(srv);
+			}
+		});
+		mCommandRouter.register(JSON_SERVICE_TASK_SETVOLUME, false, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) throws JSONException {
+				if(DEBUG)Log.d(TAG, "Setting volume from JS call!");
+				int newVolume = new JSONObject(args).getInt("volume");
+
+				if(mAudiotrackServiceBound) {
+					if(mAudiotrackService != null) {
+						mAudiotrackService.setVolume(newVolume);
+
+						int setVolume = Math.min(Math.max(newVolume, 0), 100);
+						//settled after the volume update, the state is delivered before the settlement
+						mBridgeState.setVolume(setVolume);
+						call.resolve(String.valueOf(setVolume));
+						return;
+					}
+				}
+
+				call.reject("No audio output");
+			}
+		});
+		mCommandRouter.register(JSON_SERVICE_TASK_TIMESHIFT_PAUSE, true, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) throws JSONException {
+				if(DEBUG)Log.d(TAG, "pausing timeshiftplayer from JS call!");
+
+				boolean pause = new JSONObject(args).getBoolean("pause");
+				if(mTimeshiftPlayer != null) {
+					mTimeshiftPlayer.pause(pause);
+					call.resolve(null);
+				} else {
+					call.reject("No timeshift");
+				}
+			}
+		});
+		mCommandRouter.register(JSON_SERVICE_TASK_TIMESHIFT_SEEK, true, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) throws JSONException {
+				if(DEBUG)Log.d(TAG, "seeking timeshiftplayer from JS call!");
+
+				long seekMs = new JSONObject(args).getLong("seekpos");
+				if(mTimeshiftPlayer != null) {
+					if(mTimeshiftPlayer.getDuration() >= seekMs) {
+						mTimeshiftPlayer.seek(seekMs);
+						call.resolve(String.valueOf(seekMs));
+					} else {
+						if(DEBUG)Log.d(TAG, "Wanted seekPos out of range, wanted: " + seekMs + ", duration: " + mTimeshiftPlayer.getDuration());
+						call.reject("Seek position out of range");
+					}
+				} else {
+					call.reject("No timeshift");
+				}
+			}
+		});
+		mCommandRouter.register(JSON_SERVICE_TASK_TIMESHIFT_SKIPTO, true, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) throws JSONException {
+				if(DEBUG)Log.d(TAG, "skipTo timeshiftplayer from JS call!");
+
+				if(mTimeshiftPlayer != null) {
+					JSONObject skipObj = new JSONObject(args).getJSONObject("skipItem");
+					SkipItem skipItem = OmriEventData.getSkipItem(mEventTranslator.getSkipItem(skipObj.optLong("relativeSkipPoint")));
+					if(skipItem != null) {
+						mTimeshiftPlayer.skipTo(skipItem);
+						call.resolve(null);
+					} else {
+						if(DEBUG)Log.d(TAG, "No SkipItem at relativeSkipPoint: " + skipObj.optLong("relativeSkipPoint"));
+						call.reject("Unknown skip item");
+					}
+				} else {
+					call.reject("No timeshift");
+				}
+			}
+		});
+		mCommandRouter.register(JSON_GENERAL_OPEN_CHANNEL, false, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) throws JSONException {
+				final int pageGeneration = new JSONObject(args).optInt("generation", -1);
+				executeOnMainThread(new Runnable() {
+					@Override
+					public void run() {
+						openMessageChannel(pageGeneration);
+					}
+				});
+				call.resolve(null);
+			}
+		});
+		mCommandRouter.register(JSON_GENERAL_METRICS, false, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) throws JSONException {
+				if(!mJsMetricsEnabled) {
+					call.reject("Metrics not enabled");
+					return;
+				}
 
-		return null;
+				JsWriter metricsWriter = JsWriter.obtain();
+				mBridgeMetrics.writeJson(metricsWriter);
+				call.resolve(metricsWriter.release());
+			}
+		});
+		mCommandRouter.register(JSON_GENERAL_LOGBACK, false, new BridgeCommandRouter.Command() {
+			@Override
+			public void execute(String args, BridgeCommandRouter.Call call) throws JSONException {
+				if(DEBUG)Log.d(TAG, "LogBack: " + new JSONObject(args).getString("msg"));
+				call.resolve(null);
+			}
+		});
 	}
 
-	private static final String JSON_CALL_TASK                          = "task";
-	private static final String JSON_SERVICE_TASK_START                 = "serviceStart";
-	private static final String JSON_SERVICE_TASK_STOP                  = "serviceStop";
-	private static final String JSON_SERVICE_TASK_SETVOLUME             = "setVolume";
-	private static final String JSON_SERVICE                            = "service";
-	private static final String JSON_SERVICE_TYPE                       = "type";
-	private static final String JSON_SERVICE_DAB_SERVICEID              = "serviceId";
-	private static final String JSON_SERVICE_DAB_ENSEMBLEID             = "ensembleId";
-	private static final String JSON_SERVICE_DAB_ENSEMBLE_ECC           = "ensembleEcc";
+	/**
+	 * Call from the radioWeb object
+	 * @param task the task of the call
+	 * @param args the JSON arguments of the call
+	 */
+	@JavascriptInterface
+	public void javaCall(String task, String args) {
+		javaCall(task, args, -1);
+	}
 
-	//Timeshift
-	private static final String JSON_SERVICE_TASK_TIMESHIFT_PAUSE       = "timeshiftPause";
-	private static final String JSON_SERVICE_TASK_TIMESHIFT_SEEK        = "timeshiftSeek";
-	private static final String JSON_SERVICE_TASK_TIMESHIFT_SKIPTO      = "skipTo";
+	/**
+	 * Call from the radioWeb object which waits for its result
+	 * @param task the task of the call
+	 * @param args the JSON arguments of the call
+	 * @param callId the id the result is delivered for with radioWeb.settleCall or -1 if no result is wanted
+	 */
+	@JavascriptInterface
+	public void javaCall(String task, String args, long callId) {
+		if(DEBUG)Log.d(TAG, "JavaCall from RadioWeb: " + task + " : " + callId + " : " + args);
 
-	private static final String JSON_GENERAL_LOGBACK                    = "logBack";
+		mCommandRouter.route(task, args, callId, mPageGeneration);
+	}
 
+	/**
+	 * Call from the radioWeb object with the task inside the JSON object
+	 * @param call the JSON object of the call
+	 */
 	@JavascriptInterface
 	public void javaCall(String call) {
-		Log.d(TAG, "JavaCall from RadioWeb: " + call);
+		if(DEBUG)Log.d(TAG, "JavaCall from RadioWeb: " + call);
 
 		try {
-			JSONObject callObj = new JSONObject(call);
-			if(callObj.has(JSON_CALL_TASK)) {
-				if(callObj.getString(JSON_CALL_TASK).equals(JSON_SERVICE_TASK_START)) {
-					if(DEBUG)Log.d(TAG, "Starting Service from JS call!");
-					RadioService srv = getServiceFromJson(callObj.getJSONObject(JSON_SERVICE));
-					if(srv != null) {
-						//TODO dont play Shoutcast services when timeshiftplayer active
-						if(srv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_IP) {
-							if(DEBUG)Log.d(TAG, "Not Tuning IP_SHOUTCAST service: " + srv.getServiceLabel());
-							return;
-						}
-
-						Radio.getInstance().startRadioService(srv);
-					}
-				}
-				if(callObj.getString(JSON_CALL_TASK).equals(JSON_SERVICE_TASK_STOP)) {
-					if(DEBUG)Log.d(TAG, "Stopping Service from JS call!");
-					RadioService srv = getServiceFromJson(callObj.getJSONObject(JSON_SERVICE));
-					if(srv != null) {
-						Radio.getInstance().stopRadioService(srv);
-					}
-				}
-				if(callObj.getString(JSON_CALL_TASK).equals(JSON_SERVICE_TASK_SETVOLUME)) {
-					if(DEBUG)Log.d(TAG, "Setting volume from JS call!");
-					int newVolume = callObj.getInt("volume");
-
-					if(mAudiotrackServiceBound) {
-						if(mAudiotrackService != null) {
-							mAudiotrackService.setVolume(newVolume);
-
-							final String setRwebVol = "javascript:" +
-									"radioWeb.volume = " + Math.min(Math.max(newVolume, 0), 100) + ";";
-
-							executeOnMainThread(new Runnable() {
-								@Override
-								public void run() {
-									evaluateJavascript(setRwebVol, null);
-								}
-							});
-						}
-					}
-				}
-				if(callObj.getString(JSON_CALL_TASK).equals(JSON_SERVICE_TASK_TIMESHIFT_PAUSE)) {
-					if(DEBUG)Log.d(TAG, "pausing timeshiftplayer from JS call!");
+			mCommandRouter.route(new JSONObject(call).optString(JSON_CALL_TASK, null), call, -1, mPageGeneration);
+		} catch(JSONException jsonExc) {
+			if(DEBUG)jsonExc.printStackTrace();
+		}
+	}
 
-					boolean pause = callObj.getBoolean("pause");
-					if(mTimeshiftPlayer != null) {
-						mTimeshiftPlayer.pause(pause);
-					}
-				}
-				if(callObj.getString(JSON_CALL_TASK).equals(JSON_SERVICE_TASK_TIMESHIFT_SEEK)) {
-					if(DEBUG)Log.d(TAG, "seeking timeshiftplayer from JS call!");
-
-					long seekMs = callObj.getLong("seekpos");
-					if(mTimeshiftPlayer != null) {
-						if(mTimeshiftPlayer.getDuration() >= seekMs) {
-							mTimeshiftPlayer.seek(seekMs);
-						} else {
-							if(DEBUG)Log.d(TAG, "Wanted seekPos out of range, wanted: " + seekMs + ", duration: " + mTimeshiftPlayer.getDuration());
-						}
-					}
-				}
-				if(callObj.getString(JSON_CALL_TASK).equals(JSON_SERVICE_TASK_TIMESHIFT_SKIPTO)) {
-					if(DEBUG)Log.d(TAG, "skipTo timeshiftplayer from JS call!");
-
-					if(mTimeshiftPlayer != null) {
-						JSONObject skipObj = callObj.getJSONObject("skipItem");
-						if(skipObj != null) {
-							long jsonSkipPos = skipObj.optLong("relativeSkipPoint");
-							for (SkipItem srchItem : mTimeshiftPlayer.getSkipItems()) {
-								if (srchItem.getRelativeTimepoint() == jsonSkipPos) {
-									mTimeshiftPlayer.skipTo(srchItem);
-								}
-							}
-						}
-					}
-				}
-				if(callObj.getString(JSON_CALL_TASK).equals(JSON_GENERAL_LOGBACK)) {
-					if(DEBUG)Log.d(TAG, "LogBack: " + callObj.getString("msg"));
-				}
+	//call received on the message port, the task and the call id followed by the JSON arguments
+	private void portCall(String call) {
+		if(DEBUG)Log.d(TAG, "PortCall from RadioWeb: " + call);
+
+		int taskEnd = call != null ? call.indexOf(PORT_CALL_SEPARATOR) : -1;
+		int callIdEnd = taskEnd > 0 ? call.indexOf(PORT_CALL_SEPARATOR, taskEnd + 1) : -1;
+		if(callIdEnd > 0) {
+			long callId;
+			try {
+				callId = Long.parseLong(call.substring(taskEnd + 1, callIdEnd));
+			} catch(NumberFormatException numExc) {
+				if(DEBUG)Log.d(TAG, "Malformed call id: " + call);
+				return;
 			}
-		} catch(JSONException jsonExc) {
-			jsonExc.printStackTrace();
+
+			mCommandRouter.route(call.substring(0, taskEnd), call.substring(callIdEnd + 1), callId, mPageGeneration);
 		}
 	}
 
-	private RadioService getServiceFromJson(JSONObject srvJson) {
+	private RadioService getServiceFromJson(JSONObject callObj) {
 		try {
+			if(callObj.has(JSON_SERVICE_HANDLE)) {
+				RadioService srv = mServiceHandles.getService(callObj.getInt(JSON_SERVICE_HANDLE));
+				if(DEBUG)Log.d(TAG, "Found service for handle: " + callObj.getInt(JSON_SERVICE_HANDLE) + " : " + (srv != null ? srv.getServiceLabel() : "null"));
+
+				return srv;
+			}
+
+			//legacy calls with the service object
+			JSONObject srvJson = callObj.getJSONObject(JSON_SERVICE);
+			if(srvJson.has(JSON_SERVICE_HANDLE)) {
+				return mServiceHandles.getService(srvJson.getInt(JSON_SERVICE_HANDLE));
+			}
+			//the id of an IP service is the deprecated alias of its handle
+			if(srvJson.getString(JSON_SERVICE_TYPE).equals(RadioServiceType.RADIOSERVICE_TYPE_IP.toString()) && srvJson.has(JSON_SERVICE_IP_ID)) {
+				return mServiceHandles.getService(srvJson.getInt(JSON_SERVICE_IP_ID));
+			}
 			if(srvJson.getString(JSON_SERVICE_TYPE).equals(RadioServiceType.RADIOSERVICE_TYPE_DAB.toString()) || srvJson.getString(JSON_SERVICE_TYPE).equals(RadioServiceType.RADIOSERVICE_TYPE_EDI.toString())) {
 				int serviceId = srvJson.getInt(JSON_SERVICE_DAB_SERVICEID);
 				int ensembleId = srvJson.getInt(JSON_SERVICE_DAB_ENSEMBLEID);
 				int ensembleEcc = srvJson.getInt(JSON_SERVICE_DAB_ENSEMBLE_ECC);
 
-				for(RadioService srv : Radio.getInstance().getRadioServices()) {
-					if(srv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_DAB || srv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_EDI) {
-						RadioServiceDab dabSrv = (RadioServiceDab)srv;
-						if(dabSrv.getServiceId() == serviceId && dabSrv.getEnsembleId() == ensembleId && dabSrv.getEnsembleEcc() == ensembleEcc) {
-							if(DEBUG)Log.d(TAG, "Found wanted service: " + dabSrv.getServiceLabel());
-
-							return dabSrv;
-						}
-					}
-				}
-			}
-			if(srvJson.getString(JSON_SERVICE_TYPE).equals(RadioServiceType.RADIOSERVICE_TYPE_IP.toString())) {
-				int idHash = srvJson.getInt("id");
-				for(RadioService srv : Radio.getInstance().getRadioServices()) {
-					if(srv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_IP) {
-						if(srv.hashCode() == idHash) {
-							if(DEBUG)Log.d(TAG, "Found IPService: " + srv.hashCode() + " : " + idHash + " : " + srv.getServiceLabel());
-
-							return srv;
-						}
-					}
-				}
+				return mServiceHandles.getService(mServiceHandles.getHandle(ServiceHandleTable.getDabServiceKey(srvJson.getString(JSON_SERVICE_TYPE), ensembleEcc, ensembleId, serviceId)));
 			}
 		} catch(JSONException exc) {
 			if(DEBUG)exc.printStackTrace();
@@ -807,77 +1620,49 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 		return null;
 	}
 
-	private void getJsServiceIdx(RadioService srv, final ValueCallback<String> valCb) {
-		if(srv != null && valCb != null) {
-			String getJsSrvIdx = "";
-			if (srv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_DAB) {
-				RadioServiceDab dabSrv = (RadioServiceDab) srv;
-				getJsSrvIdx = "javascript:" +
-						"(function() {" +
-						"for(var i = 0; i < radioWeb.services.length; i++) {" +
-						"if(radioWeb.services[i].type == '" + RadioServiceType.RADIOSERVICE_TYPE_DAB.toString() + "') {" +
-						"if(radioWeb.services[i].serviceId == " + dabSrv.getServiceId() + " && " +
-						"radioWeb.services[i].ensembleId == " + dabSrv.getEnsembleId() + " && " +
-						"radioWeb.services[i].ensembleEcc == " + dabSrv.getEnsembleEcc() +
-						") {" +
-						"return i;" +
-						"}" +
-						"}" +
-						"}" +
-						"})()";
-			}
-			if (srv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_EDI) {
-				RadioServiceDab dabSrv = (RadioServiceDab) srv;
-				getJsSrvIdx = "javascript:" +
-						"(function() {" +
-							"if(radioWeb != null && radioWeb.services != null) {" +
-								"for(var i = 0; i < radioWeb.services.length; i++) {" +
-									"if(radioWeb.services[i].type == '" + RadioServiceType.RADIOSERVICE_TYPE_EDI.toString() + "') {" +
-										"if(radioWeb.services[i].serviceId == " + dabSrv.getServiceId() + " && " +
-											"radioWeb.services[i].ensembleId == " + dabSrv.getEnsembleId() + " && " +
-											"radioWeb.services[i].ensembleEcc == " + dabSrv.getEnsembleEcc() +
-										") {" +
-											"return i;" +
-										"}" +
-									"}" +
-								"}" +
-							"} else { console.log('radioWeb object is null'); return null; }" +
-						"})()";
-			}
-			if (srv.getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_IP) {
-				getJsSrvIdx = "javascript:" +
-						"(function() {" +
-						"for(var i = 0; i < radioWeb.services.length; i++) {" +
-						"if(radioWeb.services[i].type == '" + RadioServiceType.RADIOSERVICE_TYPE_IP.toString() + "') {" +
-						"if(radioWeb.services[i].id == " + srv.hashCode() + ") {" +
-						"return i;" +
-						"}" +
-						"}" +
-						"}" +
-						"})()";
-			}
+	//Executes the given Runnable on the main (UI) thread
+	private volatile boolean mMessageChannelEnabled = true;
+	/**
+	 * Enables the delivery of the radioWeb events through a {@link WebMessagePort} instead of evaluated scripts.
+	 * Requires Android M, enabled by default. Takes effect with the next page load.
+	 * @param enabled {@code true} to use a message channel if available
+	 */
+	public void setMessageChannelEnabled(boolean enabled) {
+		mMessageChannelEnabled = enabled;
+	}
 
-			//this.evaluateJavascript(getJsSrvIdx, valCb);
+	private boolean isMessageChannelSupported() {
+		return mMessageChannelEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+	}
 
-			final String evalString = getJsSrvIdx;
-			executeOnMainThread(new Runnable() {
-				@Override
-				public void run() {
-					evaluateJavascript(evalString, valCb);
-				}
-			});
+	//hands one port of a new message channel to the page, requested by the radioWeb runtime of the page
+	@TargetApi(Build.VERSION_CODES.M)
+	private void openMessageChannel(int pageGeneration) {
+		if(!isMessageChannelSupported() || pageGeneration != mPageGeneration || mJsDispatcher.hasMessageChannel()) {
+			if(DEBUG)Log.d(TAG, "Not opening message channel for page generation: " + pageGeneration);
+			return;
 		}
+
+		if(DEBUG)Log.d(TAG, "Opening message channel");
+		WebMessagePort[] channelPorts = createWebMessageChannel();
+		channelPorts[0].setWebMessageCallback(new WebMessagePort.WebMessageCallback() {
+			@Override
+			public void onMessage(WebMessagePort port, WebMessage message) {
+				portCall(message.getData());
+			}
+		});
+
+		//scripts queued so far are evaluated before the page receives the port
+		mBridgeHost.setPort(channelPorts[0]);
+		postWebMessage(new WebMessage(JS_MESSAGE_PORT_NAME, new WebMessagePort[]{channelPorts[1]}), Uri.parse("*"));
 	}
 
-	//Executes the given Runnable on the main (UI) thread
 	private void executeOnMainThread(Runnable runnable) {
-		if(runnable != null) {
-			new Handler(mContext.getMainLooper()).post(runnable);
-		}
+		mJsDispatcher.runOnMainThread(runnable);
 	}
 
 	/*  */
-	private boolean mWebViewFinished = false;
+	private volatile boolean mWebViewFinished = false;
 	private class RadioWebViewClient extends WebViewClient {
 
 		private WebView mwebView = null;
@@ -929,13 +1714,65 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 
 		}
 
+		@SuppressWarnings("deprecation")
+		@Override
+		public WebResourceResponse shouldInterceptRequest(WebView view, String url) {
+			WebResourceResponse slideResponse = getSlideResponse(url);
+			if(slideResponse != null) {
+				return slideResponse;
+			}
+
+			return super.shouldInterceptRequest(view, url);
+		}
+
+		@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+		@Override
+		public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
+			if(request != null && request.getUrl() != null) {
+				WebResourceResponse slideResponse = getSlideResponse(request.getUrl().toString());
+				if(slideResponse != null) {
+					return slideResponse;
+				}
+			}
+
+			return super.shouldInterceptRequest(view, request);
+		}
+
+		//serves the slideshow images from the SlideCache, called on a WebView background thread
+		private WebResourceResponse getSlideResponse(String url) {
+			SlideCache.Slide slide = mEventTranslator.getSlideCache().getSlide(url);
+			if(slide != null) {
+				if(DEBUG)Log.d(TAG, "Serving slide: " + url + " with size: " + slide.mData.length);
+				return new WebResourceResponse(slide.mMimeType, null, new ByteArrayInputStream(slide.mData));
+			}
+
+			return null;
+		}
+
 		@Override
 		public void onPageStarted(WebView view, String url, Bitmap favicon) {
 			if(DEBUG)Log.d(TAG, "onPageStarted: " + url);
 
 			mNotifiedReady = false;
 			mWebViewFinished = false;
-			mTimeshiftJsSrvIdx = -1;
+			mTimeshiftSrvHandle = -1;
+			mPageGeneration++;
+			mEventTranslator.setPageGeneration(mPageGeneration);
+			//calls of the previous page are not settled anymore
+			clearServiceCalls();
+			mServiceSnapshot.reset();
+			mScanBatchSlot.clear();
+			//the state is synced again after the radioWeb object of the new page is created
+			mBridgeState.detach();
+			//scripts queued for the previous page
+			mJsDispatcher.clear();
+			mBridgeHost.setPort(null);
+			if(mTimeshiftProgressSlot != null) {
+				mTimeshiftProgressSlot.clear();
+			}
+			//the radioWeb object and the services are prepared while the page loads
+			mBootstrapPayload = null;
+			scheduleBootstrap();
 
 			if(mwebView != null) {
 				if(DEBUG)Log.d(TAG, "Removing old interface");
@@ -958,20 +1795,10 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 			if(!url.equals("about:blank")) {
 				mWebViewFinished = true;
 
-				boolean allReady = true;
-				for(Tuner availTuner : Radio.getInstance().getAvailableTuners()) {
-					if(availTuner.getTunerStatus() != TunerStatus.TUNER_STATUS_INITIALIZED) {
-						allReady = false;
-						break;
-					}
-				}
-				if(allReady && !mNotifiedReady) {
+				if(isRadioWebInitPossible() && !mNotifiedReady) {
 					if(DEBUG)Log.d(TAG, "Initializing RadioWeb onPageFinished");
 
-					((RadioWebView) view).createRadioWebJsObj();
-					((RadioWebView) view).fillRadioServicesJs();
-					((RadioWebView) view).updateActiveServicesJs();
-					((RadioWebView) view).notifyRadioWebReady();
+					((RadioWebView) view).initRadioWebJs();
 				}
 			} else {
 				if(DEBUG)Log.d(TAG, "onPageFinished not loading after reset to: " + url);
@@ -990,154 +1817,119 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 	public void tunerStatusChanged(Tuner tuner, TunerStatus tunerStatus) {
 		if(DEBUG)Log.d(TAG, "Tuner " + tuner.getTunerType() + " status changed to: " + tunerStatus.toString());
 
-		boolean allReady = true;
-		for(Tuner availTuner : Radio.getInstance().getAvailableTuners()) {
-			if(availTuner.getTunerStatus() != TunerStatus.TUNER_STATUS_INITIALIZED) {
-				if(DEBUG)Log.d(TAG, "Tuner is not ready from " + Radio.getInstance().getAvailableTuners().size());
-				allReady = false;
-				break;
-			}
+		boolean allReady = mTunerReadiness.statusChanged(tuner, tunerStatus);
+		invalidateBootstrap();
+		mBridgeState.setStatus(getRadioStatusString());
+		if(!allReady) {
+			if(DEBUG)Log.d(TAG, "Tuners not ready: " + mTunerReadiness.getPendingCount());
 		}
 		if(allReady && mWebViewFinished && !mNotifiedReady) {
 			if(DEBUG)Log.d(TAG, "Initializing RadioWeb onTunerStatusChanged");
-			executeOnMainThread(new Runnable() {
-				@Override
-				public void run() {
-					createRadioWebJsObj();
-					fillRadioServicesJs();
-					updateActiveServicesJs();
-					notifyRadioWebReady();
-				}
-			});
+			radioWebReadyCheck();
+		}
+		if(allReady) {
+			reconcileProvisionalServices();
 		}
 	}
 
 	@Override
 	public void tunerScanStarted(Tuner tuner) {
-
+		if(DEBUG)Log.d(TAG, "Scan started on tuner: " + tuner.getTunerType());
+		if(mNotifiedReady) {
+			notifyScanJs("scanStarted", tuner, -1);
+		}
 	}
 
 	@Override
-	public void tunerScanProgress(Tuner tuner, int i) {
-
+	public void tunerScanProgress(Tuner tuner, int percentDone) {
+		if(mNotifiedReady) {
+			notifyScanJs("scanProgress", tuner, percentDone);
+		}
 	}
 
 	@Override
 	public void tunerScanFinished(Tuner tuner) {
+		invalidateBootstrap();
 		if(mNotifiedReady) {
-			executeOnMainThread(new Runnable() {
-				@Override
-				public void run() {
-					fillRadioServicesJs();
-				}
-			});
-
-			final String notify = "javascript:" +
-					"if(radioWeb != null) {" +
-					"radioWeb.listeners.servicesUpdated.forEach(function(cb) { cb( radioWeb.services ); });" +
-					"}";
-
-			executeOnMainThread(new Runnable() {
-				@Override
-				public void run() {
-					evaluateJavascript(notify, null);
-				}
-			});
+			updateRadioServicesJs();
+			notifyScanJs("scanFinished", tuner, -1);
 		}
 	}
 
 	@Override
 	public void tunerScanServiceFound(Tuner tuner, RadioService radioService) {
+		invalidateBootstrap();
+		if(mNotifiedReady && radioService != null) {
+			publishFoundServiceJs(radioService);
+		}
+	}
+
+	//one metadata handler per running service by service handle, services may be started and stopped concurrently by several tuners
+	private final ConcurrentHashMap<Integer, RadioMetadataHandler> mMetadataHandlers = new ConcurrentHashMap<>();
+
+	private void subscribeMetadataHandler(RadioService radioService, int srvHandle) {
+		RadioMetadataHandler metadataHandler = new RadioMetadataHandler(srvHandle);
+		RadioMetadataHandler oldHandler = mMetadataHandlers.put(srvHandle, metadataHandler);
+		if(oldHandler != null) {
+			radioService.unsubscribe(oldHandler);
+		}
+		radioService.subscribe(metadataHandler);
+	}
 
+	private void unsubscribeMetadataHandler(RadioService radioService, int srvHandle) {
+		RadioMetadataHandler metadataHandler = mMetadataHandlers.remove(srvHandle);
+		if(metadataHandler != null) {
+			if(DEBUG)Log.d(TAG, "Unregistering metadataHandler for SrvHandle: " + srvHandle);
+			radioService.unsubscribe(metadataHandler);
+		}
 	}
 
-	RadioMetadataHandler mMetadataHandler = null;
 	@Override
 	public void radioServiceStarted(Tuner tuner, final RadioService radioService) {
+		long receivedNanos = System.nanoTime();
+		mBridgeMetrics.eventReceived(BridgeMetrics.EVENT_SERVICE_START);
 		if(DEBUG)Log.d(TAG, "radioServiceStarted: " + radioService.getServiceLabel() + " : " + radioService.getRadioServiceType().toString());
 
 		if(!mWebViewFinished) {
 			return;
 		}
 
-		executeOnMainThread(new Runnable() {
-			@Override
-			public void run() {
-				getJsServiceIdx(radioService, new ValueCallback<String>() {
-					@Override
-					public void onReceiveValue(String value) {
-						if(value != null) {
-							if(!value.equals("null")) {
-								try {
-									int startedSrvIdx = Integer.parseInt(value);
-									radioService.subscribe(mMetadataHandler = new RadioMetadataHandler(startedSrvIdx));
-									addActiveServiceJs(startedSrvIdx);
-
-									final String notifySrvStartJs = "javascript:" +
-											//"radioWeb.javaCall(JSON.stringify({msg: 'ServiceStarted call', task: 'logBack'}));" +
-											"radioWeb.listeners.serviceStarted.forEach(function(cb) { cb( radioWeb.services[" + startedSrvIdx + "] ); });";
-
-									evaluateJavascript(notifySrvStartJs, null);
-
-								} catch(NumberFormatException numExc) {
-									if(DEBUG)numExc.printStackTrace();
-								}
-							} else {
-								if(DEBUG)Log.d(TAG, "ValueCallback for serviceStarted is: " + value);
-							}
-						} else {
-							if(DEBUG)Log.d(TAG, "ValueCallback for serviceStarted is null");
-						}
-					}
-				});
-			}
-		});
+		int startedSrvHandle = mServiceHandles.getHandle(radioService);
+		if(startedSrvHandle < 0) {
+			if(DEBUG)Log.d(TAG, "No service handle for started service: " + radioService.getServiceLabel());
+			return;
+		}
+
+		resolveServiceCalls(mPendingStartCalls, startedSrvHandle);
+
+		subscribeMetadataHandler(radioService, startedSrvHandle);
+
+		if(DEBUG)Log.d(TAG, "Adding active service with handle: " + startedSrvHandle);
+		mEventTranslator.serviceStarted(startedSrvHandle, receivedNanos);
 	}
 
 	@Override
 	public void radioServiceStopped(Tuner tuner, final RadioService radioService) {
+		long receivedNanos = System.nanoTime();
+		mBridgeMetrics.eventReceived(BridgeMetrics.EVENT_SERVICE_STOP);
 		if(DEBUG)Log.d(TAG, "radioServiceStopped: " + radioService.getServiceLabel() + " : " + radioService.getRadioServiceType().toString());
 
-		if(radioService != null) {
-			if(DEBUG)Log.d(TAG, "Unregistering matadataHandler");
-			radioService.unsubscribe(mMetadataHandler);
+		int stoppedSrvHandle = mServiceHandles.getHandle(radioService);
+		if(stoppedSrvHandle < 0) {
+			if(DEBUG)Log.d(TAG, "No service handle for stopped service: " + radioService.getServiceLabel());
+			return;
 		}
 
+		unsubscribeMetadataHandler(radioService, stoppedSrvHandle);
+
 		if(!mWebViewFinished) {
 			return;
 		}
 
-		executeOnMainThread(new Runnable() {
-			@Override
-			public void run() {
-				getJsServiceIdx(radioService, new ValueCallback<String>() {
-					@Override
-					public void onReceiveValue(String value) {
-						if(value != null) {
-							if(!value.equals("null")) {
-								try {
-									int stoppedSrvIdx = Integer.parseInt(value);
-
-									removeActiveServiceJs(stoppedSrvIdx);
-
-									final String callStoppedListenersJs = "javascript:" +
-											"radioWeb.listeners.serviceStopped.forEach(function(cb) { cb( radioWeb.services[" + stoppedSrvIdx + "] ); });" +
-											"radioWeb.activeServices.splice(radioWeb.activeServices.indexOf(radioWeb.services[" + stoppedSrvIdx + "]), 1);";
-
-									evaluateJavascript(callStoppedListenersJs, null);
-								} catch(NumberFormatException numExc) {
-									if(DEBUG)numExc.printStackTrace();
-								}
-							} else {
-								if(DEBUG)Log.d(TAG, "ValueCallback for serviceStopped is: " + value);
-							}
-						} else {
-							if(DEBUG)Log.d(TAG, "ValueCallback for serviceStopped is: null");
-						}
-					}
-				});
-			}
-		});
+		resolveServiceCalls(mPendingStopCalls, stoppedSrvHandle);
+
+		if(DEBUG)Log.d(TAG, "Removing active service with handle: " + stoppedSrvHandle);
+		mEventTranslator.serviceStopped(stoppedSrvHandle, receivedNanos);
 	}
 
 	@Override
@@ -1152,187 +1944,120 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 
 	private class RadioMetadataHandler implements VisualMetadataListener, TextualMetadataListener {
 
-		private final int mJsSrvIdx;
+		private final int mSrvHandle;
+		private final TextualChangeFilter mTextualFilter = new TextualChangeFilter();
+		//reused for every label, guarded by itself
+		private final OmriEventData.OmriTextual mTextual = new OmriEventData.OmriTextual();
 
-		RadioMetadataHandler(int jsSrvIdx) {
-			mJsSrvIdx = jsSrvIdx;
+		RadioMetadataHandler(int srvHandle) {
+			mSrvHandle = srvHandle;
 		}
 
 		@Override
 		public void newTextualMetadata(Textual textual) {
-			if(DEBUG)Log.d(TAG, "New TextualMetadata for JsSrvIdx: " + mJsSrvIdx + ", WebViewFinished: " + mWebViewFinished + ", RadioWebNotified: " + mNotifiedReady);
+			long receivedNanos = System.nanoTime();
+			mBridgeMetrics.eventReceived(BridgeMetrics.EVENT_DLS);
+			if(DEBUG)Log.d(TAG, "New TextualMetadata for SrvHandle: " + mSrvHandle + ", WebViewFinished: " + mWebViewFinished + ", RadioWebNotified: " + mNotifiedReady);
 			if(mWebViewFinished && mNotifiedReady) {
-				try {
-					final String callDlsCb = "javascript:" +
-							"radioWeb.services[" + mJsSrvIdx + "].listeners.dls.forEach(function(cb) { cb(" + createTextualJson(textual) + "); });";
-
-					executeOnMainThread(new Runnable() {
-						@Override
-						public void run() {
-							evaluateJavascript(callDlsCb, null);
-						}
-					});
-				} catch (JSONException jsonExc) {
-					if (DEBUG) jsonExc.printStackTrace();
+				synchronized (mTextual) {
+					mEventTranslator.textual(mSrvHandle, mTextualFilter, mTextual.adapt(textual), receivedNanos);
 				}
 			}
 		}
 
 		@Override
 		public void newVisualMetadata(Visual visual) {
-			if(DEBUG)Log.d(TAG, "New VisualMetadata for JsSrvIdx: " + mJsSrvIdx + ", WebViewFinished: " + mWebViewFinished + ", RadioWebNotified: " + mNotifiedReady);
+			long receivedNanos = System.nanoTime();
+			mBridgeMetrics.eventReceived(BridgeMetrics.EVENT_SLS);
+			if(DEBUG)Log.d(TAG, "New VisualMetadata for SrvHandle: " + mSrvHandle + ", WebViewFinished: " + mWebViewFinished + ", RadioWebNotified: " + mNotifiedReady);
 			if(mWebViewFinished && mNotifiedReady) {
-				try {
-					final String callSlsCb = "javascript:" +
-							"radioWeb.services[" + mJsSrvIdx + "].listeners.sls.forEach(function(cb) { cb(" + createVisualJson(visual) + "); });";
-
-					executeOnMainThread(new Runnable() {
-						@Override
-						public void run() {
-							evaluateJavascript(callSlsCb, null);
-						}
-					});
-				} catch (JSONException jsonExc) {
-					if (DEBUG) jsonExc.printStackTrace();
-				}
+				mEventTranslator.visual(mSrvHandle, OmriEventData.visual(visual), receivedNanos);
 			}
 		}
 	}
 
-	private JSONObject createVisualJson(Visual visual) throws JSONException {
-		JSONObject slsObject = null;
-
-		if(visual != null) {
-			slsObject = new JSONObject();
-			slsObject.put("visualType", visual.getVisualType().toString());
-
-			if (visual.getVisualType() == VisualType.METADATA_VISUAL_TYPE_DAB_SLS) {
-				VisualDabSlideShow sls = (VisualDabSlideShow) visual;
-				slsObject.put("contentName", sls.getContentName());
-				slsObject.put("slideId", sls.getSlideId());
-				//TODO parsing of TriggerTime. Only TriggerTime '0' == 'NOW'
-				slsObject.put("triggerTime", "NOW");
-				switch (sls.getVisualMimeType()) {
-					case METADATA_VISUAL_MIMETYPE_PNG: {
-						slsObject.put("mimeType", "image/png");
-						break;
-					}
-					case METADATA_VISUAL_MIMETYPE_GIF: {
-						slsObject.put("mimeType", "image/gif");
-						break;
-					}
-					case METADATA_VISUAL_MIMETYPE_ANIMATED_GIF: {
-						slsObject.put("mimeType", "image/gif");
-						break;
-					}
-					case METADATA_VISUAL_MIMETYPE_JPEG: {
-						slsObject.put("mimeType", "image/jpeg");
-						break;
-					}
-					//not supported in DAB
-					case METADATA_VISUAL_MIMETYPE_BMP: {
-						slsObject.put("mimeType", "image/bmp");
-						break;
-					}
-					//not supported in DAB
-					case METADATA_VISUAL_MIMETYPE_SVG: {
-						slsObject.put("mimeType", "image/svg+xml");
-						break;
-					}
-					//not supported in DAB
-					case METADATA_VISUAL_MIMETYPE_TIFF: {
-						slsObject.put("mimeType", "image/tiff");
-						break;
-					}
-					//not supported in DAB
-					case METADATA_VISUAL_MIMETYPE_WEBP: {
-						slsObject.put("mimeType", "image/webp");
-						break;
-					}
-					default: {
-						slsObject.put("mimeType", "image/unknown");
-						break;
-					}
-				}
-				slsObject.put("isCategorized", sls.isCategorized());
-				slsObject.put("categoryId", sls.getCategoryId());
-				slsObject.put("categoryName", (sls.getCategoryText() != null) ? sls.getCategoryText() : "");
-				slsObject.put("clickthroughUrl", (sls.getClickThroughUrl() != null) ? sls.getClickThroughUrl().toString() : "");
-				slsObject.put("alternativeLocationUrl", (sls.getAlternativeLocationURL() != null) ? sls.getAlternativeLocationURL().toString() : "");
-				//TODO expiryTime parsing
-				slsObject.put("expiryTime", 0);
-				slsObject.put("visualData", Base64.encodeToString(sls.getVisualData(), Base64.NO_WRAP));
-			}
-		}
-
-		return slsObject;
+	/**
+	 * @return the {@link BridgeMetrics} of the events passed to the page
+	 */
+	public BridgeMetrics getBridgeMetrics() {
+		return mBridgeMetrics;
 	}
 
-	private JSONObject createSkipitemJson(SkipItem skipItem) throws JSONException {
-		JSONObject skipItemObj = null;
+	private volatile boolean mJsMetricsEnabled = false;
+	/**
+	 * Allows the page to read the {@link BridgeMetrics} with radioWeb.refreshMetrics(), which updates
+	 * the radioWeb.metrics snapshot. Disabled by default.
+	 * @param enabled {@code true} to allow the page to read the metrics
+	 */
+	public void setJsMetricsEnabled(boolean enabled) {
+		mJsMetricsEnabled = enabled;
+	}
 
-		if(skipItem != null) {
-			skipItemObj = new JSONObject();
+	/**
+	 * Delivers every received DLS and ICY text. By default retransmissions of the last delivered text of a service,
+	 * with equal text, toggle and running bits and DL+ items, are not delivered again.
+	 * @param deliverRepeated {@code true} to deliver the repeated texts
+	 */
+	public void setRepeatedTextualDelivery(boolean deliverRepeated) {
+		mEventTranslator.setRepeatedTextualDelivery(deliverRepeated);
+	}
 
-			skipItemObj.put("relativeSkipPoint", skipItem.getRelativeTimepoint());
+	/**
+	 * Additionally delivers the slideshow images Base64 encoded in the 'visualData' field of the visual JSON.
+	 * By default the images are only available via the 'visualUrl' field.
+	 * @param inlineVisualData {@code true} to deliver the Base64 encoded image data
+	 */
+	public void setInlineVisualData(boolean inlineVisualData) {
+		mEventTranslator.setInlineVisualData(inlineVisualData);
+	}
 
-			if(mTimeshiftPlayer != null) {
-				if(mTimeshiftPlayer.getRadioService().getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_EDI) {
-					skipItemObj.put("sbtRealTime", skipItem.getSbtRealTime());
-					skipItemObj.put("toggleId", skipItem.getSkipPoint());
-				}
-			}
+	//page generation, incremented with every page load to know which slides the radioWeb.slides object holds
+	private volatile int mPageGeneration = 0;
+	/**
+	 * Sets the byte budget of the slideshow cache. Repeated slides are delivered from this cache.
+	 * @param budgetBytes the maximum size in bytes of the cached images and their serialized JSON
+	 */
+	public void setSlideCacheBudget(long budgetBytes) {
+		mEventTranslator.getSlideCache().setBudget(budgetBytes);
+	}
 
-			JSONObject textualJson = createTextualJson(skipItem.getSkipTextual());
-			skipItemObj.put("skipTextual", textualJson);
-			JSONObject visualJson = createVisualJson(skipItem.getSkipVisual());
-			skipItemObj.put("skipVisual", visualJson);
-		}
+	public long getSlideCacheBudget() {
+		return mEventTranslator.getSlideCache().getBudget();
+	}
 
-		return skipItemObj;
+	public long getSlideCacheSize() {
+		return mEventTranslator.getSlideCache().getCachedBytes();
 	}
 
-	private JSONObject createTextualJson(Textual textual) throws JSONException {
-		JSONObject dlsObject = null;
+	public long getSlideCacheHitCount() {
+		return mEventTranslator.getSlideCache().getHitCount();
+	}
 
-		if(textual != null) {
-			dlsObject = new JSONObject();
-			dlsObject.put("textualType", textual.getType().toString());
-			if (textual.getType() == TextualType.METADATA_TEXTUAL_TYPE_DAB_DLS) {
-				TextualDabDynamicLabel dls = (TextualDabDynamicLabel) textual;
+	public long getSlideCacheMissCount() {
+		return mEventTranslator.getSlideCache().getMissCount();
+	}
 
-				dlsObject.put("dls", textual.getText().replace("'", "\\'"));
-				dlsObject.put("itemRunning", dls.itemRunning());
-				dlsObject.put("itemToggled", dls.itemToggled());
-				JSONArray dlPlusItemsArr = new JSONArray();
-				if (dls.hasTags()) {
-					for (TextualDabDynamicLabelPlusItem item : dls.getDlPlusItems()) {
-						JSONObject dlPlusItem = new JSONObject();
-						dlPlusItem.put("contentType", item.getDynamicLabelPlusContentType().toString());
-						dlPlusItem.put("contentCategory", item.getDlPlusContentCategory());
-						dlPlusItem.put("contentTypeDescription", item.getDlPlusContentTypeDescription());
-						dlPlusItem.put("dlPlusText", item.getDlPlusContentText().replace("'", "\\'"));
+	public long getSlideCacheEvictionCount() {
+		return mEventTranslator.getSlideCache().getEvictionCount();
+	}
 
-						dlPlusItemsArr.put(dlPlusItem);
-					}
-				}
-				dlsObject.put("dlPlusItems", dlPlusItemsArr);
-			}
-			if (textual.getType() == TextualType.METADATA_TEXTUAL_TYPE_ICY_TEXT) {
-				TextualIpIcy icy = (TextualIpIcy) textual;
-				dlsObject.put("dls", icy.getText().replace("'", "\\'"));
-				dlsObject.put("itemRunning", false);
-				dlsObject.put("itemToggled", false);
-				JSONArray dlPlusItemsArr = new JSONArray();
-				dlsObject.put("dlPlusItems", dlPlusItemsArr);
-			}
+	private volatile long mTimeshiftProgressIntervalMs = 0;
+	/**
+	 * Sets the minimum interval between two timeshift progress and SBT progress updates to the radioWeb object.
+	 * Only the latest progress is delivered, by default once per frame.
+	 * @param intervalMs the minimum interval in milliseconds, 0 to deliver the latest progress with every frame
+	 */
+	public void setTimeshiftProgressInterval(long intervalMs) {
+		mTimeshiftProgressIntervalMs = Math.max(intervalMs, 0);
+		TimeshiftProgressSlot progressSlot = mTimeshiftProgressSlot;
+		if(progressSlot != null) {
+			progressSlot.setInterval(mTimeshiftProgressIntervalMs);
 		}
-
-		return dlsObject;
 	}
 
 	private TimeshiftPlayer mTimeshiftPlayer = null;
-	private int mTimeshiftJsSrvIdx = -1;
+	private volatile TimeshiftProgressSlot mTimeshiftProgressSlot = null;
+	private int mTimeshiftSrvHandle = -1;
 	public void setTimeshiftPlayer(final TimeshiftPlayer tsPlayer) {
 		if(DEBUG)Log.d(TAG, "TS Setting new TimeshiftPlayer");
 		//new timeshiftplayer set, check old player for set service and disable timeshift object on it
@@ -1342,8 +2067,18 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 			}
 		}
 
+		if(mTimeshiftProgressSlot != null) {
+			mTimeshiftProgressSlot.clear();
+			mJsDispatcher.removeFrameSource(mTimeshiftProgressSlot);
+			mTimeshiftProgressSlot = null;
+		}
+		mEventTranslator.clearSkipItems();
+
 		if(tsPlayer != null) {
 			mTimeshiftPlayer = tsPlayer;
+			mTimeshiftProgressSlot = new TimeshiftProgressSlot(mJsDispatcher);
+			mTimeshiftProgressSlot.setInterval(mTimeshiftProgressIntervalMs);
+			mJsDispatcher.addFrameSource(mTimeshiftProgressSlot);
 
 			setJsSrvTimeshiftCapable(mTimeshiftPlayer.getRadioService(), true);
 			mTimeshiftPlayer.addListener(mTimeshiftListener);
@@ -1353,170 +2088,78 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 	private void setJsSrvTimeshiftCapable(final RadioService service, final boolean timeshiftCapable) {
 		if(DEBUG)Log.d(TAG, "Setting Service " + service.getServiceLabel() + " timeshiftCapable to: " + timeshiftCapable);
 
-		executeOnMainThread(new Runnable() {
-			@Override
-			public void run() {
-				getJsServiceIdx(service, new ValueCallback<String>() {
-					@Override
-					public void onReceiveValue(String value) {
-						if(value != null) {
-							if(!value.equals("null")) {
-								try {
-									int startedSrvIdx = Integer.parseInt(value);
-
-									if(DEBUG)Log.d(TAG, "TS Setting timeshifted to " + timeshiftCapable + " for: " + service.getServiceLabel() + " with JsIdx: " + startedSrvIdx);
-
-									String setTsCapJs = "javascript:" +
-											"radioWeb.services[" + startedSrvIdx + "].timeshifted = " + timeshiftCapable + ";";
-											if(!timeshiftCapable) {
-												//setTsCapJs  += "radioWeb.services[" + startedSrvIdx + "].timeshift = null;";
-												//setTsCapJs  += "delete radioWeb.services[" + startedSrvIdx + "].timeshift;";
-												setTsCapJs  += "radioWeb.services[" + startedSrvIdx + "].timeshift.skipItems = [];" +
-												"radioWeb.services[" + startedSrvIdx + "].timeshift.timeshiftToken = '';" +
-												"radioWeb.services[" + startedSrvIdx + "].timeshift.sbtMax = -1;" +
-												"radioWeb.services[" + startedSrvIdx + "].timeshift.totalDuration = 0;" +
-												"radioWeb.services[" + startedSrvIdx + "].timeshift.currentPosition = 0;";
-												removeActiveServiceJs(startedSrvIdx);
-											} else {
-												//setTsCapJs  += "radioWeb.services[" + startedSrvIdx + "].timeshift = " + creatTimeshiftObject() + ";";
-												addActiveServiceJs(startedSrvIdx);
-											}
-
-									evaluateJavascript(setTsCapJs, null);
-
-									if(timeshiftCapable) {
-										mTimeshiftJsSrvIdx = startedSrvIdx;
-										if(DEBUG)Log.d(TAG, "TS mTimeshiftJsSrvIdx " + mTimeshiftJsSrvIdx + ", premature: " + mPrematureStart);
-										if(mPrematureStart) {
-											if(DEBUG)Log.d(TAG, "TS calling started again");
-											mTimeshiftListener.started();
-											mPrematureStart = false;
-										}
-									} else {
-										mTimeshiftJsSrvIdx = -1;
-									}
-
-								} catch(NumberFormatException numExc) {
-									if(DEBUG)numExc.printStackTrace();
-								}
-							} else {
-								if(DEBUG)Log.d(TAG, "TS ValueCallback for setJsSrvTimeshiftCapable is: " + value);
-							}
-						} else {
-							if(DEBUG)Log.d(TAG, "TS ValueCallback for setJsSrvTimeshiftCapable is null");
-						}
-					}
-				});
+		int tsSrvHandle = mServiceHandles.getHandle(service);
+		if(tsSrvHandle < 0) {
+			if(DEBUG)Log.d(TAG, "TS no service handle for: " + service.getServiceLabel());
+			return;
+		}
+
+		if(DEBUG)Log.d(TAG, "TS Setting timeshifted to " + timeshiftCapable + " for: " + service.getServiceLabel() + " with handle: " + tsSrvHandle);
+
+		mEventTranslator.setTimeshifted(tsSrvHandle, timeshiftCapable, mTimeshiftSrvHandle != tsSrvHandle);
+
+		if(timeshiftCapable) {
+			mTimeshiftSrvHandle = tsSrvHandle;
+			if(DEBUG)Log.d(TAG, "TS mTimeshiftSrvHandle " + mTimeshiftSrvHandle + ", premature: " + mPrematureStart);
+			if(mPrematureStart) {
+				if(DEBUG)Log.d(TAG, "TS calling started again");
+				mTimeshiftListener.started();
+				mPrematureStart = false;
 			}
-		});
+		} else {
+			mTimeshiftSrvHandle = -1;
+		}
+	}
+
+	//looks up the handle of the timeshifted service if the radioWeb object was created after the timeshiftplayer was set
+	private void attachTimeshiftService() {
+		int tsSrvHandle = mServiceHandles.getHandle(mTimeshiftPlayer.getRadioService());
+		if(tsSrvHandle < 0) {
+			if(DEBUG)Log.d(TAG, "TS no service handle for timeshifted service");
+			return;
+		}
+
+		mTimeshiftSrvHandle = tsSrvHandle;
+		//registering the live metadatahandler to the running service
+		subscribeMetadataHandler(mTimeshiftPlayer.getRadioService(), mTimeshiftSrvHandle);
+		if(DEBUG)Log.d(TAG, "Init getting TsSrvHandle: " + mTimeshiftSrvHandle + " and setting active service");
+
+		mBridgeState.setServiceActive(tsSrvHandle, true);
 	}
 
 	private TimeshiftListener mTimeshiftListener = new TimeshiftListener() {
 
+		//reused for every label, guarded by itself
+		private final OmriEventData.OmriTextual mTimeshiftTextual = new OmriEventData.OmriTextual();
+
 		@Override
 		public void progress(long cur, long total) {
-			//TODO not very smart. do this somewhere else....
+			mBridgeMetrics.eventReceived(BridgeMetrics.EVENT_PROGRESS);
 			if(mWebViewFinished && mNotifiedReady) {
-				if (mTimeshiftJsSrvIdx <= -1) {
-					executeOnMainThread(new Runnable() {
-						@Override
-						public void run() {
-							getJsServiceIdx(mTimeshiftPlayer.getRadioService(), new ValueCallback<String>() {
-								@Override
-								public void onReceiveValue(String value) {
-									if (value != null) {
-										if (!value.equals("null")) {
-											try {
-												mTimeshiftJsSrvIdx = Integer.parseInt(value);
-												addActiveServiceJs(mTimeshiftJsSrvIdx);
-												//registering the live metadatahandler to the running service
-												mTimeshiftPlayer.getRadioService().subscribe(mMetadataHandler = new RadioMetadataHandler(mTimeshiftJsSrvIdx));
-
-												if(DEBUG)Log.d(TAG, "Init getting TsSrvIdx: " + mTimeshiftJsSrvIdx + " and setting active service");
-											} catch (NumberFormatException numExc) {
-												if(DEBUG)numExc.printStackTrace();
-											}
-										} else {
-											if(DEBUG)Log.d(TAG, "ValueCallback for progress is: " + value);
-										}
-									} else {
-										if(DEBUG)Log.d(TAG, "ValueCallback for progress is null");
-									}
-								}
-							});
-						}
-					});
-				} else {
-					final String progressJson = "{ currentPosition: " + cur + ",  totalDuration: " + total + " }";
-					if(DEBUG)Log.d(TAG, "ProgressJson: " + progressJson);
-					final String callTsProgressCb = "javascript:" +
-							"if(radioWeb != null) {" +
-								"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.listeners.progress.forEach(function(cb) { cb(" + progressJson + "); });" +
-								"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.currentPosition = " + cur + ";" +
-								"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.totalDuration = " + total + ";" +
-							"}";
-
-					//must be executed in the main thread
-					executeOnMainThread(new Runnable() {
-						@Override
-						public void run() {
-							evaluateJavascript(callTsProgressCb, null);
-						}
-					});
+				if (mTimeshiftSrvHandle <= -1) {
+					attachTimeshiftService();
+				}
+				TimeshiftProgressSlot progressSlot = mTimeshiftProgressSlot;
+				if (mTimeshiftSrvHandle > -1 && progressSlot != null) {
+					//only the latest progress is delivered with the next frame
+					progressSlot.updateProgress(mTimeshiftSrvHandle, cur, total);
+					mJsDispatcher.requestFrame();
 				}
 			}
 		}
 
 		@Override
 		public void sbtRealTime(long realTimePosix, long streamTimePosix, long curPos, long totalDuration) {
+			mBridgeMetrics.eventReceived(BridgeMetrics.EVENT_SBT_PROGRESS);
 			if(mWebViewFinished && mNotifiedReady) {
-				if (mTimeshiftJsSrvIdx <= -1) {
-					executeOnMainThread(new Runnable() {
-						@Override
-						public void run() {
-							getJsServiceIdx(mTimeshiftPlayer.getRadioService(), new ValueCallback<String>() {
-								@Override
-								public void onReceiveValue(String value) {
-									if (value != null) {
-										if (!value.equals("null")) {
-											try {
-												mTimeshiftJsSrvIdx = Integer.parseInt(value);
-												addActiveServiceJs(mTimeshiftJsSrvIdx);
-												//registering the live metadatahandler to the running service
-												mTimeshiftPlayer.getRadioService().subscribe(mMetadataHandler = new RadioMetadataHandler(mTimeshiftJsSrvIdx));
-
-												if (DEBUG) Log.d(TAG, "Init getting TsSrvIdx: " + mTimeshiftJsSrvIdx + " and setting active service");
-											} catch (NumberFormatException numExc) {
-												if (DEBUG) numExc.printStackTrace();
-											}
-										} else {
-											if (DEBUG)
-												Log.d(TAG, "ValueCallback for progress is: " + value);
-										}
-									} else {
-										if (DEBUG) Log.d(TAG, "ValueCallback for progress is null");
-									}
-								}
-							});
-						}
-					});
-				} else {
-					final String progressJson = "{ realTime: " + realTimePosix + ",  streamTime: " + streamTimePosix + ", currentPosition: " + curPos + ", totalDuration: " + totalDuration + " }";
-					if (DEBUG) Log.d(TAG, "ProgressJson: " + progressJson);
-					final String callTsProgressCb = "javascript:" +
-							"if(radioWeb != null) {" +
-							"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.listeners.sbtProgress.forEach(function(cb) { cb(" + progressJson + "); });" +
-							"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.currentPosition = " + curPos + ";" +
-							"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.totalDuration = " + totalDuration + ";" +
-							"}";
-
-					//must be executed in the main thread
-					executeOnMainThread(new Runnable() {
-						@Override
-						public void run() {
-							evaluateJavascript(callTsProgressCb, null);
-						}
-					});
+				if (mTimeshiftSrvHandle <= -1) {
+					attachTimeshiftService();
+				}
+				TimeshiftProgressSlot progressSlot = mTimeshiftProgressSlot;
+				if (mTimeshiftSrvHandle > -1 && progressSlot != null) {
+					//only the latest sbt progress is delivered with the next frame
+					progressSlot.updateSbtRealTime(mTimeshiftSrvHandle, realTimePosix, streamTimePosix, curPos, totalDuration);
+					mJsDispatcher.requestFrame();
 				}
 			}
 		}
@@ -1526,7 +2169,7 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 			if (DEBUG) Log.d(TAG, "TS started");
 			if (mWebViewFinished && mNotifiedReady) {
 
-				if (mTimeshiftJsSrvIdx >= 0) {
+				if (mTimeshiftSrvHandle >= 0) {
 					String timeshiftToken = "";
 					long sbtMax = -1;
 					if(mTimeshiftPlayer.getRadioService().getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_EDI) {
@@ -1534,24 +2177,9 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 						sbtMax = ((RadioServiceDabEdi)mTimeshiftPlayer.getRadioService()).getSbtMax();
 					}
 
-					final String tsStartedJson = "{ timeshiftState: 'started' }";
-					final String callTsStartedCb = "javascript:" +
-							"if(radioWeb != null) {" +
-							//"radioWeb.javaCall(JSON.stringify({msg: 'TimeshiftStarted call', task: 'logBack'}));" +
-							"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.listeners.tsState.forEach(function(cb) { cb(" + tsStartedJson + "); });" +
-							"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.paused = false;" +
-							"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.timeshiftToken = '" + timeshiftToken + "';" +
-							"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.sbtMax = " + sbtMax + ";" +
-							"}";
-
-					executeOnMainThread(new Runnable() {
-						@Override
-						public void run() {
-							evaluateJavascript(callTsStartedCb, null);
-						}
-					});
+					mEventTranslator.timeshiftStarted(mTimeshiftSrvHandle, timeshiftToken, sbtMax);
 				} else {
-					if (DEBUG) Log.d(TAG, "TS started but mTimeshiftJsSrvIdx < 0");
+					if (DEBUG) Log.d(TAG, "TS started but mTimeshiftSrvHandle < 0");
 					mPrematureStart = true;
 				}
 			} else {
@@ -1564,20 +2192,8 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 			if(DEBUG)Log.d(TAG, "TS paused");
 
 			if(mWebViewFinished && mNotifiedReady) {
-				if (mTimeshiftJsSrvIdx >= 0) {
-					final String tsPausedJson = "{ timeshiftState: 'paused' }";
-					final String callTsPauseCb = "javascript:" +
-							"if(radioWeb != null) {" +
-							"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.listeners.tsState.forEach(function(cb) { cb(" + tsPausedJson + "); });" +
-							"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.paused = true;" +
-							"}";
-
-					executeOnMainThread(new Runnable() {
-						@Override
-						public void run() {
-							evaluateJavascript(callTsPauseCb, null);
-						}
-					});
+				if (mTimeshiftSrvHandle >= 0) {
+					mEventTranslator.timeshiftPaused(mTimeshiftSrvHandle);
 				}
 			}
 		}
@@ -1585,118 +2201,51 @@ public class RadioWebView extends WebView implements TunerListener, ServiceConne
 		@Override
 		public void stopped() {
 			if(mWebViewFinished && mNotifiedReady) {
-				if (mTimeshiftJsSrvIdx >= 0) {
-					final String tsStoppedJson = "{ timeshiftState: 'stopped' }";
-					final String callTsStoppedCb = "javascript:" +
-							"if(radioWeb != null) {" +
-							"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.listeners.tsState.forEach(function(cb) { cb(" + tsStoppedJson + "); });" +
-							"}";
-
-					executeOnMainThread(new Runnable() {
-						@Override
-						public void run() {
-							evaluateJavascript(callTsStoppedCb, null);
-						}
-					});
+				if (mTimeshiftSrvHandle >= 0) {
+					mEventTranslator.timeshiftStopped(mTimeshiftSrvHandle);
 				}
 			}
 		}
 
 		@Override
 		public void textual(Textual textual) {
-			if (mTimeshiftJsSrvIdx >= 0) {
-				try {
-					final String callTsDlsCb = "javascript:" +
-							"if(radioWeb != null) {" +
-								"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.listeners.tsTextual.forEach(function(cb) { cb(" + createTextualJson(textual).toString() + "); });" +
-							"}";
-
-					executeOnMainThread(new Runnable() {
-						@Override
-						public void run() {
-							evaluateJavascript(callTsDlsCb, null);
-						}
-					});
-				} catch(JSONException jsonExc) {
-					if(DEBUG)jsonExc.printStackTrace();
+			long receivedNanos = System.nanoTime();
+			mBridgeMetrics.eventReceived(BridgeMetrics.EVENT_DLS);
+			if (mTimeshiftSrvHandle >= 0) {
+				synchronized (mTimeshiftTextual) {
+					mEventTranslator.timeshiftTextual(mTimeshiftSrvHandle, mTimeshiftTextual.adapt(textual), receivedNanos);
 				}
 			}
 		}
 
 		@Override
 		public void visual(Visual visual) {
-			if (mTimeshiftJsSrvIdx >= 0) {
-				try {
-					final String callTsSlsCb = "javascript:" +
-							"if(radioWeb != null) {" +
-								"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.listeners.tsVisual.forEach(function(cb) { cb(" + createVisualJson(visual).toString() + "); });" +
-							"}";
-
-					executeOnMainThread(new Runnable() {
-						@Override
-						public void run() {
-							evaluateJavascript(callTsSlsCb, null);
-						}
-					});
-				} catch(JSONException jsonExc) {
-					if(DEBUG)jsonExc.printStackTrace();
-				}
+			long receivedNanos = System.nanoTime();
+			mBridgeMetrics.eventReceived(BridgeMetrics.EVENT_SLS);
+			if (mTimeshiftSrvHandle >= 0) {
+				mEventTranslator.timeshiftVisual(mTimeshiftSrvHandle, OmriEventData.visual(visual), receivedNanos);
 			}
 		}
 
 		@Override
 		public void skipItemAdded(SkipItem skipItem) {
-			if(DEBUG)Log.d(TAG, "TS skipItemAdded: " + mTimeshiftJsSrvIdx + " : " + skipItem.getSkipTextual().getText() + " : " + skipItem.getSbtRealTime());
+			long receivedNanos = System.nanoTime();
+			mBridgeMetrics.eventReceived(BridgeMetrics.EVENT_SKIP_ITEM);
+			if(DEBUG)Log.d(TAG, "TS skipItemAdded: " + mTimeshiftSrvHandle + " : " + skipItem.getSkipTextual().getText() + " : " + skipItem.getSbtRealTime());
 
-			if (mTimeshiftJsSrvIdx >= 0) {
-				try {
-					JSONObject skipJsonObj = createSkipitemJson(skipItem);
-					if(skipJsonObj != null) {
-						if(DEBUG)Log.d(TAG, "TS skipItemAdded calling JS layer");
-
-						final String addSkipItemCall = "javascript:" +
-								"if(radioWeb != null) {" +
-									//"numItems = 'numItems: ' + radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.skipItems.length + ', listeners: ' + radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.listeners.skipItemAdded.length;" +
-									//"radioWeb.javaCall(JSON.stringify({msg: numItems, task: 'logBack'}));" +
- 									"newSkipItemsLen = radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.skipItems.push(" + createSkipitemJson(skipItem).toString() + ");" +
-									"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.listeners.skipItemAdded.forEach(function(cb) { cb(" + "radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.skipItems[newSkipItemsLen-1]" + "); });" +
-								"}";
-
-						executeOnMainThread(new Runnable() {
-							@Override
-							public void run() {
-								evaluateJavascript(addSkipItemCall, null);
-							}
-						});
-					}
-				} catch(JSONException jsonExc) {
-					if(DEBUG)jsonExc.printStackTrace();
-				}
+			if (mTimeshiftSrvHandle >= 0) {
+				boolean sbt = mTimeshiftPlayer != null && mTimeshiftPlayer.getRadioService().getRadioServiceType() == RadioServiceType.RADIOSERVICE_TYPE_EDI;
+				mEventTranslator.skipItemAdded(mTimeshiftSrvHandle, OmriEventData.skipItem(skipItem), sbt, receivedNanos);
 			}
 		}
 
 		@Override
 		public void skipItemRemoved(SkipItem skipItem) {
+			long receivedNanos = System.nanoTime();
+			mBridgeMetrics.eventReceived(BridgeMetrics.EVENT_SKIP_ITEM);
 			if(DEBUG)Log.d(TAG, "TS skipItemRemoved");
 
-			if (mTimeshiftJsSrvIdx >= 0) {
-
-				final String remSkipItemCall = "javascript:" +
-						"if(radioWeb != null) {" +
-							"itemIdx = radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.skipItems.map(function(item) { return item.sbtRealTime; }).indexOf(" + skipItem.getSbtRealTime() + ");" +
-							"if(itemIdx > -1) { " +
-								"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.listeners.skipItemRemoved.forEach(function(cb) { cb(" + "radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.skipItems[itemIdx]" + "); });" +
-								"radioWeb.services[" + mTimeshiftJsSrvIdx + "].timeshift.skipItems.splice(itemIdx, 1);" +
-							"}" +
-						"}";
-
-				executeOnMainThread(new Runnable() {
-					@Override
-					public void run() {
-						evaluateJavascript(remSkipItemCall, null);
-					}
-				});
-			}
+			mEventTranslator.skipItemRemoved(mTimeshiftSrvHandle, OmriEventData.skipItem(skipItem), receivedNanos);
 		}
 	};
 
@@ -0,0 +1,75 @@
+package eu.hradio.radiowebview;
+
+import org.omri.tuner.Tuner;
+import org.omri.tuner.TunerStatus;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * Aggregates the initialization state of the tuners, like a latch counting down the tuners which are not yet
+ * initialized. The tuners report their state from their own threads. A tuner which failed to initialize is not waited for.
+ * The readiness is only reached after the tuners to wait for are known, so there is no premature readiness
+ * while the radio itself is still initializing.
+ */
+class TunerReadiness {
+
+	//guarded by this
+	private final HashSet<Tuner> mPendingTuners = new HashSet<>();
+	private final HashSet<Tuner> mFailedTuners = new HashSet<>();
+	private boolean mTunersKnown = false;
+
+	/**
+	 * Sets the tuners to wait for, tuners already initialized are not waited for
+	 * @param tuners the available tuners
+	 * @return {@code true} if all tuners are initialized
+	 */
+	synchronized boolean await(Collection<Tuner> tuners) {
+		mPendingTuners.clear();
+		for(Tuner tuner : tuners) {
+			if(tuner.getTunerStatus() != TunerStatus.TUNER_STATUS_INITIALIZED) {
+				mPendingTuners.add(tuner);
+			}
+		}
+		mTunersKnown = true;
+
+		return mPendingTuners.isEmpty();
+	}
+
+	/**
+	 * Updates the state of a tuner
+	 * @param tuner the {@link Tuner} with the changed status
+	 * @param tunerStatus the new {@link TunerStatus}
+	 * @return {@code true} if all tuners are initialized
+	 */
+	synchronized boolean statusChanged(Tuner tuner, TunerStatus tunerStatus) {
+		if(tunerStatus == TunerStatus.TUNER_STATUS_INITIALIZED) {
+			mPendingTuners.remove(tuner);
+			mFailedTuners.remove(tuner);
+		} else if(mTunersKnown && !mFailedTuners.contains(tuner)) {
+			//a tuner may become unavailable again
+			mPendingTuners.add(tuner);
+		}
+
+		return isReady();
+	}
+
+	/**
+	 * Marks a tuner which failed to initialize, it is no longer waited for
+	 * @param tuner the failed {@link Tuner}
+	 * @return {@code true} if the readiness is reached by this tuner, all other tuners are initialized
+	 */
+	synchronized boolean failed(Tuner tuner) {
+		mFailedTuners.add(tuner);
+
+		return mPendingTuners.remove(tuner) && isReady();
+	}
+
+	synchronized boolean isReady() {
+		return mTunersKnown && mPendingTuners.isEmpty();
+	}
+
+	synchronized int getPendingCount() {
+		return mPendingTuners.size();
+	}
+}
@@ -0,0 +1,135 @@
+package eu.hradio.radiowebview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Choreographer;
+import android.webkit.ValueCallback;
+import android.webkit.WebMessage;
+import android.webkit.WebMessagePort;
+import android.webkit.WebView;
+
+import java.util.HashMap;
+
+import static eu.hradio.radiowebview.BuildConfig.DEBUG;
+
+/**
+ * The {@link BridgeHost} of a WebView. Frames are requested from the {@link Choreographer}, scripts are evaluated
+ * by the WebView and messages posted to the {@link WebMessagePort} set with {@link #setPort(WebMessagePort)}.
+ */
+class WebViewBridgeHost implements BridgeHost, Choreographer.FrameCallback {
+
+	private final static String TAG = "WebViewBridgeHost";
+
+	private final WebView mWebView;
+	private final Handler mMainHandler;
+	private JsDispatcher mDispatcher;
+
+	//only used on the main thread
+	private WebMessagePort mPort = null;
+	//evaluation callbacks by dispatcher callback, the dispatcher reuses a small number of callbacks
+	private final HashMap<Runnable, ValueCallback<String>> mEvaluatedCallbacks = new HashMap<>();
+
+	private final Runnable mScheduleFrameRunnable = new Runnable() {
+		@Override
+		public void run() {
+			Choreographer.getInstance().postFrameCallback(WebViewBridgeHost.this);
+		}
+	};
+
+	WebViewBridgeHost(WebView webView) {
+		mWebView = webView;
+		mMainHandler = new Handler(Looper.getMainLooper());
+	}
+
+	/**
+	 * Sets the dispatcher flushed with the requested frames
+	 * @param dispatcher the {@link JsDispatcher} delivering to this host
+	 */
+	void setDispatcher(JsDispatcher dispatcher) {
+		mDispatcher = dispatcher;
+	}
+
+	/**
+	 * Sets the port the messages are posted to instead of evaluating scripts.
+	 * Must be called on the main thread, scripts queued so far are evaluated before.
+	 * @param port the {@link WebMessagePort} or {@code null} to evaluate scripts again
+	 */
+	@TargetApi(Build.VERSION_CODES.M)
+	void setPort(WebMessagePort port) {
+		//the pending scripts are delivered before the port is replaced
+		mDispatcher.setMessageChannel(false);
+
+		WebMessagePort oldPort = mPort;
+		mPort = port;
+		if(port != null) {
+			mDispatcher.setMessageChannel(true);
+		}
+
+		if(oldPort != null && oldPort != port) {
+			oldPort.close();
+		}
+	}
+
+	@Override
+	public void evaluateScript(String script, Runnable evaluatedCallback) {
+		if(DEBUG)Log.d(TAG, "Evaluating scripts with length: " + script.length());
+		mWebView.evaluateJavascript(script, evaluatedCallback != null ? getEvaluatedCallback(evaluatedCallback) : null);
+	}
+
+	@Override
+	public void postMessages(String messagesJson) {
+		if(mPort != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+			if(DEBUG)Log.d(TAG, "Posting messages with length: " + messagesJson.length());
+			mPort.postMessage(new WebMessage(messagesJson));
+		}
+	}
+
+	@Override
+	public void requestFrame() {
+		//the Choreographer is bound to the looper of the calling thread
+		if(Looper.myLooper() == Looper.getMainLooper()) {
+			Choreographer.getInstance().postFrameCallback(this);
+		} else {
+			mMainHandler.post(mScheduleFrameRunnable);
+		}
+	}
+
+	@Override
+	public void requestFrameDelayed(long delayMs) {
+		if(Looper.myLooper() == Looper.getMainLooper()) {
+			Choreographer.getInstance().postFrameCallbackDelayed(this, delayMs);
+		} else {
+			mMainHandler.postDelayed(mScheduleFrameRunnable, delayMs);
+		}
+	}
+
+	@Override
+	public void runOnMainThread(Runnable runnable) {
+		mMainHandler.post(runnable);
+	}
+
+	@Override
+	public void doFrame(long frameTimeNanos) {
+		if(mDispatcher != null) {
+			mDispatcher.flush();
+		}
+	}
+
+	private ValueCallback<String> getEvaluatedCallback(final Runnable evaluatedCallback) {
+		ValueCallback<String> valueCallback = mEvaluatedCallbacks.get(evaluatedCallback);
+		if(valueCallback == null) {
+			valueCallback = new ValueCallback<String>() {
+				@Override
+				public void onReceiveValue(String value) {
+					evaluatedCallback.run();
+				}
+			};
+			mEvaluatedCallbacks.put(evaluatedCallback, valueCallback);
+		}
+
+		return valueCallback;
+	}
+}